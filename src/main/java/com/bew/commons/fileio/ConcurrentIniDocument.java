@@ -0,0 +1,647 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.InvalidParameterValueException;
+import com.bew.commons.property.IniProperty;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe version of {@link IniDocument}, that allows its properties to
+ * be read and changed by any number of threads at the same time.
+ * <p>
+ * Locking is done per section, rather than for the whole document. Each
+ * section is guarded by one of a fixed set of {@link StampedLock}s, chosen by
+ * the hash of the section's name. So a thread reading one section is never
+ * blocked by a thread changing another (unless they happen to share a lock).
+ * </p><p>
+ * Looking up a single property, or section, is first tried as an
+ * <i>optimistic</i> read, which does not write to any shared state at all.
+ * Only if a change to the same section was made during the lookup, or the
+ * lookup failed part way through, is it repeated while holding a proper read
+ * lock. The value and comment of a
+ * property are held in {@code volatile} fields, so once it has been found,
+ * they, and their typed conversions, are read without a lock. Copying a
+ * whole section, or the list of sections, always holds a read lock, as a map
+ * can not be iterated over while it is being changed.
+ * </p><p>
+ * A separate lock guards the list of sections itself. Adding or removing a
+ * section locks it exclusively, and so briefly holds off all other access.
+ * Writers therefore perform best when the sections already exist. Operations
+ * that need a consistent view of the whole document, such as
+ * {@link IniFile#saveFile()}, {@link IniSnapshot} and {@link #toString()},
+ * hold off all writers while they run, though not readers.
+ * </p><p>
+ * To have an {@link IniFile} load into this class, use the constructor
+ * {@link IniFile#IniFile(java.nio.file.Path, IniDocument)}.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public class ConcurrentIniDocument extends IniDocument {
+
+    /**
+     * Guards the section locks.
+     */
+    private final StampedLock[] locks;
+
+    /**
+     * Used to select the section lock from the section name's hash.
+     */
+    private final int mask;
+
+    /**
+     * The number of times {@link #structureLock} has been locked exclusively,
+     * to change the list of sections. Guarded by it.
+     */
+    private long structureChanges;
+
+    /**
+     * Guards {@link #entries}.
+     */
+    private final StampedLock structureLock = new StampedLock();
+
+    /**
+     * Create a new, empty, document with a default number of section locks,
+     * based on the number of available processors.
+     */
+    public ConcurrentIniDocument() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Create a new, empty, document.
+     *
+     * @param concurrencyLevel The number of section locks to use. It is
+     *                         rounded up to a power of two.
+     *
+     * @throws InvalidParameterValueException If {@code concurrencyLevel} is
+     *                                        less than one.
+     */
+    public ConcurrentIniDocument(int concurrencyLevel) {
+        super();
+
+        if (concurrencyLevel < 1)
+        {
+            throw new InvalidParameterValueException("concurrencyLevel < 1: " + concurrencyLevel);
+        }
+
+        int size = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16));
+
+        if (size < concurrencyLevel)
+        {
+            size <<= 1;
+        }
+
+        locks = new StampedLock[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++)
+        {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String section, String key) {
+        return read(section, () -> super.containsKey(section, key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsSection(String section) {
+        return read(null, () -> super.containsSection(section));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<IniProperty<Object>> getSection(String section) {
+        return readLocked(section, () -> super.getSection(section));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSectionComment(String section) {
+        return read(section, () -> super.getSectionComment(section));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getSections() {
+        return readLocked(null, super::getSections);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getStandaloneComments(String section) {
+        return readLocked(section, () -> super.getStandaloneComments(section));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As a live view could not be read safely while other threads are
+     * changing the section, this returns an unmodifiable copy instead.
+     */
+    @Override
+    public Collection<IniProperty<Object>> getSectionView(String section) {
+        List<IniProperty<Object>> rtn = getSection(section);
+
+        return rtn != null ? Collections.unmodifiableList(rtn) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As a live view could not be read safely while other threads are
+     * adding or removing sections, this returns an unmodifiable copy instead.
+     */
+    @Override
+    public Set<String> getSectionsView() {
+        return readLocked(null, () -> Collections.unmodifiableSet(new LinkedHashSet<>(super.getSectionsView())));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The section's read lock is held throughout, so the {@code action} must
+     * not change this document.
+     */
+    @Override
+    public boolean forEachInSection(String section, Consumer<? super IniProperty<Object>> action) {
+        long stamp = structureLock.readLock();
+
+        try
+        {
+            StampedLock lock = lockFor(section);
+            long lstamp = lock.readLock();
+
+            try
+            {
+                return super.forEachInSection(section, action);
+            } finally
+            {
+                lock.unlockRead(lstamp);
+            }
+        } finally
+        {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All of the {@code values} are set while holding the section's write
+     * lock once, so other threads see either none or all of them.
+     */
+    @Override
+    public void putAll(String section, Map<String, String> values, Map<String, String> comments)
+            throws InvalidParameterValueException {
+        write(section, () ->
+        {
+            super.putAll(section, values, comments);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeKey(String section, String key) {
+        long stamp = structureLock.readLock();
+
+        try
+        {
+            StampedLock lock = lockFor(section);
+            long lstamp = lock.writeLock();
+
+            try
+            {
+                super.removeKey(section, key);
+            } finally
+            {
+                lock.unlockWrite(lstamp);
+            }
+        } finally
+        {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeSection(String section) {
+        long stamp = structureLock.writeLock();
+
+        try
+        {
+            structureChanges++;
+            super.removeSection(section);
+        } finally
+        {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String setComment(String section, String key, String comment)
+            throws InvalidParameterValueException {
+        return write(section, () -> super.setComment(section, key, comment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSection(String section, String comment) {
+        write(section, () ->
+        {
+            super.setSection(section, comment);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String setString(String section, String key, String value, String comment)
+            throws InvalidParameterValueException {
+        return write(section, () -> super.setString(section, key, value, comment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    IniEntry putValue(String section, String key, CharSequence value, String comment) {
+        return write(section, () -> super.putValue(section, key, value, comment));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean setValue(String section, IniEntry kv, String value) {
+        return write(section, () -> super.setValue(section, kv, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void defer(String section, IniSection.Deferred body) {
+        write(section, () ->
+        {
+            super.defer(section, body);
+            return null;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The changes are found while holding {@link #lockAll()}, so readers are
+     * not held off by it. The list of sections is then locked exclusively,
+     * only to check that no change was made since, and to swap in the new
+     * contents. If a change was made, the changes are found again. The old
+     * properties are detached, and the listeners told, once more under
+     * {@link #lockAll()}.
+     */
+    @Override
+    boolean replaceWith(IniDocument other, List<IniChange> changes) {
+        long[] lstamps = new long[locks.length];
+
+        while (true)
+        {
+            long changed;
+
+            lockAll();
+
+            try
+            {
+                changes.clear();
+
+                if (IniChange.diff(this, other, changes))
+                {
+                    return false;
+                }
+
+                // Only a write lock, taken later, makes these stamps invalid.
+                changed = structureChanges;
+
+                for (int i = 0; i < locks.length; i++)
+                {
+                    lstamps[i] = locks[i].tryOptimisticRead();
+                }
+            } finally
+            {
+                unlockAll();
+            }
+
+            long stamp = structureLock.writeLock();
+
+            try
+            {
+                if (unchanged(changed, lstamps))
+                {
+                    structureChanges++;
+                    LinkedHashMap<String, IniSection> old = swapEntries(other);
+
+                    // No writer can be holding a section's lock now, so the
+                    // exclusive lock is turned into lockAll() at once.
+                    for (StampedLock lock : locks)
+                    {
+                        lock.asReadLock().lock();
+                    }
+
+                    stamp = structureLock.tryConvertToReadLock(stamp);
+
+                    try
+                    {
+                        replaced(old);
+                    } finally
+                    {
+                        for (int i = locks.length - 1; i >= 0; i--)
+                        {
+                            locks[i].asReadLock().unlock();
+                        }
+                    }
+
+                    return true;
+                }
+            } finally
+            {
+                structureLock.unlock(stamp);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The property is looked up using an optimistic read of its section. The
+     * lookup is only repeated under a read lock, if that section was changed
+     * while it was being read, or the lookup failed. Its value is then read
+     * through its {@code volatile} fields.
+     */
+    @Override
+    IniEntry getEntry(String section, String key) {
+        StampedLock lock = lockFor(section);
+        long stamp = structureLock.tryOptimisticRead();
+        long lstamp = lock.tryOptimisticRead();
+
+        if (stamp != 0L && lstamp != 0L)
+        {
+            try
+            {
+                IniEntry rtn = super.getEntry(section, key);
+
+                if (structureLock.validate(stamp) && lock.validate(lstamp))
+                {
+                    return rtn;
+                }
+            } catch (RuntimeException ex)
+            {
+                // A map being changed meanwhile may be found in any state.
+                // Looked up again under the read lock, which reports any
+                // genuine failure.
+            }
+        }
+
+        stamp = structureLock.readLock();
+
+        try
+        {
+            lstamp = lock.readLock();
+
+            try
+            {
+                return super.getEntry(section, key);
+            } finally
+            {
+                lock.unlockRead(lstamp);
+            }
+        } finally
+        {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All writers hold a read lock on the list of sections, as well as the
+     * write lock of their section. Taking a read lock on all of these
+     * therefore holds off every writer, while still letting readers through.
+     */
+    @Override
+    void lockAll() {
+        structureLock.asReadLock().lock();
+
+        for (StampedLock lock : locks)
+        {
+            lock.asReadLock().lock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--)
+        {
+            locks[i].asReadLock().unlock();
+        }
+
+        structureLock.asReadLock().unlock();
+    }
+
+    /**
+     * Get the lock that guards this {@code section}.
+     */
+    private StampedLock lockFor(String section) {
+        if (section == null)
+        {
+            return locks[0];
+        }
+
+        int h = section.hashCode();
+        return locks[(h ^ (h >>> 16)) & mask];
+    }
+
+    /**
+     * Run the {@code reader} under an optimistic read, or a read lock if that
+     * fails. The {@code reader} must only look up entries in the maps, and
+     * not iterate over them.
+     */
+    private <T> T read(String section, Supplier<T> reader) {
+        StampedLock lock = lockFor(section);
+        long stamp = structureLock.tryOptimisticRead();
+        long lstamp = lock.tryOptimisticRead();
+
+        if (stamp != 0L && lstamp != 0L)
+        {
+            try
+            {
+                T rtn = reader.get();
+
+                if (structureLock.validate(stamp) && lock.validate(lstamp))
+                {
+                    return rtn;
+                }
+            } catch (RuntimeException ex)
+            {
+                // A map being changed meanwhile may be found in any state.
+                // Read again under the read lock, which reports any genuine
+                // failure.
+            }
+        }
+
+        return readLocked(section, reader);
+    }
+
+    /**
+     * Run the {@code reader} while holding the read lock of this
+     * {@code section}, and of the list of sections.
+     */
+    private <T> T readLocked(String section, Supplier<T> reader) {
+        StampedLock lock = lockFor(section);
+        long stamp = structureLock.readLock();
+
+        try
+        {
+            long lstamp = lock.readLock();
+
+            try
+            {
+                return reader.get();
+            } finally
+            {
+                lock.unlockRead(lstamp);
+            }
+        } finally
+        {
+            structureLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks, while holding the list of sections exclusively, that no change
+     * has been made since the {@link #structureChanges} and the section lock
+     * stamps were taken.
+     */
+    private boolean unchanged(long changed, long[] lstamps) {
+        if (changed != structureChanges)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < locks.length; i++)
+        {
+            if (!locks[i].validate(lstamps[i]))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Run the {@code writer} while holding the write lock of this
+     * {@code section}.
+     * <p>
+     * If the section does not exist yet, the writer will be creating it, and so
+     * the list of sections is locked exclusively instead.
+     */
+    private <T> T write(String section, Supplier<T> writer) {
+        long stamp = structureLock.readLock();
+
+        try
+        {
+            if (!entries.containsKey(section))
+            {
+                long wstamp = structureLock.tryConvertToWriteLock(stamp);
+
+                if (wstamp == 0L)
+                {
+                    structureLock.unlockRead(stamp);
+                    wstamp = structureLock.writeLock();
+                }
+
+                stamp = wstamp;
+                structureChanges++;
+
+                // Nothing else can be holding the section's lock now.
+                return writer.get();
+            }
+
+            StampedLock lock = lockFor(section);
+            long lstamp = lock.writeLock();
+
+            try
+            {
+                return writer.get();
+            } finally
+            {
+                lock.unlockWrite(lstamp);
+            }
+        } finally
+        {
+            structureLock.unlock(stamp);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Saves an {@link IniFile} on a background thread, some time after its
+ * {@link IniFile#iniDoc} has been changed.
+ * <p>
+ * Obtained from {@link IniFile#autosave(long, TimeUnit, int)}. Rather than
+ * saving the file after every change, the changes are gathered up, and saved
+ * all at once, either once the {@code delay} has passed since the first of
+ * them, or as soon as {@code maxChanges} of them have been made, whichever
+ * comes first. A burst of changes therefore costs only one save.
+ * </p><p>
+ * Each save writes the whole file out to a temporary file in the same
+ * directory, and then moves it over the original one. Anything reading the
+ * file always sees either the old file, or the new one, never one that is
+ * part way through being written.
+ * </p><p>
+ * The save is made from the background thread, while other threads may be
+ * changing the document. So the document should be a
+ * {@link ConcurrentIniDocument}, or else all changes should be made through
+ * {@link IniFile#update(java.util.function.Consumer) update()}.
+ * </p><p>
+ * The background thread does not keep the JVM running. Call {@link #close()}
+ * to save any remaining changes before exiting.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniAutosave implements AutoCloseable {
+
+    /**
+     * The total number of changes made while this was running.
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile boolean closed;
+
+    private final long delay;
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * When the first of the {@link #pending} changes was made, as per
+     * {@link System#nanoTime()}.
+     */
+    private volatile long firstChange;
+
+    private final IniFile iniFile;
+    private volatile IOException lastError;
+    private volatile long lastLatency;
+    private final Runnable listener = this::changed;
+    private final int maxChanges;
+    private volatile long maxLatency;
+
+    /**
+     * The number of changes not yet saved.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The total number of changes saved.
+     */
+    private volatile long saved;
+
+    private volatile long writes;
+
+    /**
+     * Create and start a new autosave.
+     *
+     * @param iniFile    The file to save.
+     * @param delay      The time after the first change, in nanoseconds, to
+     *                   save the file.
+     * @param maxChanges The number of changes after which the file is saved
+     *                   straight away.
+     */
+    IniAutosave(IniFile iniFile, long delay, int maxChanges) {
+        this.iniFile = iniFile;
+        this.delay = delay;
+        this.maxChanges = maxChanges;
+
+        executor = new ScheduledThreadPoolExecutor(1, task ->
+        {
+            Thread thread = new Thread(task, "IniAutosave: " + iniFile.path);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        iniFile.iniDoc.changeListener = listener;
+    }
+
+    /**
+     * Stop watching for changes, and save any that have not yet been saved.
+     *
+     * @throws IOException If an I/O error occurs while saving.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed)
+        {
+            closed = true;
+
+            if (iniFile.iniDoc.changeListener == listener)
+            {
+                iniFile.iniDoc.changeListener = null;
+            }
+
+            executor.shutdown();
+            flush();
+        }
+    }
+
+    /**
+     * Save any changes that have not yet been saved, now, on this thread.
+     *
+     * @throws IOException If an I/O error occurs. The changes are saved on
+     *                     the next attempt.
+     */
+    public void flush() throws IOException {
+        synchronized (iniFile)
+        {
+            long first = firstChange;
+            int count = pending.getAndSet(0);
+
+            if (count == 0)
+            {
+                return;
+            }
+
+            try
+            {
+                iniFile.saveAtomically();
+            } catch (IOException ex)
+            {
+                pending.addAndGet(count);
+                lastError = ex;
+                throw ex;
+            }
+
+            long latency = System.nanoTime() - first;
+            lastLatency = latency;
+            maxLatency = Math.max(maxLatency, latency);
+            saved += count;
+            writes++;
+        }
+    }
+
+    /**
+     * @return the number of changes made to the document since this was
+     *         started.
+     */
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    /**
+     * @param unit The unit of time to return.
+     *
+     * @return the time between the first change, and the file being saved,
+     *         of the most recent save.
+     */
+    public long getLastFlushLatency(TimeUnit unit) {
+        return unit.convert(lastLatency, NANOSECONDS);
+    }
+
+    /**
+     * @return the exception thrown by the most recent failed save, or
+     *         {@code null} if none has failed.
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @param unit The unit of time to return.
+     *
+     * @return the longest time between the first change, and the file being
+     *         saved, of any save.
+     */
+    public long getMaxFlushLatency(TimeUnit unit) {
+        return unit.convert(maxLatency, NANOSECONDS);
+    }
+
+    /**
+     * @return the number of times the file has been saved.
+     */
+    public long getWriteCount() {
+        return writes;
+    }
+
+    /**
+     * @return the number of saves that were not needed, compared to saving
+     *         after every change.
+     */
+    public long getWritesAvoided() {
+        return saved - writes;
+    }
+
+    /**
+     * @return {@code true} if this has been closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Called by the document after each change.
+     */
+    private void changed() {
+        changes.incrementAndGet();
+        int count = pending.incrementAndGet();
+
+        if (count == 1)
+        {
+            firstChange = System.nanoTime();
+            schedule(delay);
+        } else if (count == maxChanges)
+        {
+            schedule(0L);
+        }
+    }
+
+    /**
+     * Save the changes on the background thread. If that fails, try again
+     * after the delay.
+     */
+    private void run() {
+        try
+        {
+            flush();
+        } catch (IOException ex)
+        {
+            schedule(delay);
+        }
+    }
+
+    /**
+     * Run a save after the {@code delay}, in nanoseconds.
+     */
+    private void schedule(long delay) {
+        if (!closed)
+        {
+            try
+            {
+                executor.schedule(this::run, delay, NANOSECONDS);
+            } catch (RejectedExecutionException ex)
+            {
+                // Closed meanwhile. close() saves the changes.
+            }
+        }
+    }
+}
@@ -0,0 +1,908 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A compiled, binary copy of an {@link IniDocument}, that can be
+ * memory-mapped and queried without first being loaded into a document.
+ * <p>
+ * Each distinct string (section name, key, value or comment) is stored just
+ * once, in a string table, encoded as UTF-8. The sections, properties and
+ * standalone comments are then tables of fixed size records, in document
+ * order, that refer to their strings by number. Two hash tables, one of the
+ * section names, and one of the keys within each section, find any one
+ * property with only a few reads of the mapped file, and no decoding of
+ * anything other than the value itself.
+ * </p><p>
+ * Use {@link #write(IniDocument, Path)} to compile a document, and
+ * {@link #open(Path)} to map the result. {@link #load(IniDocument)} loads the
+ * whole of it into a document, far faster than parsing the original
+ * <u>ini</u> file, as each string is simply copied out of the string table.
+ * {@link IniFile#binaryCache} keeps a compiled copy of a file alongside it,
+ * and loads from it at startup.
+ * </p><p>
+ * An {@code IniBinary} never changes once it has been opened, and so can be
+ * shared between any number of threads. The file must not be changed, or
+ * truncated, while it is mapped. {@code write()} therefore replaces any
+ * existing file, rather than writing over it.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniBinary {
+
+    /**
+     * The size of a standalone comment record: key, comment and position.
+     */
+    private static final int COMMENT_SIZE = 12;
+
+    /**
+     * The size of the header.
+     */
+    private static final int HEADER_SIZE = 56;
+
+    /**
+     * "INIB".
+     */
+    private static final int MAGIC = 0x494E4942;
+
+    /**
+     * The string number held for a {@code null} string.
+     */
+    private static final int NULL = -1;
+
+    /**
+     * The size of a property record: key, value and comment.
+     */
+    private static final int PROPERTY_SIZE = 12;
+
+    /**
+     * The size of a section record: name, comment, first property, property
+     * count, first comment and comment count.
+     */
+    private static final int SECTION_SIZE = 24;
+
+    private static final int VERSION = 1;
+
+    private final ByteBuffer buf;
+    private final int commentCount;
+    private final int comments;
+    private final int keyIndex;
+    private final int keySlots;
+    private final int propertyCount;
+    private final int properties;
+    private final int sectionCount;
+    private final int sectionIndex;
+    private final int sectionSlots;
+    private final int sections;
+
+    /**
+     * The size of the file the document was loaded from, when it was
+     * compiled, or {@code -1} if not known.
+     */
+    private final long sourceSize;
+
+    /**
+     * The last modified time of the file the document was loaded from, in
+     * nanoseconds, when it was compiled.
+     */
+    private final long sourceModified;
+
+    private final int stringCount;
+    private final int stringData;
+    private final int stringOffsets;
+
+    private IniBinary(ByteBuffer buf) throws IOException {
+        this.buf = buf;
+
+        if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a compiled ini file");
+        } else if (buf.getInt(4) != VERSION)
+        {
+            throw new IOException("Unsupported compiled ini file version: " + buf.getInt(4));
+        } else if (buf.getLong(8) != buf.capacity())
+        {
+            throw new IOException("Compiled ini file is incomplete");
+        }
+
+        sourceSize = buf.getLong(16);
+        sourceModified = buf.getLong(24);
+        stringCount = buf.getInt(32);
+        sectionCount = buf.getInt(36);
+        propertyCount = buf.getInt(40);
+        commentCount = buf.getInt(44);
+        sectionSlots = buf.getInt(48);
+        keySlots = buf.getInt(52);
+
+        if ((stringCount | sectionCount | propertyCount | commentCount) < 0
+            || Integer.bitCount(sectionSlots) != 1 || Integer.bitCount(keySlots) != 1
+            || HEADER_SIZE + (long) sectionCount * SECTION_SIZE + (long) propertyCount * PROPERTY_SIZE
+               + (long) commentCount * COMMENT_SIZE + ((long) sectionSlots + keySlots + stringCount + 1) * 4L
+               > buf.capacity())
+        {
+            throw corrupt();
+        }
+
+        sections = HEADER_SIZE;
+        properties = sections + sectionCount * SECTION_SIZE;
+        comments = properties + propertyCount * PROPERTY_SIZE;
+        sectionIndex = comments + commentCount * COMMENT_SIZE;
+        keyIndex = sectionIndex + sectionSlots * 4;
+        stringOffsets = keyIndex + keySlots * 4;
+        stringData = stringOffsets + (stringCount + 1) * 4;
+        check();
+    }
+
+    /**
+     * Check that every number held in the tables refers to somewhere within
+     * the file, so that a corrupt file is never read beyond its end.
+     *
+     * @throws IOException If one does not.
+     */
+    private void check() throws IOException {
+        int previous = 0;
+
+        if (buf.getInt(stringOffsets) != 0)
+        {
+            throw corrupt();
+        }
+
+        for (int n = 1; n <= stringCount; n++)
+        {
+            int offset = buf.getInt(stringOffsets + n * 4);
+
+            if (offset < previous)
+            {
+                throw corrupt();
+            }
+
+            previous = offset;
+        }
+
+        if (previous != buf.capacity() - stringData)
+        {
+            throw corrupt();
+        }
+
+        for (int s = 0; s < sectionCount; s++)
+        {
+            int rec = sections + s * SECTION_SIZE;
+            checkStrings(rec, 2);
+            checkRange(buf.getInt(rec + 8), buf.getInt(rec + 12), propertyCount);
+            checkRange(buf.getInt(rec + 16), buf.getInt(rec + 20), commentCount);
+        }
+
+        for (int p = 0; p < propertyCount; p++)
+        {
+            checkStrings(properties + p * PROPERTY_SIZE, 3);
+        }
+
+        for (int c = 0; c < commentCount; c++)
+        {
+            checkStrings(comments + c * COMMENT_SIZE, 2);
+        }
+
+        for (int i = 0; i < sectionSlots; i++)
+        {
+            checkRange(0, buf.getInt(sectionIndex + i * 4), sectionCount);
+        }
+
+        for (int i = 0; i < keySlots; i++)
+        {
+            checkRange(0, buf.getInt(keyIndex + i * 4), propertyCount);
+        }
+    }
+
+    /**
+     * Check that {@code first} and {@code count} describe a run of records
+     * within a table of {@code size} records.
+     */
+    private static void checkRange(int first, int count, int size) throws IOException {
+        if (first < 0 || count < 0 || first > size - count)
+        {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * Check that the {@code count} string numbers held from {@code rec} are
+     * each {@link #NULL}, or in the string table.
+     */
+    private void checkStrings(int rec, int count) throws IOException {
+        for (int i = 0; i < count; i++)
+        {
+            int n = buf.getInt(rec + i * 4);
+
+            if (n < NULL || n >= stringCount)
+            {
+                throw corrupt();
+            }
+        }
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Compiled ini file is corrupt");
+    }
+
+    /**
+     * Map a compiled file, ready to be queried.
+     *
+     * @param file The file written by {@link #write(IniDocument, Path)}.
+     *
+     * @return the mapped file.
+     *
+     * @throws IOException If an I/O error occurs, or the file is not a
+     *                     complete compiled ini file, or is corrupt.
+     */
+    public static IniBinary open(Path file) throws IOException {
+        try ( FileChannel channel = FileChannel.open(file, READ))
+        {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("Not a compiled ini file");
+            }
+
+            MappedByteBuffer buf = channel.map(READ_ONLY, 0, size);
+            return new IniBinary(buf);
+        }
+    }
+
+    /**
+     * Compile the {@code iniDoc}, replacing the {@code file} in a single
+     * atomic step, if it already exists.
+     * <p>
+     * Any sections not yet read in by a {@link IniFile#lazyLoad} are read in
+     * first.
+     *
+     * @param iniDoc The document to compile.
+     * @param file   The file to write.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void write(IniDocument iniDoc, Path file) throws IOException {
+        write(iniDoc, file, -1L, 0L);
+    }
+
+    /**
+     * Compile the {@code iniDoc}, recording the size and last modified time of
+     * the file it was loaded from.
+     */
+    static void write(IniDocument iniDoc, Path file, long sourceSize, long sourceModified)
+            throws IOException {
+
+        ByteBuffer buf;
+        iniDoc.lockAll();
+
+        try
+        {
+            buf = new Compiler(sourceSize, sourceModified).compile(iniDoc.entries.values());
+        } catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        } finally
+        {
+            iniDoc.unlockAll();
+        }
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+
+        try
+        {
+            try ( FileChannel out = FileChannel.open(temp, TRUNCATE_EXISTING, WRITE))
+            {
+                while (buf.hasRemaining())
+                {
+                    out.write(buf);
+                }
+            }
+
+            try
+            {
+                Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex)
+            {
+                Files.move(temp, file, REPLACE_EXISTING);
+            }
+        } finally
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Hash the UTF-8 encoding of a string.
+     */
+    private static int hash(byte[] bytes) {
+        int h = 0;
+
+        for (byte b : bytes)
+        {
+            h = 31 * h + (b & 0xFF);
+        }
+
+        return h;
+    }
+
+    /**
+     * Hash a key within the section numbered {@code section}.
+     */
+    private static int hash(int section, int keyHash) {
+        int h = keyHash * 31 + section;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the number of hash table slots to use for {@code count}
+     *         entries: a power of two, at least twice {@code count}.
+     */
+    private static int slots(int count) {
+        return Integer.highestOneBit(Math.max(count, 1)) << 2;
+    }
+
+    /**
+     * Checks for the existence of the {@code key} in the {@code section}.
+     *
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     * @param key     The key label.
+     *
+     * @return {@code true} if it exists.
+     */
+    public boolean containsKey(String section, String key) {
+        return findProperty(section, key) >= 0;
+    }
+
+    /**
+     * Checks for the existence of the {@code section}.
+     *
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     *
+     * @return {@code true} if it exists.
+     */
+    public boolean containsSection(String section) {
+        return findSection(section) >= 0;
+    }
+
+    /**
+     * Get the comment of the {@code key}.
+     *
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     * @param key     The key label.
+     *
+     * @return the comment, or {@code null} if there is none.
+     */
+    public String getComment(String section, String key) {
+        int p = findProperty(section, key);
+        return p >= 0 ? string(buf.getInt(properties + p * PROPERTY_SIZE + 8)) : null;
+    }
+
+    /**
+     * Get the keys of the {@code section}, in document order.
+     *
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     *
+     * @return the keys, or an empty list if there is no such section.
+     */
+    public List<String> getKeys(String section) {
+        int s = findSection(section);
+
+        if (s < 0)
+        {
+            return List.of();
+        }
+
+        int first = buf.getInt(sections + s * SECTION_SIZE + 8);
+        int count = buf.getInt(sections + s * SECTION_SIZE + 12);
+        List<String> rtn = new ArrayList<>(count);
+
+        for (int p = first; p < first + count; p++)
+        {
+            rtn.add(string(buf.getInt(properties + p * PROPERTY_SIZE)));
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Get the comment of the {@code section}.
+     *
+     * @param section Name of the section.
+     *
+     * @return the comment, or {@code null} if there is none, or no such
+     *         section.
+     */
+    public String getSectionComment(String section) {
+        int s = findSection(section);
+        return s >= 0 ? string(buf.getInt(sections + s * SECTION_SIZE + 4)) : null;
+    }
+
+    /**
+     * Get the names of all sections, in document order. Unlike
+     * {@link IniDocument#getSections()}, this includes the <b>global
+     * section</b>, as {@code null}, if it exists.
+     *
+     * @return the section names.
+     */
+    public List<String> getSections() {
+        List<String> rtn = new ArrayList<>(sectionCount);
+
+        for (int s = 0; s < sectionCount; s++)
+        {
+            rtn.add(string(buf.getInt(sections + s * SECTION_SIZE)));
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Get the value of the {@code key}.
+     *
+     * @param section      Name of the section, or {@code null} for the
+     *                     <b>global section</b>.
+     * @param key          The key label.
+     * @param defaultvalue Returned if there is no such key, or it has no
+     *                     value (though it may have an empty one).
+     *
+     * @return the value, or the {@code defaultvalue}.
+     */
+    public String getString(String section, String key, String defaultvalue) {
+        int p = findProperty(section, key);
+        String rtn = p >= 0 ? string(buf.getInt(properties + p * PROPERTY_SIZE + 4)) : null;
+        return rtn != null ? rtn : defaultvalue;
+    }
+
+    /**
+     * Load the whole of this into the {@code iniDoc}, exactly as if the
+     * original <u>ini</u> file had been parsed into it.
+     *
+     * @param iniDoc To receive the properties.
+     */
+    public void load(IniDocument iniDoc) {
+        byte[] data = new byte[buf.capacity() - stringData];
+        buf.get(stringData, data);
+        String[] strings = new String[stringCount];
+
+        for (int s = 0; s < sectionCount; s++)
+        {
+            int rec = sections + s * SECTION_SIZE;
+            String name = string(data, strings, buf.getInt(rec));
+            int firstProperty = buf.getInt(rec + 8);
+            int propertyEnd = firstProperty + buf.getInt(rec + 12);
+            int c = buf.getInt(rec + 16);
+            int commentEnd = c + buf.getInt(rec + 20);
+
+            if (name != null)
+            {
+                iniDoc.setSection(name, string(data, strings, buf.getInt(rec + 4)));
+            }
+
+            for (int p = firstProperty; p <= propertyEnd; p++)
+            {
+                // Any standalone comments before this key?
+                for (; c < commentEnd && buf.getInt(comments + c * COMMENT_SIZE + 8) <= p - firstProperty; c++)
+                {
+                    int cr = comments + c * COMMENT_SIZE;
+                    iniDoc.setComment(name, string(data, strings, buf.getInt(cr)),
+                                      string(data, strings, buf.getInt(cr + 4)));
+                }
+
+                if (p < propertyEnd)
+                {
+                    int pr = properties + p * PROPERTY_SIZE;
+                    iniDoc.putValue(name, string(data, strings, buf.getInt(pr)),
+                                    string(data, strings, buf.getInt(pr + 4)),
+                                    string(data, strings, buf.getInt(pr + 8)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Add each section to the {@code iniDoc}, with its comment, as per
+     * {@link IniFile#lazyLoad}. Its properties and standalone comments are
+     * only read in from this, the first time it is used.
+     *
+     * @param iniDoc To receive the sections.
+     */
+    void defer(IniDocument iniDoc) {
+        for (int s = 0; s < sectionCount; s++)
+        {
+            int rec = sections + s * SECTION_SIZE;
+            String name = string(buf.getInt(rec));
+
+            if (name != null)
+            {
+                iniDoc.setSection(name, string(buf.getInt(rec + 4)));
+            }
+
+            if (buf.getInt(rec + 12) > 0 || buf.getInt(rec + 20) > 0)
+            {
+                int section = s;
+                iniDoc.defer(name, iniSection -> load(iniSection, section));
+            }
+        }
+    }
+
+    /**
+     * @return the size of the file the document was loaded from, when it was
+     *         compiled, or {@code -1} if not known.
+     */
+    long sourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * @return the last modified time, in nanoseconds, of the file the
+     *         document was loaded from, when it was compiled.
+     */
+    long sourceModified() {
+        return sourceModified;
+    }
+
+    /**
+     * Load the properties and standalone comments of the section numbered
+     * {@code s} into the {@code iniSection}.
+     */
+    private void load(IniSection iniSection, int s) {
+        int rec = sections + s * SECTION_SIZE;
+        int firstProperty = buf.getInt(rec + 8);
+        int propertyEnd = firstProperty + buf.getInt(rec + 12);
+        int c = buf.getInt(rec + 16);
+        int commentEnd = c + buf.getInt(rec + 20);
+
+        for (int p = firstProperty; p <= propertyEnd; p++)
+        {
+            // Any standalone comments before this key?
+            for (; c < commentEnd && buf.getInt(comments + c * COMMENT_SIZE + 8) <= p - firstProperty; c++)
+            {
+                int cr = comments + c * COMMENT_SIZE;
+                iniSection.putStandalone(string(buf.getInt(cr)), string(buf.getInt(cr + 4)));
+            }
+
+            if (p < propertyEnd)
+            {
+                int pr = properties + p * PROPERTY_SIZE;
+                iniSection.putString(string(buf.getInt(pr)), string(buf.getInt(pr + 4)), string(buf.getInt(pr + 8)));
+            }
+        }
+    }
+
+    /**
+     * Checks whether the string numbered {@code n} is the string encoded as
+     * {@code bytes}.
+     */
+    private boolean equals(int n, byte[] bytes) {
+        if (n == NULL)
+        {
+            return bytes == null;
+        } else if (bytes == null)
+        {
+            return false;
+        }
+
+        int from = buf.getInt(stringOffsets + n * 4);
+        int length = buf.getInt(stringOffsets + n * 4 + 4) - from;
+
+        if (length != bytes.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            if (buf.get(stringData + from + i) != bytes[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of the property, or {@code -1} if not found.
+     */
+    private int findProperty(String section, String key) {
+        int s = findSection(section);
+
+        if (s < 0 || key == null)
+        {
+            return -1;
+        }
+
+        int first = buf.getInt(sections + s * SECTION_SIZE + 8);
+        int count = buf.getInt(sections + s * SECTION_SIZE + 12);
+        byte[] bytes = key.getBytes(UTF_8);
+        int mask = keySlots - 1;
+
+        for (int i = hash(s, hash(bytes)) & mask;; i = (i + 1) & mask)
+        {
+            int p = buf.getInt(keyIndex + i * 4) - 1;
+
+            if (p < 0)
+            {
+                return -1;
+            } else if (p >= first && p < first + count
+                       && equals(buf.getInt(properties + p * PROPERTY_SIZE), bytes))
+            {
+                return p;
+            }
+        }
+    }
+
+    /**
+     * @return the number of the section, or {@code -1} if not found.
+     */
+    private int findSection(String section) {
+        byte[] bytes = section != null ? section.getBytes(UTF_8) : null;
+        int mask = sectionSlots - 1;
+
+        for (int i = (bytes != null ? hash(bytes) : 0) & mask;; i = (i + 1) & mask)
+        {
+            int s = buf.getInt(sectionIndex + i * 4) - 1;
+
+            if (s < 0)
+            {
+                return -1;
+            } else if (equals(buf.getInt(sections + s * SECTION_SIZE), bytes))
+            {
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Decode the string numbered {@code n}.
+     */
+    private String string(int n) {
+        if (n == NULL)
+        {
+            return null;
+        }
+
+        int from = buf.getInt(stringOffsets + n * 4);
+        byte[] bytes = new byte[buf.getInt(stringOffsets + n * 4 + 4) - from];
+        buf.get(stringData + from, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Decode the string numbered {@code n} from the string {@code data}, only
+     * once, keeping it in {@code strings}.
+     */
+    private String string(byte[] data, String[] strings, int n) {
+        if (n == NULL)
+        {
+            return null;
+        }
+
+        String rtn = strings[n];
+
+        if (rtn == null)
+        {
+            int from = buf.getInt(stringOffsets + n * 4);
+            rtn = new String(data, from, buf.getInt(stringOffsets + n * 4 + 4) - from, UTF_8);
+            strings[n] = rtn;
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Builds the compiled form of a document.
+     */
+    private static final class Compiler {
+
+        private final List<int[]> commentList = new ArrayList<>();
+        private final List<int[]> propertyList = new ArrayList<>();
+        private final List<int[]> sectionList = new ArrayList<>();
+        private final long sourceModified;
+        private final long sourceSize;
+        private final List<byte[]> strings = new ArrayList<>();
+        private final Map<String, Integer> stringNumbers = new HashMap<>();
+        private int stringSize;
+
+        private Compiler(long sourceSize, long sourceModified) {
+            this.sourceSize = sourceSize;
+            this.sourceModified = sourceModified;
+        }
+
+        /**
+         * Compile the {@code iniSections}, in document order.
+         *
+         * @throws IOException          If the document is too large.
+         * @throws UncheckedIOException If an I/O error occurs reading in a
+         *                              section.
+         */
+        private ByteBuffer compile(Iterable<IniSection> iniSections) throws IOException {
+            List<Integer> sectionHashes = new ArrayList<>();
+            List<Integer> keyHashes = new ArrayList<>();
+
+            for (IniSection section : iniSections)
+            {
+                int name = number(section.key());
+                int firstProperty = propertyList.size();
+                int firstComment = commentList.size();
+
+                for (IniEntry kv : section.value().values())
+                {
+                    int key = number(kv.key());
+                    propertyList.add(new int[]
+                    {
+                        key, number(kv.text()), number(kv.comment())
+                    });
+                    keyHashes.add(hash(sectionList.size(), hash(strings.get(key))));
+                }
+
+                int[] positions = section.positions();
+                int i = 0;
+
+                for (IniSection.Standalone comment : section.standalone())
+                {
+                    commentList.add(new int[]
+                    {
+                        number(comment.key()), number(comment.comment()), positions[i++]
+                    });
+                }
+
+                sectionHashes.add(name != NULL ? hash(strings.get(name)) : 0);
+                sectionList.add(new int[]
+                {
+                    name, number(section.comment()), firstProperty, propertyList.size() - firstProperty,
+                    firstComment, commentList.size() - firstComment
+                });
+            }
+
+            int sectionSlots = slots(sectionList.size());
+            int keySlots = slots(propertyList.size());
+            long length = HEADER_SIZE + (long) sectionList.size() * SECTION_SIZE
+                          + (long) propertyList.size() * PROPERTY_SIZE + (long) commentList.size() * COMMENT_SIZE
+                          + (sectionSlots + keySlots + strings.size() + 1) * 4L + stringSize;
+
+            if (length > Integer.MAX_VALUE)
+            {
+                throw new IOException("Document too large to compile");
+            }
+
+            ByteBuffer buf = ByteBuffer.allocate((int) length);
+            buf.putInt(MAGIC).putInt(VERSION).putLong(length).putLong(sourceSize).putLong(sourceModified)
+                    .putInt(strings.size()).putInt(sectionList.size()).putInt(propertyList.size())
+                    .putInt(commentList.size()).putInt(sectionSlots).putInt(keySlots);
+
+            for (List<int[]> records : List.of(sectionList, propertyList, commentList))
+            {
+                for (int[] record : records)
+                {
+                    for (int field : record)
+                    {
+                        buf.putInt(field);
+                    }
+                }
+            }
+
+            int[] index = new int[sectionSlots];
+
+            for (int s = 0; s < sectionList.size(); s++)
+            {
+                place(index, sectionHashes.get(s), s);
+            }
+
+            putAll(buf, index);
+            index = new int[keySlots];
+
+            for (int p = 0; p < propertyList.size(); p++)
+            {
+                place(index, keyHashes.get(p), p);
+            }
+
+            putAll(buf, index);
+            int offset = 0;
+
+            for (byte[] string : strings)
+            {
+                buf.putInt(offset);
+                offset += string.length;
+            }
+
+            buf.putInt(offset);
+
+            for (byte[] string : strings)
+            {
+                buf.put(string);
+            }
+
+            return buf.flip();
+        }
+
+        /**
+         * @return the number of the {@code string} in the string table,
+         *         adding it if it is not already there.
+         */
+        private int number(CharSequence string) {
+            if (string == null)
+            {
+                return NULL;
+            }
+
+            return stringNumbers.computeIfAbsent(string.toString(), s ->
+                                         {
+                                             byte[] bytes = s.getBytes(UTF_8);
+                                             strings.add(bytes);
+                                             stringSize += bytes.length;
+                                             return strings.size() - 1;
+                                         });
+        }
+
+        /**
+         * Place record number {@code n} in the first free slot of the hash
+         * table {@code index}, from its {@code hash}.
+         */
+        private static void place(int[] index, int hash, int n) {
+            int mask = index.length - 1;
+            int i = hash & mask;
+
+            while (index[i] != 0)
+            {
+                i = (i + 1) & mask;
+            }
+
+            index[i] = n + 1;
+        }
+
+        private static void putAll(ByteBuffer buf, int[] values) {
+            for (int value : values)
+            {
+                buf.putInt(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,542 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Binds the properties of a section of an {@link IniDocument} onto a new
+ * instance of a record, or of a plain Java class.
+ * <p>
+ * Each property is bound to the record component, or field, of the same name,
+ * ignoring case. So the section:
+ * </p>
+ * <pre><code>
+ * [Fred Smith]
+ * Address=10 Anders Ave
+ * Suburb=Jinville
+ * Phone=0412-345-395
+ * </code></pre>
+ * <p>
+ * can be bound with:
+ * </p>
+ * <pre><code>
+ * record Employee(String address, String suburb, String phone) {}
+ *
+ * Employee fred = IniBinder.of(Employee.class).bind(iniFile.iniDoc, "Fred Smith");
+ * </code></pre>
+ * <p>
+ * A record is created through its canonical constructor. Any component
+ * without a property is given {@code null}, {@code 0} or {@code false}. A
+ * plain class needs a constructor taking no arguments. Each property is then
+ * set through the setter of the same name ({@code setAddress()} for
+ * "address"), if there is one, or else straight into the field of that name.
+ * Fields that are {@code static}, {@code final} or {@code transient}, or of a
+ * type that can not be bound, are left alone, as are properties with no
+ * setter or field.
+ * </p><p>
+ * The types that can be bound are: {@code String}, each primitive type and
+ * its wrapper, apart from {@code char}, and any {@code enum}. The numbers and
+ * booleans are converted exactly as by {@link IniDocument#getInt(String, String, int)
+ * getInt()} and the like.
+ * </p><p>
+ * All of the reflection is done once, the first time a class is bound. The
+ * constructor, setters and conversions are held as {@link MethodHandle}s,
+ * cached against the class, so binding each section only costs the
+ * look up of each key, its conversion and the call to the setter.
+ * </p><p>
+ * The class must be accessible to this module: either public, or in a package
+ * open to it. An {@code IniBinder} is thread-safe.
+ * </p>
+ *
+ * @param <T> The type bound to.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniBinder<T> {
+
+    /**
+     * The most keys to remember the slot of, ignoring case.
+     */
+    private static final int MAX_KEYS = 1024;
+
+    /**
+     * Stands for no slot, as a {@code ConcurrentHashMap} can not hold
+     * {@code null}.
+     */
+    private static final Slot NONE = new Slot("", -1, null);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<IniBinder<?>> BINDERS = new ClassValue<>()
+    {
+        @Override
+        protected IniBinder<?> computeValue(Class<?> type) {
+            return new IniBinder<>(type);
+        }
+    };
+
+    /**
+     * The number of components of a record, or {@code -1} for a plain class.
+     */
+    private final int arity;
+
+    /**
+     * Creates a new instance, from the property for each of a record's
+     * components, converting each one straight into the argument for its
+     * canonical constructor, or from nothing for a plain class.
+     * <p>
+     * Type: {@code (IniEntry[])Object}.
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * The slots, by name, and by each key found to match one, or no slot,
+     * ignoring case. At most {@link #MAX_KEYS} keys are added.
+     */
+    private final Map<String, Slot> exact = new ConcurrentHashMap<>();
+
+    /**
+     * The slots, by name, ignoring case.
+     */
+    private final Map<String, Slot> ignoringCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    private final Class<T> type;
+
+    private IniBinder(Class<T> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup;
+
+        try
+        {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException ex)
+        {
+            lookup = MethodHandles.publicLookup();
+        }
+
+        try
+        {
+            Object[] components = recordComponents(type);
+
+            if (components != null)
+            {
+                Class<?>[] types = new Class<?>[components.length];
+                MethodHandle[] converters = new MethodHandle[components.length];
+                MethodHandle isNull = LOOKUP.findStatic(Objects.class, "isNull", methodType(boolean.class, Object.class))
+                        .asType(methodType(boolean.class, IniEntry.class));
+
+                for (int i = 0; i < components.length; i++)
+                {
+                    Class<?> componentClass = components[i].getClass();
+                    String name = (String) componentClass.getMethod("getName").invoke(components[i]);
+                    types[i] = (Class<?>) componentClass.getMethod("getType").invoke(components[i]);
+                    MethodHandle converter = converter(types[i]);
+
+                    if (converter == null)
+                    {
+                        throw new IllegalArgumentException("Can not bind record component: "
+                                                           + types[i].getName() + " " + name);
+                    }
+
+                    // A component with no property gets zero, false or null.
+                    converters[i] = MethodHandles.guardWithTest(isNull,
+                                                                MethodHandles.dropArguments(
+                                                                        MethodHandles.zero(types[i]), 0, IniEntry.class),
+                                                                converter);
+                    add(new Slot(name, i, null));
+                }
+
+                arity = components.length;
+                constructor = MethodHandles.filterArguments(
+                        lookup.findConstructor(type, methodType(void.class, types)), 0, converters)
+                        .asSpreader(IniEntry[].class, arity)
+                        .asType(methodType(Object.class, IniEntry[].class));
+            } else
+            {
+                arity = -1;
+                constructor = MethodHandles.dropArguments(
+                        lookup.findConstructor(type, methodType(void.class)).asType(methodType(Object.class)),
+                        0, IniEntry[].class);
+
+                for (Class<?> c = type; c != Object.class && c != null; c = c.getSuperclass())
+                {
+                    for (Method method : c.getDeclaredMethods())
+                    {
+                        addSetter(lookup, method);
+                    }
+                }
+
+                for (Class<?> c = type; c != Object.class && c != null; c = c.getSuperclass())
+                {
+                    for (Field field : c.getDeclaredFields())
+                    {
+                        addField(lookup, field);
+                    }
+                }
+            }
+        } catch (IllegalArgumentException ex)
+        {
+            throw ex;
+        } catch (Throwable ex)
+        {
+            throw new IllegalArgumentException("Can not bind: " + type.getName(), ex);
+        }
+    }
+
+    /**
+     * Get the binder for the {@code type}. It is created the first time it is
+     * needed, and then kept for as long as the class is.
+     *
+     * @param <T>  The type bound to.
+     * @param type The class of the type bound to.
+     *
+     * @return the binder.
+     *
+     * @throws IllegalArgumentException If the {@code type} can not be bound:
+     *                                  a record with a component of a type
+     *                                  that can not be bound, a plain class
+     *                                  with no constructor taking no
+     *                                  arguments, or a class that is not
+     *                                  accessible.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IniBinder<T> of(Class<T> type) {
+        return (IniBinder<T>) BINDERS.get(Objects.requireNonNull(type, "type is null"));
+    }
+
+    /**
+     * Get the components of a record, without needing a Java release in which
+     * records are more than a preview feature.
+     *
+     * @return the {@code RecordComponent}s, or {@code null} if the
+     *         {@code type} is not a record.
+     */
+    private static Object[] recordComponents(Class<?> type) throws ReflectiveOperationException {
+        Class<?> superclass = type.getSuperclass();
+
+        if (superclass == null || !superclass.getName().equals("java.lang.Record"))
+        {
+            return null;
+        }
+
+        return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+    }
+
+    /**
+     * Get the conversion from the value of a property to the {@code type}.
+     *
+     * @return the conversion, of type {@code (IniEntry)type}, or {@code null}
+     *         if the type can not be bound.
+     */
+    private static MethodHandle converter(Class<?> type) throws ReflectiveOperationException {
+        // Each wrapper is converted as its primitive, then boxed.
+        Class<?> primitive = methodType(type).unwrap().returnType();
+        MethodHandle rtn;
+
+        if (type == String.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "string", methodType(String.class));
+        } else if (primitive == int.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "intValue", methodType(int.class));
+        } else if (primitive == short.class)
+        {
+            rtn = LOOKUP.findStatic(IniBinder.class, "toShort", methodType(short.class, IniEntry.class));
+        } else if (primitive == byte.class)
+        {
+            rtn = LOOKUP.findStatic(IniBinder.class, "toByte", methodType(byte.class, IniEntry.class));
+        } else if (primitive == long.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "longValue", methodType(long.class));
+        } else if (primitive == double.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "doubleValue", methodType(double.class));
+        } else if (primitive == float.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "floatValue", methodType(float.class));
+        } else if (primitive == boolean.class)
+        {
+            rtn = LOOKUP.findVirtual(IniEntry.class, "booleanValue", methodType(boolean.class));
+        } else if (type.isEnum())
+        {
+            rtn = MethodHandles.insertArguments(
+                    LOOKUP.findStatic(IniBinder.class, "toEnum", methodType(Object.class, Class.class, IniEntry.class)),
+                    0, type);
+        } else
+        {
+            return null;
+        }
+
+        return MethodHandles.explicitCastArguments(rtn, methodType(primitive, IniEntry.class))
+                .asType(methodType(type, IniEntry.class));
+    }
+
+    /**
+     * Convert the value of a property to a {@code byte}, as by
+     * {@link Byte#parseByte(String)}.
+     *
+     * @throws NumberFormatException if the value is not a parsable byte.
+     */
+    private static byte toByte(IniEntry kv) {
+        return (byte) checkRange(kv, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Convert the value of a property to a {@code short}, as by
+     * {@link Short#parseShort(String)}.
+     *
+     * @throws NumberFormatException if the value is not a parsable short.
+     */
+    private static short toShort(IniEntry kv) {
+        return (short) checkRange(kv, Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    /**
+     * Convert the value of a property to an {@code int}, checking that it is
+     * from {@code min} to {@code max}, inclusive.
+     *
+     * @throws NumberFormatException if the value is not a parsable integer,
+     *                               or is out of range.
+     */
+    private static int checkRange(IniEntry kv, int min, int max) {
+        int rtn = kv.intValue();
+
+        if (rtn < min || rtn > max)
+        {
+            // As per Short.parseShort() and Byte.parseByte().
+            throw new NumberFormatException("Value out of range. Value:\"" + kv.string() + "\" Radix:10");
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Convert the value of a property to one of an {@code enum}'s constants.
+     */
+    @SuppressWarnings(
+            {
+                "unchecked", "rawtypes"
+            })
+    private static Object toEnum(Class<?> type, IniEntry kv) {
+        return Enum.valueOf((Class<? extends Enum>) type, kv.string().strip());
+    }
+
+    /**
+     * Bind the {@code section} onto a new instance.
+     *
+     * @param iniDoc  The document holding the section.
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     *
+     * @return the new instance, or {@code null} if there is no such section.
+     *
+     * @throws NumberFormatException    If a value can not be converted to a
+     *                                  number.
+     * @throws IllegalArgumentException If a value is not one of an
+     *                                  {@code enum}'s constants.
+     */
+    public T bind(IniDocument iniDoc, String section) {
+        IniEntry[] args = arity >= 0 ? new IniEntry[arity] : null;
+        Object pojo = args != null ? null : construct(null);
+
+        boolean found = iniDoc.forEachInSection(section, property ->
+                                        {
+                                            IniEntry kv = iniDoc.expand(section, (IniEntry) property);
+                                            Slot slot = slot(kv.key());
+
+                                            if (slot != null && kv.hasValue())
+                                            {
+                                                if (args != null)
+                                                {
+                                                    args[slot.index] = kv;
+                                                } else
+                                                {
+                                                    slot.set(pojo, kv);
+                                                }
+                                            }
+                                        });
+
+        if (!found)
+        {
+            return null;
+        }
+
+        return type.cast(args != null ? construct(args) : pojo);
+    }
+
+    /**
+     * @return the class bound to.
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Rethrow an unchecked exception thrown by a constructor or setter, as it
+     * is. Wrap any other.
+     */
+    private static RuntimeException rethrow(Throwable ex) {
+        if (ex instanceof RuntimeException)
+        {
+            return (RuntimeException) ex;
+        } else if (ex instanceof Error)
+        {
+            throw (Error) ex;
+        }
+
+        return new IllegalStateException("Binding failed", ex);
+    }
+
+    /**
+     * Create a new instance, from the property for each of a record's
+     * components, or {@code null} for a plain class.
+     */
+    private Object construct(IniEntry[] args) {
+        try
+        {
+            return (Object) constructor.invokeExact(args);
+        } catch (Throwable ex)
+        {
+            throw rethrow(ex);
+        }
+    }
+
+    private void add(Slot slot) {
+        exact.putIfAbsent(slot.name, slot);
+        ignoringCase.putIfAbsent(slot.name, slot);
+    }
+
+    /**
+     * Add a slot for the {@code field}, unless it already has one, through its
+     * setter.
+     */
+    private void addField(MethodHandles.Lookup lookup, Field field) throws ReflectiveOperationException {
+        if (!exact.containsKey(field.getName())
+            && (field.getModifiers() & (Modifier.STATIC | Modifier.FINAL | Modifier.TRANSIENT)) == 0)
+        {
+            addSetter(field.getName(), field.getType(), lookup.unreflectSetter(field));
+        }
+    }
+
+    /**
+     * Add a slot for the {@code method}, if it is a setter: named "set"
+     * followed by the capitalised name, taking one argument.
+     */
+    private void addSetter(MethodHandles.Lookup lookup, Method method) throws ReflectiveOperationException {
+        String name = method.getName();
+
+        if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1
+            && !Modifier.isStatic(method.getModifiers()) && !method.isBridge() && !method.isSynthetic())
+        {
+            name = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+
+            if (!exact.containsKey(name))
+            {
+                addSetter(name, method.getParameterTypes()[0], lookup.unreflect(method));
+            }
+        }
+    }
+
+    /**
+     * Add a slot for the {@code setter}, of a value of the {@code type}, if
+     * that type can be bound.
+     */
+    private void addSetter(String name, Class<?> type, MethodHandle setter) throws ReflectiveOperationException {
+        MethodHandle converter = converter(type);
+
+        if (converter != null)
+        {
+            // Convert the value straight into the setter's argument.
+            add(new Slot(name, -1, MethodHandles.filterArguments(
+                         setter.asType(methodType(void.class, Object.class, type)), 1, converter)));
+        }
+    }
+
+    /**
+     * @return the slot for the {@code key}, or {@code null} if there is none.
+     */
+    private Slot slot(String key) {
+        Slot slot = exact.get(key);
+
+        if (slot == null)
+        {
+            slot = ignoringCase.getOrDefault(key, NONE);
+
+            if (exact.size() < MAX_KEYS)
+            {
+                exact.put(key, slot);
+            }
+        }
+
+        return slot != NONE ? slot : null;
+    }
+
+    /**
+     * Where the value of a property goes: a component of a record, or a
+     * field of a plain class.
+     */
+    private static final class Slot {
+
+        /**
+         * Converts the value and sets the field, of type:
+         * {@code (Object, IniEntry)void}, or {@code null} for a record.
+         */
+        final MethodHandle handle;
+
+        /**
+         * The component number, or {@code -1}.
+         */
+        final int index;
+
+        final String name;
+
+        Slot(String name, int index, MethodHandle handle) {
+            this.name = name;
+            this.index = index;
+            this.handle = handle;
+        }
+
+        void set(Object instance, IniEntry kv) {
+            try
+            {
+                handle.invokeExact(instance, kv);
+            } catch (Throwable ex)
+            {
+                throw rethrow(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One changed key/value pair, found when an {@link IniWatcher} reloads its
+ * file.
+ * <p>
+ * Only the values are compared. Changes to comments alone are loaded, but are
+ * not reported.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniChange {
+
+    /**
+     * The key.
+     */
+    public final String key;
+
+    /**
+     * The value after the change, or {@code null} if it was
+     * {@link Type#REMOVED REMOVED}.
+     */
+    public final String newValue;
+
+    /**
+     * The value before the change, or {@code null} if it was
+     * {@link Type#ADDED ADDED}.
+     */
+    public final String oldValue;
+
+    /**
+     * The section holding the key ({@code null} for the <b>global
+     * section</b>).
+     */
+    public final String section;
+
+    /**
+     * The type of change.
+     */
+    public final Type type;
+
+    IniChange(Type type, String section, String key, String oldValue, String newValue) {
+        this.type = type;
+        this.section = section;
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Find the changes to the values between two documents.
+     * <p>
+     * Both documents must be held still while this runs, as they are by
+     * {@link IniDocument#replaceWith(IniDocument, List)}.
+     *
+     * @param from    The document before the change.
+     * @param to      The document after the change.
+     * @param changes Receives the changed values, section by section, in the
+     *                order of {@code to}, followed by those of any removed
+     *                sections.
+     *
+     * @return {@code true} if the documents are exactly the same, including
+     *         all of their comments, and their order.
+     */
+    static boolean diff(IniDocument from, IniDocument to, List<IniChange> changes) {
+        boolean same = from.entries.size() == to.entries.size();
+        Iterator<IniSection> fromOrder = from.entries.values().iterator();
+
+        for (IniSection section : to.entries.values())
+        {
+            IniSection old = from.entries.get(section.key());
+            Map<String, IniEntry> oldKeys = old != null ? old.value() : Map.of();
+            Map<String, IniEntry> newKeys = section.value();
+
+            if (same)
+            {
+                IniSection next = fromOrder.next();
+                same = next == old && Objects.equals(old.comment(), section.comment())
+                       && oldKeys.size() == newKeys.size()
+                       && sameStandalone(old, section);
+            }
+
+            Iterator<IniEntry> keyOrder = oldKeys.values().iterator();
+
+            for (IniEntry kv : newKeys.values())
+            {
+                IniEntry oldKv = oldKeys.get(kv.key());
+
+                if (oldKv == null)
+                {
+                    changes.add(new IniChange(Type.ADDED, section.key(), kv.key(), null, (String) kv.value()));
+                } else if (!sameText(oldKv.text(), kv.text()))
+                {
+                    changes.add(new IniChange(Type.CHANGED, section.key(), kv.key(),
+                                              (String) oldKv.value(), (String) kv.value()));
+                }
+
+                if (same)
+                {
+                    same = keyOrder.next() == oldKv && Objects.equals(oldKv.comment(), kv.comment());
+                }
+            }
+
+            for (IniEntry oldKv : oldKeys.values())
+            {
+                if (!newKeys.containsKey(oldKv.key()))
+                {
+                    changes.add(new IniChange(Type.REMOVED, section.key(), oldKv.key(), (String) oldKv.value(), null));
+                }
+            }
+        }
+
+        for (IniSection old : from.entries.values())
+        {
+            if (!to.entries.containsKey(old.key()))
+            {
+                for (IniEntry oldKv : old.value().values())
+                {
+                    changes.add(new IniChange(Type.REMOVED, old.key(), oldKv.key(), (String) oldKv.value(), null));
+                }
+            }
+        }
+
+        return same && changes.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if both sections have the same standalone comments,
+     *         in the same places.
+     */
+    private static boolean sameStandalone(IniSection a, IniSection b) {
+        Collection<IniSection.Standalone> as = a.standalone();
+        Collection<IniSection.Standalone> bs = b.standalone();
+
+        if (as.size() != bs.size() || !Arrays.equals(a.positions(), b.positions()))
+        {
+            return false;
+        }
+
+        Iterator<IniSection.Standalone> it = bs.iterator();
+
+        for (IniSection.Standalone sc : as)
+        {
+            if (!sc.comment().equals(it.next().comment()))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@code true} if both values are the same text.
+     */
+    private static boolean sameText(CharSequence a, CharSequence b) {
+        return a == null ? b == null : b != null && CharSequence.compare(a, b) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "IniChange{" + "type=" + type + ", section=" + section + ", key=" + key
+               + ", oldValue=" + oldValue + ", newValue=" + newValue + '}';
+    }
+
+    /**
+     * The types of change.
+     */
+    public enum Type {
+        /**
+         * A key that was not there before.
+         */
+        ADDED,
+        /**
+         * A key whose value has changed.
+         */
+        CHANGED,
+        /**
+         * A key that is no longer there.
+         */
+        REMOVED
+    }
+}
@@ -20,12 +20,17 @@ package com.bew.commons.fileio;
 
 import com.bew.commons.InvalidParameterValueException;
 import com.bew.commons.property.IniProperty;
-import com.bew.commons.property.MutableIniProperty;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  *
@@ -45,11 +50,39 @@ import java.util.regex.Pattern;
  * For more specific file format compatibility information see:
  * {@link IniFile}.
  * </p>
+ * <p>
+ * <b>Changes:</b>
+ * <dl>
+ * <dt>v1.0.24</dt>
+ * <dd>Sections and keys are now held in insertion-ordered hash maps, so that
+ * lookups no longer have to scan every section and key.</dd>
+ * <dd>The typed getters ({@code getInt()}, etc.) now cache the parsed value
+ * with the property, and only re-parse after the value has been changed.</dd>
+ * <dd>{@link #validateComment(java.lang.String) validateComment()} no longer
+ * compiles a regex on each call. Added
+ * {@link #validateComments(java.lang.Iterable) validateComments()}.</dd>
+ * <dd>Added {@link #getSectionView(String) getSectionView()},
+ * {@link #getSectionsView()} and
+ * {@link #forEachInSection(String, Consumer) forEachInSection()}, for reading
+ * the sections without copying them.</dd>
+ * <dd>Added {@link #putAll(String, Map, Map) putAll()}, for setting many
+ * properties of a section at once.</dd>
+ * <dd>Added {@link #handle(String, String) handle()}, for repeated access to
+ * the same property without looking it up each time.</dd>
+ * <dd>Standalone comments are now held apart from the properties, so they no
+ * longer appear in {@link #getSection(String) getSection()}. Added
+ * {@link #getStandaloneComments(String) getStandaloneComments()}.</dd>
+ * <dd>Values may refer to other properties, as "${section:key}", when
+ * loaded with {@link IniFile#interpolate}.</dd>
+ * <dd>Added {@link #findKeys(String) findKeys()},
+ * {@link #findSections(String) findSections()} and the like, for finding
+ * sections and keys by prefix, glob or range, without scanning them all.</dd>
+ * </dl>
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
  * @since 1.0
- * @version 1.0.20
+ * @version 1.0.24
  *
  * @deprecated Moved out to project: BEWFiles.
  */
@@ -82,6 +115,7 @@ public class IniDocument {
     private static final String INI_PROPERTY = INI_PATTERNS[2];
     private static final String INI_SECTION = INI_PATTERNS[0];
     private static final String INI_TAIL = INI_PATTERNS[3];
+    private static final KeyListener[] NO_LISTENERS = new KeyListener[0];
     private static final String NULL_KEY_MSG = "A null key is not valid.";
 
     // Initialise final fields.
@@ -105,28 +139,107 @@ public class IniDocument {
         if (comment == null)
         {
             return true;
-        } else if (comment.isEmpty())
+        } else if (comment.length() < 2)
         {
             return false;
         } else
         {
-            Pattern p = Pattern.compile(COMMENT_PATTERN);
-            Matcher m = p.matcher(comment);
-            m.find();
-            return (m.group("Comment") != null);
+            // Equivalent to the "Comment" group of COMMENT_PATTERN:
+            // "^[#;][ \t]+.*"
+            char tag = comment.charAt(0);
+            char next = comment.charAt(1);
+            return (tag == '#' || tag == ';') && (next == ' ' || next == '\t');
         }
     }
 
+    /**
+     * Checks the validity of each of the {@code comments}.
+     * <p>
+     * This is intended for checking a whole batch of entries, before any of
+     * them are stored.
+     *
+     * @param comments To be checked. {@code null} elements are valid, as per
+     *                 {@link #validateComment(java.lang.String)}.
+     *
+     * @return {@code true} if every comment is valid, {@code false}
+     *         otherwise.
+     *
+     * @since 1.0.24
+     */
+    public static boolean validateComments(Iterable<String> comments) {
+        for (String comment : comments)
+        {
+            if (!validateComment(comment))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * This is the hierarchical storage structure for the properties.
+     * <p>
+     * The global section is always the first entry, and is stored against the
+     * {@code null} key.
+     * <p>
+     * Only ever replaced as a whole, by {@link #replaceWith(IniDocument, List)},
+     * so that a reader sees either all of the old contents or all of the new.
      *
      * @since 1.0
      */
-    final ArrayList<MutableIniProperty<ArrayList<MutableIniProperty<Object>>>> entries;
+    volatile LinkedHashMap<String, IniSection> entries;
+
+    /**
+     * Called after each change to this document, or {@code null}. Used by
+     * {@link IniAutosave}.
+     * <p>
+     * Called by the thread making the change, once it has been made. In a
+     * {@link ConcurrentIniDocument}, that thread still holds the section's
+     * lock, so this must not use the document. Not called for the changes
+     * made while loading, or merging, a file (see {@link #beginLoad()}).
+     *
+     * @since 1.0.24
+     */
+    volatile Runnable changeListener;
+
+    /**
+     * Expands the references in the values, or {@code null} if they are read
+     * as they are. See {@link IniFile#interpolate}.
+     *
+     * @since 1.0.24
+     */
+    volatile IniInterpolator interpolator;
+
+    /**
+     * Told of each property that is set, added or removed. Replaced as a
+     * whole, rather than changed.
+     *
+     * @since 1.0.24
+     */
+    private volatile KeyListener[] keyListeners = NO_LISTENERS;
+
+    /**
+     * Sorted index of the section and key names, or {@code null} until the
+     * first {@code find*()} query.
+     *
+     * @since 1.0.24
+     */
+    private volatile IniKeyIndex keyIndex;
+
+    /**
+     * The thread loading, or merging, a file into this document, or
+     * {@code null}.
+     *
+     * @since 1.0.24
+     */
+    private volatile Thread loader;
 
     IniDocument() {
-        entries = new ArrayList<>();
-        entries.add(new MutableIniProperty<>(null, new ArrayList<>()));
+        LinkedHashMap<String, IniSection> map = new LinkedHashMap<>();
+        map.put(null, new IniSection(null, null));
+        entries = map;
     }
 
     /**
@@ -141,17 +254,9 @@ public class IniDocument {
      * @since 1.0
      */
     public boolean containsKey(String section, String key) {
-        int sectionIdx = indexOfSection(section);
-
-        if (sectionIdx > -1)
-        {
-            ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-            return (indexOfKey(kvlist, key) > -1);
-        } else
-        {
-            return false;
-        }
+        IniSection iniSection = entries.get(section);
 
+        return iniSection != null && iniSection.value().containsKey(key);
     }
 
     /**
@@ -182,7 +287,107 @@ public class IniDocument {
      * @since 1.0
      */
     public boolean containsSection(String section) {
-        return indexOfSection(section) > -1;
+        return entries.containsKey(section);
+    }
+
+    /**
+     * Find the keys that match the {@code glob}, in any section.
+     * <p>
+     * In the {@code glob}, "*" matches any number of characters, and "?" any
+     * one character. Every other character matches only itself. For example:
+     * "db.pool.*" or "*.timeout".
+     * <p>
+     * The keys are looked up in a sorted index, starting from the part of the
+     * {@code glob} before its first wildcard, so a glob that starts with a
+     * wildcard has to pass over every key. The index is built by the first
+     * {@code find*()} query, and is kept up to date from then on.
+     *
+     * @param glob The pattern to match.
+     *
+     * @return a new list of the matching keys, ordered by key, then by
+     *         section, with the <b>global section</b> first.
+     *
+     * @since 1.0.24
+     */
+    public List<IniKey> findKeys(String glob) {
+        return keyIndex().keys(Objects.requireNonNull(glob, "glob is null"));
+    }
+
+    /**
+     * Find the keys from {@code from}, inclusive, to {@code to}, exclusive,
+     * in any section, as per {@link #findKeys(String) findKeys()}.
+     *
+     * @param from The lowest key, or {@code null} for no lower limit.
+     * @param to   The key after the highest, or {@code null} for no upper
+     *             limit.
+     *
+     * @return a new list of the keys in the range, ordered as per
+     *         {@link #findKeys(String) findKeys()}.
+     *
+     * @since 1.0.24
+     */
+    public List<IniKey> findKeysInRange(String from, String to) {
+        return keyIndex().keys(from, to);
+    }
+
+    /**
+     * Find the keys that start with the {@code prefix}, in any section, as
+     * per {@link #findKeys(String) findKeys()}.
+     *
+     * @param prefix The start of the keys.
+     *
+     * @return a new list of the matching keys, ordered as per
+     *         {@link #findKeys(String) findKeys()}.
+     *
+     * @since 1.0.24
+     */
+    public List<IniKey> findKeysWithPrefix(String prefix) {
+        return keyIndex().keysWithPrefix(Objects.requireNonNull(prefix, "prefix is null"));
+    }
+
+    /**
+     * Find the names of the sections that match the {@code glob}, as per
+     * {@link #findKeys(String) findKeys()}. The <b>global section</b> is
+     * never included.
+     *
+     * @param glob The pattern to match.
+     *
+     * @return a new, sorted, list of the matching names.
+     *
+     * @since 1.0.24
+     */
+    public List<String> findSections(String glob) {
+        return keyIndex().sections(Objects.requireNonNull(glob, "glob is null"));
+    }
+
+    /**
+     * Find the names of the sections from {@code from}, inclusive, to
+     * {@code to}, exclusive. The <b>global section</b> is never included.
+     *
+     * @param from The lowest name, or {@code null} for no lower limit.
+     * @param to   The name after the highest, or {@code null} for no upper
+     *             limit.
+     *
+     * @return a new, sorted, list of the names in the range.
+     *
+     * @since 1.0.24
+     */
+    public List<String> findSectionsInRange(String from, String to) {
+        return keyIndex().sections(from, to);
+    }
+
+    /**
+     * Find the names of the sections that start with the {@code prefix}. The
+     * <b>global section</b> is never included.
+     *
+     * @param prefix The start of the names.
+     *
+     * @return a new, sorted, list of the matching names.
+     *
+     * @since 1.0.24
+     */
+    public List<String> findSectionsWithPrefix(String prefix) {
+        return keyIndex().sectionsWithPrefix(Objects.requireNonNull(prefix, "prefix is null"));
     }
 
     /**
@@ -199,8 +404,8 @@ public class IniDocument {
      * @since 1.0
      */
     public boolean getBoolean(String section, String key, boolean defaultvalue) {
-        String rtn = getValue(section, key);
-        return rtn != null ? Boolean.parseBoolean(rtn) : defaultvalue;
+        IniEntry kv = expand(section, getEntry(section, key));
+        return kv != null && kv.hasValue() ? kv.booleanValue() : defaultvalue;
     }
 
     /**
@@ -231,17 +436,9 @@ public class IniDocument {
      * @since 1.0
      */
     public String getComment(String section, String key) {
-        int sectionIdx = indexOfSection(section);
+        IniEntry kv = getEntry(section, key);
 
-        if (sectionIdx > -1)
-        {
-            ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-            int keyIdx = indexOfKey(kvlist, key);
-            return keyIdx > -1 ? kvlist.get(keyIdx).comment() : null;
-        } else
-        {
-            return null;
-        }
+        return kv != null ? kv.comment() : null;
     }
 
     /**
@@ -271,8 +468,8 @@ public class IniDocument {
      * @since 1.0
      */
     public double getDouble(String section, String key, double defaultvalue) {
-        String rtn = getValue(section, key);
-        return rtn != null ? Double.parseDouble(rtn) : defaultvalue;
+        IniEntry kv = expand(section, getEntry(section, key));
+        return kv != null && kv.hasValue() ? kv.doubleValue() : defaultvalue;
     }
 
     /**
@@ -303,8 +500,8 @@ public class IniDocument {
      * @since 1.0
      */
     public float getFloat(String section, String key, float defaultvalue) {
-        String rtn = getValue(section, key);
-        return rtn != null ? Float.parseFloat(rtn) : defaultvalue;
+        IniEntry kv = expand(section, getEntry(section, key));
+        return kv != null && kv.hasValue() ? kv.floatValue() : defaultvalue;
     }
 
     /**
@@ -335,8 +532,8 @@ public class IniDocument {
      * @since 1.0
      */
     public int getInt(String section, String key, int defaultvalue) {
-        String rtn = getValue(section, key);
-        return rtn != null ? Integer.parseInt(rtn) : defaultvalue;
+        IniEntry kv = expand(section, getEntry(section, key));
+        return kv != null && kv.hasValue() ? kv.intValue() : defaultvalue;
     }
 
     /**
@@ -367,8 +564,8 @@ public class IniDocument {
      * @since 1.0
      */
     public long getLong(String section, String key, long defaultvalue) {
-        String rtn = getValue(section, key);
-        return rtn != null ? Long.parseLong(rtn) : defaultvalue;
+        IniEntry kv = expand(section, getEntry(section, key));
+        return kv != null && kv.hasValue() ? kv.longValue() : defaultvalue;
     }
 
     /**
@@ -403,21 +600,86 @@ public class IniDocument {
      * @since 1.0
      */
     public List<IniProperty<Object>> getSection(String section) {
-        int sectionIdx = indexOfSection(section);
+        IniSection iniSection = entries.get(section);
 
-        if (sectionIdx > -1)
+        if (iniSection != null)
         {
-            ArrayList<IniProperty<Object>> rtnList = new ArrayList<>();
-            entries.get(sectionIdx).value().forEach(prop
-                    -> rtnList.add((IniProperty<Object>) prop));
-
-            return rtnList;
+            return new ArrayList<>(iniSection.value().values());
         } else
         {
             return null;
         }
     }
 
+    /**
+     * Returns a read-only, live, view of {@code section}'s properties.
+     * <p>
+     * Unlike {@link #getSection(String)}, nothing is copied. The view reflects
+     * any later changes to the section, in the original loading sequence.
+     * It must not be used while the section is being changed.
+     *
+     * @param section Name of the section.
+     *
+     * @return Unmodifiable view of the properties, or {@code null} if there is
+     *         no section by that name.
+     *
+     * @since 1.0.24
+     */
+    public Collection<IniProperty<Object>> getSectionView(String section) {
+        IniSection iniSection = entries.get(section);
+
+        return iniSection != null ? Collections.unmodifiableCollection(iniSection.value().values()) : null;
+    }
+
+    /**
+     * Returns a read-only, live, view of the names of all of the sections,
+     * including the <b>global section</b> ({@code null}).
+     * <p>
+     * Unlike {@link #getSections()}, nothing is copied. The view reflects any
+     * later changes to the sections, in the original loading sequence. It
+     * must not be used while sections are being added or removed. Once the
+     * whole contents have been replaced, such as by an {@link IniWatcher}, a
+     * new view must be got.
+     *
+     * @return Unmodifiable view of the section names.
+     *
+     * @since 1.0.24
+     */
+    public Set<String> getSectionsView() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Performs the {@code action} for each of {@code section}'s properties, in
+     * the original loading sequence.
+     * <p>
+     * Nothing is copied or allocated for each property. The {@code action}
+     * must not change this document.
+     *
+     * @param section Name of the section.
+     * @param action  To be performed for each property.
+     *
+     * @return {@code true} if the section exists, {@code false} otherwise.
+     *
+     * @since 1.0.24
+     */
+    public boolean forEachInSection(String section, Consumer<? super IniProperty<Object>> action) {
+        IniSection iniSection = entries.get(section);
+
+        if (iniSection != null)
+        {
+            for (IniEntry kv : iniSection.value().values())
+            {
+                action.accept(kv);
+            }
+
+            return true;
+        } else
+        {
+            return false;
+        }
+    }
+
     /**
      * Use to create an empty section with no comment.
      *
@@ -441,11 +703,11 @@ public class IniDocument {
      * @since 1.0
      */
     public String getSectionComment(String section) {
-        int sectionIdx = indexOfSection(section);
+        IniSection iniSection = entries.get(section);
 
-        if (sectionIdx > -1)
+        if (iniSection != null)
         {
-            return entries.get(sectionIdx).comment();
+            return iniSection.comment();
         } else
         {
             return null;
@@ -458,11 +720,46 @@ public class IniDocument {
      * @return list of all sections.
      */
     public List<String> getSections() {
-        ArrayList<String> rtnList = new ArrayList<>();
+        return new ArrayList<>(entries.keySet());
+    }
+
+    /**
+     * Get the standalone comments of this {@code section}: those that are not
+     * attached to any property.
+     * <p>
+     * When loaded from file, each one is stored against a made up key: the
+     * comment tag followed by its line number. For example: "#12". It can be
+     * read, changed or removed by that key, through
+     * {@link #getComment(String, String) getComment()},
+     * {@link #setComment(String, String, String) setComment()} and
+     * {@link #removeKey(String, String) removeKey()}. They are kept apart from
+     * the properties, so are not included in
+     * {@link #getSection(String) getSection()}, nor found by
+     * {@link #containsKey(String, String) containsKey()}.
+     *
+     * @param section Name of the section.
+     *
+     * @return List of the comments, in file order, or {@code null} if there
+     *         is no section by that name.
+     *
+     * @since 1.0.24
+     */
+    public List<String> getStandaloneComments(String section) {
+        IniSection iniSection = entries.get(section);
+
+        if (iniSection == null)
+        {
+            return null;
+        }
 
-        entries.forEach(section -> rtnList.add(section.key()));
+        List<String> rtn = new ArrayList<>();
 
-        return rtnList;
+        for (IniEntry sc : iniSection.standalone())
+        {
+            rtn.add(sc.comment());
+        }
+
+        return rtn;
     }
 
     /**
@@ -497,6 +794,104 @@ public class IniDocument {
         return getString(null, key, defaultvalue);
     }
 
+    /**
+     * Resolve a <b>section/key</b> pair into a handle, for fast repeated
+     * access to its property.
+     * <p>
+     * The handle goes straight to the stored property, without looking up the
+     * section or key again. It remains valid across any changes to the
+     * property's value, and also if the key is removed and later set again.
+     * The key does not have to exist yet.
+     *
+     * @param section The section in which the key should reside. Use
+     *                {@code null} to access the <b>global section</b>.
+     * @param key     The key label. <b>Must not be {@code null}.</b>
+     *
+     * @return a new handle.
+     *
+     * @since 1.0.24
+     */
+    public IniHandle handle(String section, String key) {
+        return new IniHandle(this, section, Objects.requireNonNull(key, NULL_KEY_MSG));
+    }
+
+    /**
+     * Set all of the {@code values} in this {@code section}, with no
+     * comments.
+     * <p>
+     * See {@link #putAll(String, Map, Map)}.
+     *
+     * @param section The ini section to store the key/value pairs into. Use
+     *                {@code null} to access the <b>global section</b>.
+     * @param values  The key/value pairs to store, in the order to add them.
+     *
+     * @since 1.0.24
+     */
+    public void putAll(String section, Map<String, String> values) {
+        putAll(section, values, Map.of());
+    }
+
+    /**
+     * Set all of the {@code values} in this {@code section}, with their
+     * associated {@code comments}.
+     * <p>
+     * The result is the same as calling
+     * {@link #setString(String, String, String, String) setString()} for each
+     * of the {@code values} in turn. However, the section is only looked up
+     * once, and all of the comments are validated before anything is changed.
+     * New keys are added in the iteration order of {@code values}, so use a
+     * {@link java.util.LinkedHashMap LinkedHashMap} to control the order they
+     * are written out to file.
+     *
+     * @param section  The ini section to store the key/value pairs into. Use
+     *                 {@code null} to access the <b>global section</b>.
+     * @param values   The key/value pairs to store. <b>Must not contain a
+     *                 {@code null} key.</b>
+     * @param comments The comments to associate with the keys. A key with no
+     *                 comment here, has its comment cleared. Comments for keys
+     *                 not in {@code values} are ignored.
+     *
+     * @throws InvalidParameterValueException If any of the {@code comments}
+     *                                        is not a valid <u>ini</u> file
+     *                                        format comment.
+     * @since 1.0.24
+     */
+    public void putAll(String section, Map<String, String> values, Map<String, String> comments)
+            throws InvalidParameterValueException {
+
+        for (String key : values.keySet())
+        {
+            Objects.requireNonNull(key, NULL_KEY_MSG);
+        }
+
+        if (!validateComments(comments.values()))
+        {
+            throw new InvalidParameterValueException(
+                    "section=" + section + "\ncomments=" + comments
+                    + "\nNot all of the comments are valid 'ini' file format comments.");
+        }
+
+        IniSection iniSection = entries.get(section);
+
+        if (iniSection == null)
+        {
+            iniSection = new IniSection(section, null, values.size());
+            entries.put(section, iniSection);
+            sectionChanged(section, true);
+        }
+
+        iniSection.putAll(values, comments);
+        changed(iniSection);
+
+        if (keyListeners.length > 0)
+        {
+            for (String key : values.keySet())
+            {
+                keyChanged(section, key, iniSection.value().get(key));
+            }
+        }
+    }
+
     /**
      * Remove a <b>key/value</b> pair, from this <b>section</b>, from the in
      * memory copy of the ini file.
@@ -505,18 +900,15 @@ public class IniDocument {
      * @param key     The key to remove.
      */
     public void removeKey(String section, String key) {
-        int sectionIdx = indexOfSection(section);
+        IniSection iniSection = entries.get(section);
 
-        if (sectionIdx > -1)
+        if (iniSection == null || !iniSection.remove(key))
         {
-            ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-            int idx = indexOfKey(kvlist, key);
-
-            if (idx > -1)
-            {
-                kvlist.remove(idx);
-            }
+            return;
         }
+
+        changed(iniSection);
+        keyChanged(section, key, null);
     }
 
     /**
@@ -525,11 +917,28 @@ public class IniDocument {
      * @param section Section to remove.
      */
     public void removeSection(String section) {
-        int sectionIdx = indexOfSection(section);
-
-        if (sectionIdx > 0)
+        // The global section can not be removed.
+        if (section != null)
         {
-            entries.remove(sectionIdx);
+            IniSection iniSection = entries.remove(section);
+
+            if (iniSection != null)
+            {
+                List<String> keys = keyListeners.length > 0 ? iniSection.loadedKeys() : null;
+
+                iniSection.detach();
+                changed(null);
+
+                if (keys != null)
+                {
+                    for (String key : keys)
+                    {
+                        keyChanged(section, key, null);
+                    }
+
+                    sectionChanged(section, false);
+                }
+            }
         }
     }
 
@@ -616,6 +1025,10 @@ public class IniDocument {
 
     /**
      * Set the {@code comment} for this {@code key} in this {@code section}.
+     * <p>
+     * A {@code key} starting with a comment tag ('#' or ';'), sets a
+     * standalone comment instead, that is not attached to any property. See
+     * {@link #getStandaloneComments(String) getStandaloneComments()}.
      *
      * @param section The ini section to store the key and comment into. Use
      *                {@code null} to access the <b>global section</b>.
@@ -643,27 +1056,30 @@ public class IniDocument {
                     + "\nThe comment text is not a valid 'ini' file format comment.");
         }
 
-        int sectionIdx = indexOfSection(section);
+        IniSection iniSection = getOrAddSection(section);
+        LinkedHashMap<String, IniEntry> kvmap = iniSection.value();
 
-        if (sectionIdx
-            == -1)
+        if (IniSection.isStandalone(key))
         {
-            entries.add(new MutableIniProperty<>(section, new ArrayList<>()));
-            sectionIdx = indexOfSection(section);
+            String rtn = iniSection.putStandalone(key, comment);
+            changed(iniSection);
+            return rtn;
         }
 
-        ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-        int keyIdx = indexOfKey(kvlist, key);
+        IniEntry kv = kvmap.get(key);
 
-        if (keyIdx == -1)
+        if (kv == null)
         {
-            kvlist.add(new MutableIniProperty<>(key, null, comment));
+            kv = new IniEntry(key, null, comment);
+            iniSection.add(kv);
+            changed(iniSection);
+            keyChanged(section, key, kv);
             return null;
         } else
         {
-            MutableIniProperty<Object> kv = kvlist.get(keyIdx);
             String rtn = kv.comment();
             kv.comment(comment);
+            changed(iniSection);
             return rtn;
         }
     }
@@ -1043,15 +1459,9 @@ public class IniDocument {
      * @since 1.0
      */
     public void setSection(String section, String comment) {
-        int sectionIdx = indexOfSection(section);
-
-        if (sectionIdx == -1)
-        {
-            entries.add(new MutableIniProperty<>(section, new ArrayList<>(), comment));
-            sectionIdx = indexOfSection(section);
-        }
-
-        entries.get(sectionIdx).comment(comment);
+        IniSection iniSection = getOrAddSection(section);
+        iniSection.comment(comment);
+        changed(iniSection);
     }
 
     /**
@@ -1112,31 +1522,26 @@ public class IniDocument {
                     + "\nThe comment text is not a valid 'ini' file format comment.");
         }
 
-        int sectionIdx = indexOfSection(section);
+        IniSection iniSection = getOrAddSection(section);
+        LinkedHashMap<String, IniEntry> kvmap = iniSection.value();
+        IniEntry kv = kvmap.get(key);
 
-        if (sectionIdx
-            == -1)
-        {
-            entries.add(new MutableIniProperty<>(section, new ArrayList<>()));
-            sectionIdx = indexOfSection(section);
-        }
-
-        ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-        int keyIdx = indexOfKey(kvlist, key);
+        String rtn = null;
 
-        if (keyIdx
-            == -1)
+        if (kv == null)
         {
-            kvlist.add(new MutableIniProperty<>(key, value, comment));
-            return null;
+            kv = new IniEntry(key, value, comment);
+            iniSection.add(kv);
         } else
         {
-            MutableIniProperty<Object> kv = kvlist.get(keyIdx);
-            String rtn = (String) kv.value();
+            rtn = (String) kv.value();
             kv.value(value);
             kv.comment(comment);
-            return rtn;
         }
+
+        changed(iniSection);
+        keyChanged(section, key, kv);
+        return rtn;
     }
 
     /**
@@ -1184,94 +1589,529 @@ public class IniDocument {
 
         sb.append(IniDocument.class
                 .getName()).append("\n");
-        sb.append(entries);
+
+        lockAll();
+
+        try
+        {
+            sb.append(entries);
+        } finally
+        {
+            unlockAll();
+        }
 
         return sb.toString();
     }
 
     /**
-     * Returns the value to which the specified section/key is mapped, or
-     * {@code null} if this map contains no mapping for the section/key.
+     * Returns the property to which the specified section/key is mapped, or
+     * {@code null} if there is no such property.
      * <p>
-     * More formally, if this map contains a section with a mapping from a key
-     * {@code k} to a value {@code v} such that {@code key.equals(k)}, then this
-     * method returns {@code v}; otherwise it returns {@code null}. (There can
-     * be at most one such mapping.)
-     * <p>
-     * Used by the {@code public get*(...)} methods.
+     * All of the {@code get*()} methods, except {@link #getSection(String)}
+     * and {@link #getSectionComment(String)}, find their property through
+     * this method.
      *
      * @param section The section in which the key should reside.
-     * @param key     The key whose value we are after.
+     * @param key     The key whose property we are after.
      *
-     * @return the stored value or {@code null}.
+     * @return the stored property or {@code null}.
      *
-     * @since 1.0
+     * @since 1.0.24
      */
-    private String getValue(String section, String key) {
-        int sectionIdx = indexOfSection(section);
+    IniEntry getEntry(String section, String key) {
+        IniSection iniSection = entries.get(section);
+
+        return iniSection != null ? iniSection.entry(key) : null;
+    }
 
-        if (sectionIdx > -1)
+    /**
+     * Expands the references in the value of the property, if this document's
+     * values are interpolated (see {@link IniFile#interpolate}), and it has
+     * not already been expanded since it was last changed.
+     * <p>
+     * All of the {@code get*()} methods that read a value, and
+     * {@link IniHandle}, pass their property through this method, and then
+     * read it through {@link IniEntry#string()}, or one of the typed
+     * conversions.
+     *
+     * @param section The section in which the property resides.
+     * @param kv      The property, or {@code null}.
+     *
+     * @return the {@code kv}.
+     *
+     * @since 1.0.24
+     */
+    IniEntry expand(String section, IniEntry kv) {
+        IniInterpolator ip = interpolator;
+
+        if (ip != null && kv != null && kv.resolved == null && kv.hasValue())
         {
-            ArrayList<MutableIniProperty<Object>> kvlist = entries.get(sectionIdx).value();
-            int keyIdx = indexOfKey(kvlist, key);
+            ip.resolve(section, kv);
+        }
+
+        return kv;
+    }
+
+    /**
+     * Turns on interpolation of the values (see {@link IniFile#interpolate}),
+     * if it is not on already, and expands every value not yet expanded, to
+     * check that none of them refers back to itself.
+     *
+     * @param filepath Path to the <u>ini</u> file, for the exception.
+     *
+     * @throws IOException            If an I/O error occurs reading in a
+     *                                section not yet read in by a
+     *                                {@link IniFile#lazyLoad}.
+     * @throws IniFileFormatException If a value refers back to itself,
+     *                                directly or through others. The
+     *                                reference is then left as it is.
+     *
+     * @since 1.0.24
+     */
+    void interpolate(String filepath) throws IOException, IniFileFormatException {
+        IniInterpolator ip = interpolator;
 
-            return keyIdx > -1 ? (String) kvlist.get(keyIdx).value() : null;
+        if (ip == null)
+        {
+            ip = new IniInterpolator(this);
+            interpolator = ip;
+            addKeyListener(ip);
         }
 
-        return null;
+        ip.resolveAll(filepath);
+    }
+
+    /**
+     * Set a property while loading a file, as per
+     * {@link #setString(String, String, String, String) setString()}, but
+     * without checking the {@code comment}, and allowing the {@code value} to
+     * be an {@link IniSlice} of the file.
+     *
+     * @param section The ini section to store the key/value pair into.
+     * @param key     The key label.
+     * @param value   The value text.
+     * @param comment Associated comment, that is known to be valid.
+     *
+     * @return the stored property.
+     *
+     * @since 1.0.24
+     */
+    IniEntry putValue(String section, String key, CharSequence value, String comment) {
+        IniSection iniSection = getOrAddSection(section);
+        iniSection.value();
+        IniEntry kv = iniSection.putString(key, value, comment);
+        changed(iniSection);
+        keyChanged(section, key, kv);
+        return kv;
     }
 
     /**
-     * Refer to {@link #indexOfSection(java.lang.String)
+     * Set the {@code value} of a property that is already stored in the
+     * {@code section}, leaving its comment unchanged.
+     *
+     * @param section Name of the section holding the property.
+     * @param kv      The stored property.
+     * @param value   The new value.
+     *
+     * @return {@code false} if the property has been removed from the
+     *         section, so nothing was set.
+     *
+     * @since 1.0.24
      */
-    private int indexOfKey(ArrayList<MutableIniProperty<Object>> kvlist, String key) {
-        for (int i = 0; i < kvlist.size(); i++)
+    boolean setValue(String section, IniEntry kv, String value) {
+        if (kv.isDetached())
         {
-            String lkey = kvlist.get(i).key();
+            return false;
+        }
 
-            if (lkey.equals(key))
-            {
-                return i;
-            }
+        kv.value(value);
+
+        IniSection iniSection = entries.get(section);
+
+        if (iniSection != null)
+        {
+            changed(iniSection);
         }
 
-        return -1;
+        keyChanged(section, kv.key(), kv);
+        return true;
     }
 
     /**
-     * This method replaces the method: {@link ArrayList#indexOf(java.lang.Object) }.
+     * Adds a part of a file to be loaded into the {@code section}, the first
+     * time its contents are needed. The section is created (with no comment)
+     * if it does not already exist.
+     *
+     * @param section Name of the section.
+     * @param body    The part of the file.
+     *
+     * @since 1.0.24
+     */
+    void defer(String section, IniSection.Deferred body) {
+        IniSection iniSection = getOrAddSection(section);
+        iniSection.defer(body);
+        changed(iniSection);
+    }
+
+    /**
+     * Finds the changes between this document and the {@code other}, and
+     * then, unless they are exactly the same, replaces the whole contents of
+     * this document with those of the {@code other}, which must no longer be
+     * used. All of the current properties are detached, so that any
+     * {@link IniHandle}s look their keys up again.
      * <p>
-     * The reason being, {@code indexOf} puts the parameter on the left side of the
-     * {@code equals()} call. I have developed the {@link MutableIniProperty} class to test
-     * equality against a String:
-     * <pre><code>
+     * The contents are replaced in a single step, by swapping in the
+     * {@code other}'s list of sections, so readers see either the old
+     * contents or the new, never a mixture. The list of sections being read
+     * is never changed in place. This class is not thread-safe, so no other
+     * thread must be changing this document meanwhile. This is overridden by
+     * {@link ConcurrentIniDocument}, to hold off all writers for the whole of
+     * it, and all other access only for the swap itself.
+     *
+     * @param other   The new contents.
+     * @param changes Receives the changed values, as per
+     *                {@link IniChange#diff(IniDocument, IniDocument, List)}.
+     *
+     * @return {@code true} if the contents were replaced, {@code false} if
+     *         they were exactly the same already.
+     *
+     * @since 1.0.24
+     */
+    boolean replaceWith(IniDocument other, List<IniChange> changes) {
+        if (IniChange.diff(this, other, changes))
+        {
+            return false;
+        }
+
+        replaced(swapEntries(other));
+        return true;
+    }
+
+    /**
+     * Swaps in the {@code other}'s list of sections, as the first step of
+     * {@link #replaceWith(IniDocument, List) replaceWith()}.
      *
-     *    MutableIniProperty&lt;ArrayList&lt;String&gt;&gt; mp = new MutableIniProperty&lt;&gt;();
+     * @param other The new contents.
      *
-     *    ...
+     * @return the old list of sections, to be passed to
+     *         {@link #replaced(LinkedHashMap)}.
      *
-     *    return mp.equals(obj);
-     * </code></pre>
+     * @since 1.0.24
+     */
+    LinkedHashMap<String, IniSection> swapEntries(IniDocument other) {
+        LinkedHashMap<String, IniSection> old = entries;
+        entries = other.entries;
+        return old;
+    }
+
+    /**
+     * Detaches all of the properties of the {@code old} list of sections, and
+     * tells the {@link #keyListeners} that the contents have been replaced, as
+     * the last step of {@link #replaceWith(IniDocument, List) replaceWith()}.
+     *
+     * @param old The list of sections swapped out.
+     *
+     * @since 1.0.24
+     */
+    void replaced(LinkedHashMap<String, IniSection> old) {
+        for (IniSection iniSection : old.values())
+        {
+            iniSection.detach();
+        }
+
+        for (KeyListener listener : keyListeners)
+        {
+            listener.replaced();
+        }
+    }
+
+    /**
+     * Adds a listener, to be told of each property that is set, added or
+     * removed from now on.
      *
-     * @param section searching for.
+     * @param listener The listener.
      *
-     * @return its index.
+     * @since 1.0.24
      */
-    private int indexOfSection(String section) {
+    synchronized void addKeyListener(KeyListener listener) {
+        KeyListener[] listeners = Arrays.copyOf(keyListeners, keyListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        keyListeners = listeners;
+    }
+
+    /**
+     * Removes a listener added by {@link #addKeyListener(KeyListener)}.
+     *
+     * @param listener The listener.
+     *
+     * @since 1.0.24
+     */
+    synchronized void removeKeyListener(KeyListener listener) {
+        List<KeyListener> listeners = new ArrayList<>(Arrays.asList(keyListeners));
+
+        if (listeners.remove(listener))
+        {
+            keyListeners = listeners.toArray(NO_LISTENERS);
+        }
+    }
+
+    /**
+     * Marks the start of loading, or merging, a file into this document on
+     * the current thread. Until {@link #endLoad(boolean)}, the changes made
+     * by this thread are not passed to the {@link #changeListener} one by
+     * one. The changes made by any other thread still are.
+     *
+     * @since 1.0.24
+     */
+    void beginLoad() {
+        loader = Thread.currentThread();
+    }
+
+    /**
+     * Marks the end of loading, or merging, a file, as started by
+     * {@link #beginLoad()}.
+     *
+     * @param merged {@code true} if a file was merged in, which is passed to
+     *               the {@link #changeListener} as a single change. A file
+     *               loaded is not a change to be saved.
+     *
+     * @since 1.0.24
+     */
+    void endLoad(boolean merged) {
+        loader = null;
+
+        if (merged)
+        {
+            changed(null);
+        }
+    }
+
+    /**
+     * Holds off all changes to this document, so that the whole of it can be
+     * read in a consistent state. Must be followed by a call to
+     * {@link #unlockAll()}.
+     * <p>
+     * This class is not thread-safe, so this does nothing. It is overridden by
+     * {@link ConcurrentIniDocument}.
+     *
+     * @since 1.0.24
+     */
+    void lockAll() {
+    }
+
+    /**
+     * Releases the hold placed by {@link #lockAll()}.
+     *
+     * @since 1.0.24
+     */
+    void unlockAll() {
+    }
+
+    /**
+     * Marks the {@code section} as changed, and tells the
+     * {@link #changeListener}, unless a file is being loaded on this thread.
+     * Called once the change has been made.
+     *
+     * @param section The changed section, or {@code null} if it has been
+     *                removed.
+     *
+     * @since 1.0.24
+     */
+    private void changed(IniSection section) {
         if (section != null)
         {
-            for (int i = 1; i < entries.size(); i++)
+            section.dirty = true;
+        }
+
+        Runnable listener = changeListener;
+
+        if (listener != null && loader != Thread.currentThread())
+        {
+            listener.run();
+        }
+    }
+
+    /**
+     * Tells each of the {@link #keyListeners} that a property has been set,
+     * added or removed.
+     *
+     * @param section Name of the property's section.
+     * @param key     The property's key.
+     * @param kv      The property, or {@code null} if it has been removed.
+     *
+     * @since 1.0.24
+     */
+    private void keyChanged(String section, String key, IniEntry kv) {
+        for (KeyListener listener : keyListeners)
+        {
+            listener.changed(section, key, kv);
+        }
+    }
+
+    /**
+     * Tells each of the {@link #keyListeners} that a section has been added
+     * or removed.
+     *
+     * @param section Name of the section.
+     * @param added   {@code true} if it has been added, {@code false} if
+     *                removed.
+     *
+     * @since 1.0.24
+     */
+    private void sectionChanged(String section, boolean added) {
+        for (KeyListener listener : keyListeners)
+        {
+            if (added)
             {
-                if (entries.get(i).key().equals(section))
+                listener.sectionAdded(section);
+            } else
+            {
+                listener.sectionRemoved(section);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link #keyIndex}, building it if this is the first query.
+     * Any section not yet read in by a {@link IniFile#lazyLoad} is read in.
+     *
+     * @return the index.
+     *
+     * @throws java.io.UncheckedIOException If an I/O error occurs reading in a
+     *                                      section.
+     *
+     * @since 1.0.24
+     */
+    private IniKeyIndex keyIndex() {
+        IniKeyIndex index = keyIndex;
+
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = keyIndex;
+
+                if (index == null)
                 {
-                    return i;
+                    index = new IniKeyIndex(this);
+                    lockAll();
+
+                    try
+                    {
+                        // Listening first, while all changes are held off, so
+                        // that none are missed.
+                        addKeyListener(index);
+                        index.addAll();
+                    } finally
+                    {
+                        unlockAll();
+                    }
+
+                    keyIndex = index;
                 }
             }
+        }
+
+        return index;
+    }
 
-            return -1;
+    /**
+     * Returns the {@code section}, creating it (with no comment) if it does not
+     * already exist. Only used by those methods that are about to change the
+     * section, which then mark it as changed.
+     *
+     * @param section Name of the section.
+     *
+     * @return the section.
+     *
+     * @since 1.0.24
+     */
+    private IniSection getOrAddSection(String section) {
+        IniSection iniSection = entries.get(section);
+
+        if (iniSection == null)
+        {
+            iniSection = new IniSection(section, null);
+            entries.put(section, iniSection);
+            sectionChanged(section, true);
         }
 
-        return 0;
+        return iniSection;
+    }
+
+    /**
+     * Returns the value to which the specified section/key is mapped, or
+     * {@code null} if this map contains no mapping for the section/key.
+     * <p>
+     * More formally, if this map contains a section with a mapping from a key
+     * {@code k} to a value {@code v} such that {@code key.equals(k)}, then this
+     * method returns {@code v}; otherwise it returns {@code null}. (There can
+     * be at most one such mapping.)
+     * <p>
+     * Used by the {@code public get*(...)} methods.
+     *
+     * @param section The section in which the key should reside.
+     * @param key     The key whose value we are after.
+     *
+     * @return the stored value or {@code null}.
+     *
+     * @since 1.0
+     */
+    private String getValue(String section, String key) {
+        IniEntry kv = expand(section, getEntry(section, key));
+
+        return kv != null ? kv.string() : null;
+    }
 
+    /**
+     * Told of each property that is set, added or removed from a document.
+     * Used by {@link IniInterpolator}, {@link IniKeyIndex} and
+     * {@link IniOverlay}.
+     * <p>
+     * Each method is called by the thread making the change, while it still
+     * holds any lock on the section, so it must not wait on any other thread
+     * that may be changing the same document.
+     *
+     * @since 1.0.24
+     */
+    interface KeyListener {
+
+        /**
+         * Called after a property has been set, added or removed.
+         *
+         * @param section Name of the property's section.
+         * @param key     The property's key.
+         * @param kv      The property, or {@code null} if it has been
+         *                removed.
+         */
+        void changed(String section, String key, IniEntry kv);
+
+        /**
+         * Called after the whole contents of the document have been replaced,
+         * before any other change can be made to it. A
+         * {@link ConcurrentIniDocument} holds off all writers meanwhile,
+         * though not readers.
+         */
+        void replaced();
+
+        /**
+         * Called after an empty section has been added, while the list of
+         * sections is still locked.
+         *
+         * @param section Name of the section.
+         */
+        default void sectionAdded(String section) {
+        }
+
+        /**
+         * Called after a section has been removed, and each of its
+         * properties reported as removed, while the list of sections is still
+         * locked. Properties not yet read in by a {@link IniFile#lazyLoad}
+         * are not reported, nor read in.
+         *
+         * @param section Name of the section.
+         */
+        default void sectionRemoved(String section) {
+        }
     }
 }
@@ -0,0 +1,351 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.property.MutableIniProperty;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
+/**
+ * A single key/value property of an {@link IniSection}.
+ * <p>
+ * The {@code value} is stored as the raw text read from, or
+ * written to, the <u>ini</u> file. Alongside it, this class keeps the result of
+ * the last typed conversion requested through one of the {@code *Value()}
+ * methods, so that repeated calls to the typed getters of {@link IniDocument}
+ * neither re-parse the string nor box the result.
+ * <p>
+ * The cached conversion is discarded whenever the {@code value} is changed.
+ * When loaded with an {@link IniFile#schema}, it is made as the file is
+ * parsed.
+ * <p>
+ * When loaded with {@link IniFile#sliceValues}, the {@code value} is instead
+ * held as an {@link IniSlice} of the file, until it is changed. The
+ * {@code int}, {@code long} and {@code boolean} conversions parse straight
+ * from the slice, and only {@link #value()} creates a {@code String}.
+ * <p>
+ * Once removed from its section, an entry is marked as <i>detached</i>, so that
+ * any {@link IniHandle} still holding on to it knows to look the key up again.
+ * <p>
+ * When its document's values are interpolated (see {@link IniFile#interpolate}),
+ * the entry also keeps its value with the references expanded. The typed
+ * conversions are then made from that, rather than from the {@code value}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+class IniEntry extends MutableIniProperty<Object> {
+
+    static final byte BOOLEAN = 1;
+    static final byte DOUBLE = 2;
+    static final byte FLOAT = 3;
+    static final byte INT = 4;
+    static final byte LONG = 5;
+
+    /**
+     * @serial serial
+     */
+    private static final long serialVersionUID = -4474983981575398124L;
+
+    /**
+     * The number of properties that had been added to its section before
+     * this one, as numbered by {@link IniSection#add(IniEntry)}. Used to
+     * place the standalone comments.
+     */
+    int order;
+
+    /**
+     * Set once this entry has been removed from its section.
+     */
+    private transient volatile boolean detached;
+
+    /**
+     * The {@code value} with its references expanded, or {@code null} if it
+     * has not been expanded since it was last changed. Set and cleared by
+     * {@link IniInterpolator}.
+     */
+    transient volatile String resolved;
+
+    /**
+     * The last typed conversion of {@code value}.
+     */
+    private transient volatile TypedValue typed;
+
+    /**
+     * A copy of the {@code comment}, through which it is read. Being
+     * {@code volatile}, it can be read without a lock, such as by the getters
+     * of a {@link ConcurrentIniDocument}, while it is being set.
+     */
+    private transient volatile String sharedComment;
+
+    /**
+     * A copy of the {@code value}, through which it is read, as per
+     * {@link #sharedComment}.
+     */
+    private transient volatile Object sharedValue;
+
+    /**
+     * Create a new instance of {@code IniEntry}.
+     *
+     * @param key     The key.
+     * @param value   The value.
+     * @param comment The comment.
+     */
+    IniEntry(String key, Object value, String comment) {
+        super(key, value, comment);
+        sharedValue = value;
+        sharedComment = comment;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String comment() {
+        return sharedComment;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void comment(String comment) {
+        super.comment(comment);
+        sharedComment = comment;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A value held as an {@link IniSlice} is returned as a new {@code String}.
+     */
+    @Override
+    public Object value() {
+        Object raw = sharedValue;
+        return raw instanceof IniSlice ? raw.toString() : raw;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Also discards any cached typed conversion of the previous value.
+     */
+    @Override
+    public void value(Object value) {
+        typed = null;
+        resolved = null;
+        super.value(value);
+        sharedValue = value;
+    }
+
+    /**
+     * @return the {@code value} as read through the getters: with its
+     *         references expanded, if it has been (see {@link #resolved}),
+     *         or else as a {@code String}.
+     */
+    String string() {
+        String rtn = resolved;
+        return rtn != null ? rtn : (String) value();
+    }
+
+    /**
+     * @return the {@code value} as it is held, whether a {@code String} or an
+     *         {@link IniSlice}, without creating a new {@code String}.
+     */
+    CharSequence text() {
+        return (CharSequence) sharedValue;
+    }
+
+    /**
+     * Mark this entry as having been removed from its section.
+     */
+    void detach() {
+        detached = true;
+    }
+
+    /**
+     * @return {@code true} if this entry has been removed from its section.
+     */
+    boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * @return {@code true} if a {@code value} has been set.
+     */
+    boolean hasValue() {
+        return sharedValue != null;
+    }
+
+    /**
+     * @return the {@code value} as a {@code boolean}.
+     */
+    boolean booleanValue() {
+        TypedValue tv = cached(BOOLEAN);
+
+        if (tv == null)
+        {
+            Object raw = source();
+            boolean b = raw instanceof IniSlice ? ((IniSlice) raw).booleanValue() : Boolean.parseBoolean((String) raw);
+            tv = cache(raw, BOOLEAN, b ? 1 : 0);
+        }
+
+        return tv.bits != 0;
+    }
+
+    /**
+     * @return the {@code value} as a {@code double}.
+     *
+     * @throws NumberFormatException if the value is not a parsable double.
+     */
+    double doubleValue() {
+        TypedValue tv = cached(DOUBLE);
+
+        if (tv == null)
+        {
+            Object raw = source();
+            tv = cache(raw, DOUBLE, Double.doubleToRawLongBits(Double.parseDouble(raw.toString())));
+        }
+
+        return Double.longBitsToDouble(tv.bits);
+    }
+
+    /**
+     * @return the {@code value} as a {@code float}.
+     *
+     * @throws NumberFormatException if the value is not a parsable float.
+     */
+    float floatValue() {
+        TypedValue tv = cached(FLOAT);
+
+        if (tv == null)
+        {
+            Object raw = source();
+            tv = cache(raw, FLOAT, Float.floatToRawIntBits(Float.parseFloat(raw.toString())));
+        }
+
+        return Float.intBitsToFloat((int) tv.bits);
+    }
+
+    /**
+     * @return the {@code value} as an {@code int}.
+     *
+     * @throws NumberFormatException if the value is not a parsable integer.
+     */
+    int intValue() {
+        TypedValue tv = cached(INT);
+
+        if (tv == null)
+        {
+            Object raw = source();
+            tv = cache(raw, INT, raw instanceof IniSlice ? ((IniSlice) raw).intValue() : Integer.parseInt((String) raw));
+        }
+
+        return (int) tv.bits;
+    }
+
+    /**
+     * @return the {@code value} as a {@code long}.
+     *
+     * @throws NumberFormatException if the value is not a parsable long.
+     */
+    long longValue() {
+        TypedValue tv = cached(LONG);
+
+        if (tv == null)
+        {
+            Object raw = source();
+            tv = cache(raw, LONG, raw instanceof IniSlice ? ((IniSlice) raw).longValue() : Long.parseLong((String) raw));
+        }
+
+        return tv.bits;
+    }
+
+    /**
+     * Store a conversion of the current {@code value}, already made by an
+     * {@link IniSchema}, so that the typed getter does not have to make it.
+     *
+     * @param type The type of conversion: {@link #INT}, etc.
+     * @param bits The conversion, as held by the typed getter.
+     */
+    void typed(byte type, long bits) {
+        cache(source(), type, bits);
+    }
+
+    /**
+     * @return the expanded value, if there is one, or else the {@code value}
+     *         as it is held.
+     */
+    private Object source() {
+        String rtn = resolved;
+        return rtn != null ? rtn : sharedValue;
+    }
+
+    /**
+     * Restore the copies of the {@code value} and {@code comment}.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        sharedValue = value;
+        sharedComment = comment;
+    }
+
+    /**
+     * Store a new typed conversion of the {@code raw} value.
+     */
+    private TypedValue cache(Object raw, byte type, long bits) {
+        TypedValue tv = new TypedValue(raw, type, bits);
+        typed = tv;
+        return tv;
+    }
+
+    /**
+     * Get the cached conversion, if it is of the required {@code type} and was
+     * made from the current {@code value}.
+     */
+    private TypedValue cached(byte type) {
+        TypedValue tv = typed;
+        return tv != null && tv.type == type && tv.raw == source() ? tv : null;
+    }
+
+    /**
+     * Immutable holder of a typed conversion.
+     * <p>
+     * Being immutable, and holding a reference to the raw value it was made
+     * from, a stale or partially published conversion can never be mistaken for
+     * a current one.
+     */
+    private static final class TypedValue {
+
+        final long bits;
+        final Object raw;
+        final byte type;
+
+        TypedValue(Object raw, byte type, long bits) {
+            this.raw = raw;
+            this.type = type;
+            this.bits = bits;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * One item from an <u>ini</u> file, as returned by an {@link IniReader}.
+ * <p>
+ * The fields are set as per the matching method of {@link IniHandler}. Those
+ * that do not apply to the {@link #type} are {@code null}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniEvent {
+
+    /**
+     * The comment.
+     */
+    public final String comment;
+
+    /**
+     * The key of a {@link Type#PROPERTY PROPERTY}.
+     */
+    public final String key;
+
+    /**
+     * The line number of a {@link Type#COMMENT COMMENT}, or the line number
+     * of the section header or key/value pair.
+     */
+    public final int lineNumber;
+
+    /**
+     * The section name of a {@link Type#SECTION SECTION}, otherwise the
+     * current section ({@code null} for the <b>global section</b>).
+     */
+    public final String section;
+
+    /**
+     * The type of event.
+     */
+    public final Type type;
+
+    /**
+     * The value of a {@link Type#PROPERTY PROPERTY}.
+     */
+    public final String value;
+
+    IniEvent(Type type, String section, String key, String value, String comment, int lineNumber) {
+        this.type = type;
+        this.section = section;
+        this.key = key;
+        this.value = value;
+        this.comment = comment;
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "IniEvent{" + "type=" + type + ", section=" + section + ", key=" + key
+               + ", value=" + value + ", comment=" + comment + ", lineNumber=" + lineNumber + '}';
+    }
+
+    /**
+     * The types of event.
+     */
+    public enum Type {
+        /**
+         * A standalone comment.
+         */
+        COMMENT,
+        /**
+         * A key/value pair.
+         */
+        PROPERTY,
+        /**
+         * A section header.
+         */
+        SECTION
+    }
+}
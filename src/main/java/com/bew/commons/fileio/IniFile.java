@@ -21,24 +21,38 @@ package com.bew.commons.fileio;
 import com.bew.commons.InvalidParameterValueException;
 import com.bew.commons.InvalidProgramStateException;
 import com.bew.commons.property.IniProperty;
-import com.bew.commons.property.MutableIniProperty;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static java.lang.System.exit;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * <p>
@@ -130,12 +144,26 @@ import static java.nio.file.StandardOpenOption.WRITE;
  * have access to all that you need to read and write your ini files. Through
  * its public member {@link #iniDoc}, you can access the internal instance of
  * {@link IniDocument}, and then all of its members and methods.
+ * </p><p>
+ * <b>Concurrent access:</b><br>
+ * {@code IniDocument} is not thread-safe. Where many threads need to read the
+ * properties while another is changing them, the readers should use
+ * {@link #snapshot()}, which returns an immutable {@link IniSnapshot} of the
+ * document that can be read without any locking. The writer then makes its
+ * changes through {@link #update(Consumer)}, which publishes a new snapshot in
+ * a single atomic step once the changes are complete.
+ * </p><p>
+ * <b>Streaming:</b><br>
+ * Where a file only needs to be read through once, {@link IniReader} parses it
+ * with the same rules, without building an {@code IniDocument}.
+ * Likewise, {@link IniWriter} writes a document out in the same format as
+ * {@link #saveFile()}, to any stream, channel or buffer.
  * </p>
  *
  * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
  *
  * @since 1.0
- * @version 1.0.20
+ * @version 1.0.24
  *
  * @deprecated Moved out to project: BEWFiles.
  */
@@ -280,6 +308,122 @@ public class IniFile {
      */
     public final IniDocument iniDoc;
 
+    /**
+     * This setting is referred to at the time of loading a file.<p>
+     * If {@code true}, then a compiled, binary copy of the file (see
+     * {@link IniBinary}) is kept in the same directory, with ".bin" added to
+     * its name. {@link #loadFile()} loads from the compiled copy, rather than
+     * parsing the file, provided it was compiled from the file as it is now:
+     * the same size, and last modified time. Otherwise, the file is parsed,
+     * and then compiled afresh, for the next time. This suits large files,
+     * that rarely change, and are loaded at every startup.<br>
+     * With {@link #lazyLoad} as well, only the sections are loaded from the
+     * compiled copy, and each section's keys are read in from it the first
+     * time that section is used. {@link #memoryMapped} and
+     * {@link #sliceValues} are only used when the file is parsed. Compiling it
+     * reads in all of the sections.
+     * <br>
+     * If {@code false}, then the file is always parsed.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean binaryCache = false;
+
+    /**
+     * This setting is referred to at the time of saving the data to file.<p>
+     * If {@code true}, then {@link #saveFile()} only writes out those parts of
+     * the file that have changed since it was last saved by this instance. A
+     * changed section is overwritten in place, if its new text is the same
+     * length as before. Otherwise, the file is written out again from that
+     * section on. The result is always the same as that of a full save. This
+     * suits large files, of which only a few values are changed between
+     * saves.<br>
+     * The first save writes out the whole file, as does any save after the
+     * file's size or last modified time has been changed by anything else.
+     * {@link #saveFileAs(Path)} to any other file always writes out the whole
+     * file.
+     * <br>
+     * If {@code false}, then the whole file is written out each time.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean incrementalSave = false;
+
+    /**
+     * This setting is referred to at the time of loading, or merging, a
+     * file.<p>
+     * If {@code true}, then a value may refer to the value of another
+     * property, which the getters of {@link #iniDoc} put in its place:
+     * </p>
+     * <ul>
+     * <li>"${section:key}" - the value of {@code key} in {@code section},</li>
+     * <li>"${:key}" - the value of {@code key} in the global section,
+     * and</li>
+     * <li>"${key}" - the value of {@code key} in the same section.</li>
+     * </ul>
+     * <p>
+     * "$$" stands for a single "$". A reference to a property that does not
+     * exist is left as it is. The values are saved as they were written, with
+     * their references, and are held that way by the properties returned by
+     * {@code getSection()} and the section views.<br>
+     * Each value is only expanded once, and the result kept, so reading it
+     * costs no more than reading any other. Setting, adding or removing a
+     * property, whether by a {@code set*()} method or by merging a file, only
+     * discards the kept values of those that refer to it, directly or through
+     * others. Once a file has been loaded, or merged, every value is
+     * expanded, and if any of them refers back to itself, an
+     * {@link IniFileFormatException} is thrown. Such a reference is then left
+     * as it is. Once turned on for {@code iniDoc}, this stays on.
+     * <br>
+     * If {@code false}, then the values are read exactly as written.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean interpolate = false;
+
+    /**
+     * This setting is referred to at the time of loading a file.<p>
+     * If {@code true}, then the file is only indexed when it is loaded: each
+     * line is checked, and the sections are added to {@link #iniDoc} with
+     * their comments. The keys of each section are only read in from the file
+     * the first time that section is used, such as by {@code getSection()} or
+     * {@code getString()}. This suits very large files, of which only a few
+     * sections are ever used.<br>
+     * The file must not be changed by anything else while there are sections
+     * still to be read in. Saving the file, or taking a {@link #snapshot()},
+     * reads in all of them.
+     * <br>
+     * If {@code false}, then the whole file is loaded, as per
+     * {@link #memoryMapped} and {@link #sliceValues}.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean lazyLoad = false;
+
+    /**
+     * This setting is referred to at the time of loading, or merging, a
+     * file.<p>
+     * If {@code true}, then the file is memory-mapped, and parsed directly from
+     * the mapped buffer, without creating a {@code String} for each line. This
+     * suits very large files. The file must be encoded in UTF-8 (or ASCII).
+     * <br>
+     * If {@code false}, then the file is read line by line, through a
+     * {@code BufferedReader}.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean memoryMapped = false;
+
     /**
      * This setting is referred to at the time of saving the data to file.<p>
      * If {@code true}, then " = " will be used to separate the key/value data:
@@ -300,8 +444,83 @@ public class IniFile {
      */
     public final Path path;
 
+    /**
+     * This setting is referred to at the time of loading, or merging, a
+     * file.<p>
+     * If set, then each section, key and value of the file is checked against
+     * the {@link IniSchema}, as it is parsed, and an
+     * {@link IniFileFormatException} is thrown at the first one that does not
+     * conform. Each value of a typed key is stored along with its conversion,
+     * so that the typed getters of {@link #iniDoc} do not have to parse it.
+     * The properties already loaded are kept, up to the one at fault.<br>
+     * A file loaded from its compiled copy (see {@link #binaryCache}), or by
+     * {@link #lazyLoad}, is checked once it has been loaded, which reads in
+     * all of its sections. With {@link #interpolate}, the values are checked
+     * once their references have been expanded. The files merged by
+     * {@link #mergeFiles(List, Executor) mergeFiles()} are checked as they
+     * are parsed, before any of them is merged, and their values converted
+     * the first time they are read.
+     * No new snapshot (see {@link #snapshot()}) is published for a file that
+     * does not conform.<br>
+     * Only the files loaded, or merged, are checked. The properties set
+     * through {@link #iniDoc} afterwards, such as by its {@code set*()}
+     * methods or by {@link #update(Consumer)}, are not.
+     * <br>
+     * If {@code null}, then any sections and keys are accepted, and each value
+     * is only converted the first time it is read by a typed getter.
+     * <p>
+     * The default is {@code null}.
+     *
+     * @since 1.0.24
+     */
+    public IniSchema schema = null;
+
+    /**
+     * This setting is referred to at the time of loading, or merging, a
+     * file.<p>
+     * If {@code true}, then the whole file is read into a single character
+     * array, and each value is held as a slice of it, rather than as a
+     * {@code String}. The typed getters, such as {@code getInt()}, parse
+     * straight from the slice, and a {@code String} is only created when one
+     * is asked for, such as by {@code getString()}. This suits read-mostly
+     * files, with mostly numeric values. The whole file is kept in memory for
+     * as long as any of its values are, and must be encoded in UTF-8 (or
+     * ASCII). {@link #memoryMapped} is not used.
+     * <br>
+     * If {@code false}, then each value is a {@code String}.
+     * <p>
+     * Not used when the file is loaded with {@link #lazyLoad}.
+     * <p>
+     * The default is {@code false}.
+     *
+     * @since 1.0.24
+     */
+    public boolean sliceValues = false;
+
+    /**
+     * The running autosave, or {@code null} if there is none.
+     */
+    private IniAutosave autosave;
+
     private boolean fileIsLoaded;
 
+    /**
+     * Where each section was last written by an {@link #incrementalSave}, or
+     * {@code null} if none has been done yet.
+     */
+    private IniFileLayout layout;
+
+    /**
+     * The running watcher, or {@code null} if there is none.
+     */
+    private IniWatcher watcher;
+
+    /**
+     * The most recently published snapshot of {@link #iniDoc}, or {@code null}
+     * if none has been requested yet.
+     */
+    private volatile IniSnapshot snapshot;
+
     /**
      * This constructor uses the <b>Path</b> object passed in the <i>path</i>
      * parameter.
@@ -314,16 +533,38 @@ public class IniFile {
      */
     public IniFile(Path path)
             throws NullPointerException, InvalidParameterValueException {
+        this(path, new IniDocument());
+    }
+
+    /**
+     * This constructor uses the <b>Path</b> object passed in the <i>path</i>
+     * parameter, and loads the properties into the supplied document.
+     * <p>
+     * Use this to have the file loaded into a {@link ConcurrentIniDocument}.
+     *
+     * @param path   The <b>Path</b> object to use.
+     * @param iniDoc The document to hold the properties.
+     *
+     * @throws NullPointerException           If either parameter is
+     *                                        {@code null}.
+     * @throws InvalidParameterValueException If path.toString().isBlank().
+     * @since 1.0.24
+     */
+    public IniFile(Path path, IniDocument iniDoc)
+            throws NullPointerException, InvalidParameterValueException {
         if (path == null)
         {
             throw new NullPointerException("path is null");
+        } else if (iniDoc == null)
+        {
+            throw new NullPointerException("iniDoc is null");
         } else if (path.toString().isBlank())
         {
             throw new InvalidParameterValueException("path is blank");
         } else
         {
             this.path = path;
-            iniDoc = new IniDocument();
+            this.iniDoc = iniDoc;
         }
     }
 
@@ -337,6 +578,92 @@ public class IniFile {
         path = null;
     }
 
+    /**
+     * Starts saving this file automatically, on a background thread, some time
+     * after {@link #iniDoc} has been changed. See {@link IniAutosave}.
+     * <p>
+     * Many changes made close together are saved all at once. The file is
+     * saved once the {@code delay} has passed since the first unsaved change,
+     * or as soon as there are {@code maxChanges} unsaved changes. Loading a
+     * file is not counted as a change, and merging one counts as a single
+     * change. Each save replaces the whole file in a single atomic step, so
+     * {@link #incrementalSave} is not used.
+     *
+     * @param delay      The time to wait after the first change.
+     * @param unit       The unit of the {@code delay}.
+     * @param maxChanges The number of changes after which to save straight
+     *                   away.
+     *
+     * @return the running autosave, which must be closed to stop it.
+     *
+     * @throws InvalidParameterValueException If the {@code delay} is negative,
+     *                                        or {@code maxChanges} is less
+     *                                        than one.
+     * @throws InvalidProgramStateException   If there is no file {@link #path},
+     *                                        or an autosave is already
+     *                                        running.
+     * @since 1.0.24
+     */
+    public synchronized IniAutosave autosave(long delay, TimeUnit unit, int maxChanges)
+            throws InvalidParameterValueException, InvalidProgramStateException {
+
+        if (delay < 0L)
+        {
+            throw new InvalidParameterValueException("delay < 0: " + delay);
+        } else if (maxChanges < 1)
+        {
+            throw new InvalidParameterValueException("maxChanges < 1: " + maxChanges);
+        } else if (path == null)
+        {
+            throw new InvalidProgramStateException("No file path set.");
+        } else if (autosave != null && !autosave.isClosed())
+        {
+            throw new InvalidProgramStateException("Autosave already running:\n" + path);
+        }
+
+        autosave = new IniAutosave(this, unit.toNanos(delay), maxChanges);
+        return autosave;
+    }
+
+    /**
+     * Starts reloading this file whenever it is changed by anything else,
+     * such as by being edited by hand. See {@link IniWatcher}.
+     * <p>
+     * The file is reloaded once no more changes to it have been seen for the
+     * {@code delay}. The new contents are swapped into {@link #iniDoc} in a
+     * single step, and a new {@link #snapshot()} is published at the same
+     * time.
+     *
+     * @param delay The time to wait for the changes to stop.
+     * @param unit  The unit of the {@code delay}.
+     *
+     * @return the running watcher, which must be closed to stop it.
+     *
+     * @throws IOException                    If an I/O error occurs starting
+     *                                        to watch the file's directory.
+     * @throws InvalidParameterValueException If the {@code delay} is negative.
+     * @throws InvalidProgramStateException   If there is no file {@link #path},
+     *                                        or a watcher is already running.
+     * @since 1.0.24
+     */
+    public synchronized IniWatcher watch(long delay, TimeUnit unit)
+            throws IOException, InvalidParameterValueException, InvalidProgramStateException {
+
+        if (delay < 0L)
+        {
+            throw new InvalidParameterValueException("delay < 0: " + delay);
+        } else if (path == null)
+        {
+            throw new InvalidProgramStateException("No file path set.");
+        } else if (watcher != null && !watcher.isClosed())
+        {
+            throw new InvalidProgramStateException("Watcher already running:\n" + path);
+        }
+
+        watcher = new IniWatcher(this, unit.toNanos(delay));
+        return watcher;
+    }
+
     /**
      * @return <i>true</i> if the file has been loaded, <i>false</i> otherwise.
      *
@@ -361,14 +688,48 @@ public class IniFile {
      *                                        comment.
      * @since 1.0
      */
-    public IniFile loadFile()
+    public synchronized IniFile loadFile()
             throws IOException, IniFileFormatException, InvalidParameterValueException {
 
-        try ( BufferedReader in = Files.newBufferedReader(path))
+        BasicFileAttributes source = binaryCache ? Files.readAttributes(path, BasicFileAttributes.class) : null;
+        boolean fromBinary;
+
+        iniDoc.beginLoad();
+
+        try
+        {
+            fromBinary = source != null && loadBinary(source);
+
+            if (fromBinary)
+            {
+                fileIsLoaded = true;
+            } else if (lazyLoad)
+            {
+                IniSectionIndex.index(path, iniDoc, path.toString());
+                fileIsLoaded = true;
+            } else
+            {
+                fileIsLoaded = parseINI(path);
+            }
+        } finally
+        {
+            iniDoc.endLoad(false);
+        }
+
+        if (source != null && !fromBinary)
         {
-            fileIsLoaded = parseINI(in);
+            try
+            {
+                IniBinary.write(iniDoc, binaryPath(), source.size(), source.lastModifiedTime().to(NANOSECONDS));
+            } catch (IOException ex)
+            {
+                // The compiled copy only saves time. The file has been loaded.
+            }
         }
 
+        interpolate();
+        validate(!fromBinary && !lazyLoad);
+        republish();
         return this;
     }
 
@@ -382,20 +743,161 @@ public class IniFile {
      * @throws IniFileFormatException If the format of the supplied ini file does
      *                                not conform to the general standard.
      */
-    public IniFile mergeFile(Path file)
+    public synchronized IniFile mergeFile(Path file)
             throws IOException, IniFileFormatException {
 
         if (fileIsLoaded)
         {
-            try ( BufferedReader in = Files.newBufferedReader(file))
+            iniDoc.beginLoad();
+
+            try
             {
-                parseINI(in);
+                parseINI(file);
+            } finally
+            {
+                iniDoc.endLoad(true);
             }
         } else
         {
             throw new InvalidProgramStateException("File not loaded:\n" + path);
         }
 
+        interpolate();
+        validate(true);
+        republish();
+        return this;
+    }
+
+    /**
+     * Merges all of the {@code files} into {@link #iniDoc}, parsing them in
+     * parallel on the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param files Files to merge with this ini file, in the order in which
+     *              they are to be merged.
+     *
+     * @return this instance for chaining.
+     *
+     * @throws IOException            if an I/O error occurs opening a file.
+     * @throws IniFileFormatException If the format of a supplied ini file does
+     *                                not conform to the general standard.
+     *
+     * @see #mergeFiles(List, Executor)
+     * @since 1.0.24
+     */
+    public IniFile mergeFiles(List<Path> files)
+            throws IOException, IniFileFormatException {
+        return mergeFiles(files, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Merges all of the {@code files} into {@link #iniDoc}, parsing them in
+     * parallel on the {@code executor}.
+     * <p>
+     * Each file is parsed, as per {@link #memoryMapped}, into a list of its
+     * sections, properties and comments. Only once all of them have been
+     * parsed, are they merged into {@code iniDoc}, one after the other, in the
+     * order given. The result is exactly the same as calling
+     * {@link #mergeFile(Path)} for each file in turn: a later file's values,
+     * and comments, replace those of an earlier one. If any file fails to
+     * parse, nothing is merged.
+     * </p><p>
+     * Unlike {@code mergeFile()}, this does not need the file at
+     * {@link #path} to have been loaded first, so it can be used to build a
+     * document from a directory of fragments.
+     * </p>
+     *
+     * @param files    Files to merge with this ini file, in the order in
+     *                 which they are to be merged.
+     * @param executor Runs the parsing of each file.
+     *
+     * @return this instance for chaining.
+     *
+     * @throws IOException            if an I/O error occurs opening a file.
+     * @throws IniFileFormatException If the format of a supplied ini file does
+     *                                not conform to the general standard.
+     * @since 1.0.24
+     */
+    public synchronized IniFile mergeFiles(List<Path> files, Executor executor)
+            throws IOException, IniFileFormatException {
+
+        List<CompletableFuture<List<IniEvent>>> parsed = new ArrayList<>(files.size());
+        boolean mapped = memoryMapped;
+        IniSchema parsing = parsingSchema();
+
+        for (Path file : files)
+        {
+            parsed.add(CompletableFuture.supplyAsync(() ->
+            {
+                try
+                {
+                    return record(file, mapped, parsing);
+                } catch (IOException ex)
+                {
+                    throw new UncheckedIOException(ex);
+                } catch (IniFileFormatException ex)
+                {
+                    throw new CompletionException(ex);
+                }
+            }, executor));
+        }
+
+        List<List<IniEvent>> fragments = new ArrayList<>(files.size());
+
+        for (CompletableFuture<List<IniEvent>> future : parsed)
+        {
+            try
+            {
+                fragments.add(future.join());
+            } catch (CompletionException ex)
+            {
+                Throwable cause = ex.getCause();
+
+                if (cause instanceof UncheckedIOException)
+                {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof IniFileFormatException)
+                {
+                    throw (IniFileFormatException) cause;
+                } else
+                {
+                    throw ex;
+                }
+            }
+        }
+
+        IniHandler handler = new IniParser.DocumentHandler(iniDoc);
+
+        iniDoc.beginLoad();
+
+        try
+        {
+            for (List<IniEvent> events : fragments)
+            {
+                for (IniEvent event : events)
+                {
+                    switch (event.type)
+                    {
+                        case COMMENT:
+                            handler.comment(event.section, event.comment, event.lineNumber);
+                            break;
+
+                        case PROPERTY:
+                            handler.property(event.section, event.key, event.value, event.comment);
+                            break;
+
+                        default:
+                            handler.section(event.section, event.comment);
+                    }
+                }
+            }
+        } finally
+        {
+            iniDoc.endLoad(true);
+        }
+
+        interpolate();
+        validate(true);
+        republish();
         return this;
     }
 
@@ -411,7 +913,7 @@ public class IniFile {
      * @throws IOException File i/o problem.
      * @since 1.0
      */
-    public IniFile saveFile() throws IOException {
+    public synchronized IniFile saveFile() throws IOException {
         saveFileAs(path);
 
         return this;
@@ -426,15 +928,166 @@ public class IniFile {
      *
      * @throws IOException File i/o problem.
      */
-    public IniFile saveFileAs(Path newFile) throws IOException {
-        try ( BufferedWriter out = Files.newBufferedWriter(newFile, CREATE, TRUNCATE_EXISTING, WRITE))
+    public synchronized IniFile saveFileAs(Path newFile) throws IOException {
+        readPendingSections();
+
+        boolean sameFile = newFile.equals(path);
+
+        if (incrementalSave && sameFile)
         {
-            storeINI(out);
+            if (layout == null)
+            {
+                layout = new IniFileLayout();
+            }
+
+            iniDoc.lockAll();
+
+            try
+            {
+                layout.save(newFile, iniDoc.entries.values(), new IniWriter(iniDoc, paddedEquals));
+            } finally
+            {
+                iniDoc.unlockAll();
+            }
+        } else
+        {
+            if (layout != null && sameFile)
+            {
+                layout.invalidate();
+            }
+
+            try ( FileChannel out = FileChannel.open(newFile, CREATE, TRUNCATE_EXISTING, WRITE))
+            {
+                new IniWriter(iniDoc, paddedEquals).writeTo(out);
+            }
         }
 
         return this;
     }
 
+    /**
+     * Swaps the contents of the {@code fresh} document into {@link #iniDoc},
+     * and publishes a new snapshot, unless they are exactly the same already.
+     * Used by {@link IniWatcher}.
+     *
+     * @param fresh The newly loaded document, which must no longer be used.
+     *
+     * @return the changed values, which may be empty.
+     */
+    synchronized List<IniChange> swap(IniDocument fresh) {
+        List<IniChange> changes = new ArrayList<>();
+
+        if (iniDoc.replaceWith(fresh, changes))
+        {
+            republish();
+        }
+
+        return changes;
+    }
+
+    /**
+     * Saves the list of properties to a temporary file, then moves it over
+     * the file at {@link #path}, so that the file is replaced in a single
+     * step. Used by {@link IniAutosave}.
+     *
+     * @throws IOException File i/o problem.
+     */
+    synchronized void saveAtomically() throws IOException {
+        readPendingSections();
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+
+        try
+        {
+            if (Files.exists(path) && Files.getFileAttributeView(path, PosixFileAttributeView.class) != null)
+            {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+            }
+
+            try ( FileChannel out = FileChannel.open(temp, TRUNCATE_EXISTING, WRITE))
+            {
+                new IniWriter(iniDoc, paddedEquals).writeTo(out);
+            }
+
+            try
+            {
+                Files.move(temp, path, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex)
+            {
+                Files.move(temp, path, REPLACE_EXISTING);
+            }
+        } finally
+        {
+            Files.deleteIfExists(temp);
+        }
+
+        if (layout != null)
+        {
+            layout.invalidate();
+        }
+    }
+
+    /**
+     * Returns the most recently published snapshot of {@link #iniDoc}.
+     * <p>
+     * This method never blocks once the first snapshot has been published.
+     * The returned snapshot is immutable, and may be read by any number of
+     * threads, without locking, for as long as required.
+     * </p><p>
+     * The first call takes, and publishes, a snapshot of the current contents
+     * of {@code iniDoc}. From then on, a new snapshot is published by each call
+     * to {@link #update(Consumer)}, {@link #loadFile()} or
+     * {@link #mergeFile(Path)}.
+     * </p>
+     *
+     * @return the current snapshot.
+     *
+     * @since 1.0.24
+     */
+    public IniSnapshot snapshot() {
+        IniSnapshot rtn = snapshot;
+
+        if (rtn == null)
+        {
+            synchronized (this)
+            {
+                rtn = snapshot;
+
+                if (rtn == null)
+                {
+                    rtn = new IniSnapshot(iniDoc);
+                    snapshot = rtn;
+                }
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * Applies a set of changes to {@link #iniDoc}, then publishes a new
+     * snapshot containing them.
+     * <p>
+     * Calls to this method, and to the {@code load}, {@code merge} and
+     * {@code save} methods, are serialized with each other. Readers using
+     * {@link #snapshot()} are never blocked, and will see either all of the
+     * changes made by {@code mutator}, or none of them.
+     * </p>
+     *
+     * @param mutator Makes the changes to the document passed to it.
+     *
+     * @return the newly published snapshot.
+     *
+     * @since 1.0.24
+     */
+    public synchronized IniSnapshot update(Consumer<IniDocument> mutator) {
+        mutator.accept(iniDoc);
+
+        IniSnapshot rtn = new IniSnapshot(iniDoc);
+        snapshot = rtn;
+        return rtn;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -451,116 +1104,237 @@ public class IniFile {
     }
 
     /**
+     * If snapshots are in use, publish a new one to reflect the current
+     * contents of {@link #iniDoc}.
+     */
+    private void republish() {
+        if (snapshot != null)
+        {
+            snapshot = new IniSnapshot(iniDoc);
+        }
+    }
+
+    /**
+     * If {@link #interpolate} is set, expand the references in the values of
+     * {@link #iniDoc}, checking that none of them refers back to itself.
      *
-     * @param key
-     * @param value
+     * @throws IOException            If an I/O error occurs reading in a
+     *                                section not yet read in by a
+     *                                {@link #lazyLoad}.
+     * @throws IniFileFormatException If a value refers back to itself.
+     */
+    private void interpolate() throws IOException, IniFileFormatException {
+        if (interpolate)
+        {
+            iniDoc.interpolate(String.valueOf(path));
+        }
+    }
+
+    /**
+     * @return the {@link #schema} to check each property against as it is
+     *         parsed, or {@code null} if they are not to be checked until
+     *         their references have been expanded, as per {@link #interpolate}.
+     */
+    private IniSchema parsingSchema() {
+        return interpolate ? null : schema;
+    }
+
+    /**
+     * If there is a {@link #schema}, and the properties just loaded were not
+     * checked as they were parsed, check them now.
+     *
+     * @param parsed {@code true} if they were parsed from the file.
      *
-     * @return
+     * @throws IOException            If an I/O error occurs reading in a
+     *                                section not yet read in by a
+     *                                {@link #lazyLoad}.
+     * @throws IniFileFormatException If a section, key or value does not
+     *                                conform.
      */
-    private String join(String key, String value) {
-        String separator = paddedEquals ? " = " : "=";
-        return value.isEmpty()
-               ? (key + separator).strip()
-               : key + separator + value;
+    private void validate(boolean parsed) throws IOException, IniFileFormatException {
+        if (schema != null && (!parsed || interpolate))
+        {
+            schema.validate(iniDoc, String.valueOf(path));
+        }
     }
 
     /**
-     * Parses the contents of the <i>ini</i> file.
+     * @return the path to the compiled copy of the file, as per
+     *         {@link #binaryCache}.
+     */
+    private Path binaryPath() {
+        return path.resolveSibling(path.getFileName() + ".bin");
+    }
+
+    /**
+     * Loads the compiled copy of the file, as per {@link #binaryCache}, if it
+     * was compiled from the file as it is now.
      *
-     * @param reader The ini file to be parsed.
+     * @param source The file's current attributes.
+     *
+     * @return {@code true} if it was loaded, or {@code false} if the file needs
+     *         to be parsed instead.
+     */
+    private boolean loadBinary(BasicFileAttributes source) {
+        IniBinary binary;
+
+        try
+        {
+            binary = IniBinary.open(binaryPath());
+        } catch (IOException ex)
+        {
+            // Missing, or not usable.
+            return false;
+        }
+
+        if (binary.sourceSize() != source.size()
+            || binary.sourceModified() != source.lastModifiedTime().to(NANOSECONDS))
+        {
+            return false;
+        }
+
+        if (lazyLoad)
+        {
+            binary.defer(iniDoc);
+        } else
+        {
+            binary.load(iniDoc);
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads in any sections not yet read in by a {@link #lazyLoad}, before
+     * the file they are in can be overwritten.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void readPendingSections() throws IOException {
+        iniDoc.lockAll();
+
+        try
+        {
+            for (IniSection section : iniDoc.entries.values())
+            {
+                section.value();
+            }
+        } catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        } finally
+        {
+            iniDoc.unlockAll();
+        }
+    }
+
+    /**
+     * Parses the {@code file} into a list of the calls that parsing it
+     * straight into {@link #iniDoc} would make.
+     *
+     * @param file         The ini file to be parsed.
+     * @param memoryMapped As per {@link #memoryMapped}.
+     * @param schema       To check each property against, or {@code null}.
+     *
+     * @return the calls, in file order.
      *
      * @throws IOException            If an I/O error occurs.
      * @throws IniFileFormatException If the format of the supplied ini file does
      *                                not conform to the general standard.
      */
-    private boolean parseINI(BufferedReader reader)
+    private static List<IniEvent> record(Path file, boolean memoryMapped, IniSchema schema)
             throws IOException, IniFileFormatException {
-        Pattern p = Pattern.compile(IniDocument.INI_PATTERN);
-        String line = "";
-        String currentSection = null;
-        String lastComment = null;
-        int lineNumber = 0;
 
-        while ((line = reader.readLine()) != null)
+        List<IniEvent> events = new ArrayList<>();
+        IniParser parser = new IniParser(new IniHandler()
         {
-            lineNumber++;
-            Matcher m = p.matcher(line);
-            m.find();
-            String section = m.group("Section");
-            String key = m.group("Key");
-            String value = m.group("Value");
-            String comment = m.group("Comment");
-            String tail = m.group("Tail");
+            @Override
+            public void comment(String section, String comment, int lineNumber) {
+                events.add(new IniEvent(IniEvent.Type.COMMENT, section, null, null, comment, lineNumber));
+            }
 
-            if (section != null)
-            {
-                iniDoc.setSection(section, lastComment);
-                lastComment = null;
-                currentSection = section.strip();
-            } else if (key != null)
-            {
-                iniDoc.setString(currentSection, key.strip(), value.strip(), lastComment);
-                lastComment = null;
-            } else if (comment != null)
-            {
-                if (lastComment != null)
-                {
-                    iniDoc.setComment(currentSection,
-                                      lastComment.substring(0, 1) + (lineNumber - 1),
-                                      lastComment);
-                }
+            @Override
+            public void property(String section, String key, String value, String comment) {
+                events.add(new IniEvent(IniEvent.Type.PROPERTY, section, key, value, comment, 0));
+            }
 
-                lastComment = comment;
-            } else if (!tail.isEmpty())
-            {
-                throw new IniFileFormatException(path.toString(),
-                                                 "Unknown entry (line# " + lineNumber + "): "
-                                                 + tail);
-            } else
+            @Override
+            public void section(String section, String comment) {
+                events.add(new IniEvent(IniEvent.Type.SECTION, section, null, null, comment, 0));
+            }
+        }, file.toString(), schema);
+
+        if (memoryMapped)
+        {
+            new IniMappedReader(parser).read(file);
+        } else
+        {
+            try ( BufferedReader in = Files.newBufferedReader(file))
             {
-                if (lastComment != null)
+                String line;
+
+                while ((line = in.readLine()) != null)
                 {
-                    iniDoc.setComment(currentSection,
-                                      lastComment.substring(0, 1) + (lineNumber - 1),
-                                      lastComment);
-                    lastComment = null;
+                    parser.parseLine(line, 0, line.length());
                 }
             }
         }
 
-        return true;
+        return events;
     }
 
-    private void storeINI(BufferedWriter bw) throws IOException {
+    /**
+     * Parses the contents of the <i>ini</i> file, as per
+     * {@link #memoryMapped}, {@link #schema} and {@link #sliceValues}.
+     *
+     * @param file The ini file to be parsed.
+     *
+     * @throws IOException            If an I/O error occurs.
+     * @throws IniFileFormatException If the format of the supplied ini file does
+     *                                not conform to the general standard.
+     */
+    private boolean parseINI(Path file)
+            throws IOException, IniFileFormatException {
 
-        for (MutableIniProperty<ArrayList<MutableIniProperty<Object>>> section : iniDoc.entries)
+        if (sliceValues)
+        {
+            CharBuffer chars = UTF_8.newDecoder().decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+            new IniParser(iniDoc, path.toString(), true, parsingSchema())
+                    .parseLines(new IniSlice(chars.array(), chars.arrayOffset(), chars.arrayOffset() + chars.limit()));
+            return true;
+        } else if (memoryMapped)
         {
-            if (section.key() != null)
+            new IniMappedReader(new IniParser(iniDoc, path.toString(), false, parsingSchema())).read(file);
+            return true;
+        } else
+        {
+            try ( BufferedReader in = Files.newBufferedReader(file))
             {
-                if (section.comment() != null)
-                {
-                    bw.write("\n" + section.comment() + "\n[" + section.key() + "]\n");
-                } else
-                {
-                    bw.write("\n[" + section.key() + "]\n");
-                }
+                return parseINI(in);
             }
+        }
+    }
 
-            for (MutableIniProperty<Object> key : section.value())
-            {
-                // Do we have a comment?
-                if (key.key().startsWith("#") || key.key().startsWith(";"))
-                {
-                    bw.write(key.comment() + "\n");
-                } else if (key.comment() != null)
-                {
-                    bw.write(key.comment() + "\n" + join(key.key(), (String) key.value()) + "\n");
-                } else
-                {
-                    bw.write(join(key.key(), (String) key.value()) + "\n");
-                }
-            }
+    /**
+     * Parses the contents of the <i>ini</i> file.
+     *
+     * @param reader The ini file to be parsed.
+     *
+     * @throws IOException            If an I/O error occurs.
+     * @throws IniFileFormatException If the format of the supplied ini file does
+     *                                not conform to the general standard.
+     */
+    private boolean parseINI(BufferedReader reader)
+            throws IOException, IniFileFormatException {
+        IniParser parser = new IniParser(iniDoc, path.toString(), false, parsingSchema());
+        String line;
+
+        while ((line = reader.readLine()) != null)
+        {
+            parser.parseLine(line, 0, line.length());
         }
+
+        return true;
     }
 
 }
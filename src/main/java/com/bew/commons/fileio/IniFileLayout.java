@@ -0,0 +1,231 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Where each section of an {@link IniDocument} was last written in its file,
+ * used to save only the changed sections (see {@link IniFile#incrementalSave}).
+ * <p>
+ * Each section is written exactly as a full save would write it. So, once a
+ * section has been written, any section whose text is unchanged can be left
+ * as it is in the file. A changed section whose text is still the same length
+ * is overwritten in place. From the first section whose length, or place in
+ * the document, has changed, the rest of the file is written out again, and
+ * the file is truncated to its new length.
+ * </p><p>
+ * The layout is only trusted while the file's size and last modified time are
+ * the same as they were after the last save, and the sections are written in
+ * the same format. Otherwise the whole file is written out again.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniFileLayout {
+
+    /**
+     * The amount of text gathered before it is written to the file, when
+     * writing out the rest of the file.
+     */
+    private static final int FLUSH_SIZE = 1 << 16;
+
+    private final Buffer buffer = new Buffer();
+
+    /**
+     * The file's last modified time after the last save.
+     */
+    private FileTime modified;
+
+    /**
+     * The {@link IniWriter#paddedEquals()} format of the last save.
+     */
+    private boolean paddedEquals;
+
+    /**
+     * The sections, in file order, as last written.
+     */
+    private final List<Region> regions = new ArrayList<>();
+
+    /**
+     * The file's size after the last save, or {@code -1} if the layout is not
+     * known.
+     */
+    private long size = -1L;
+
+    /**
+     * Forget the layout, so that the next save writes the whole file.
+     */
+    void invalidate() {
+        regions.clear();
+        size = -1L;
+    }
+
+    /**
+     * Save the {@code sections} to the {@code file}, only writing out those
+     * parts of it that have changed since the last save.
+     * <p>
+     * Must be called while holding {@link IniDocument#lockAll()}, with all of
+     * the sections already loaded.
+     *
+     * @param file     The file to save to.
+     * @param sections All of the sections, in document order.
+     * @param writer   Writes out the text of each section.
+     *
+     * @throws IOException If an I/O error occurs. The layout is then
+     *                     forgotten.
+     */
+    void save(Path file, Collection<IniSection> sections, IniWriter writer) throws IOException {
+        if (size < 0L || writer.paddedEquals() != paddedEquals || !Files.exists(file)
+            || Files.size(file) != size || !Files.getLastModifiedTime(file).equals(modified))
+        {
+            invalidate();
+        }
+
+        List<IniSection> list = new ArrayList<>(sections);
+        long position = 0L;
+        int i = 0;
+
+        try ( FileChannel channel = FileChannel.open(file, CREATE, WRITE))
+        {
+            // Overwrite, in place, the changed sections that still fit.
+            for (; i < list.size() && i < regions.size(); i++)
+            {
+                Region region = regions.get(i);
+                IniSection section = list.get(i);
+
+                if (region.section != section)
+                {
+                    break;
+                }
+
+                if (section.dirty)
+                {
+                    buffer.reset();
+                    writer.write(section, buffer);
+
+                    if (buffer.size() != region.length)
+                    {
+                        break;
+                    }
+
+                    buffer.writeTo(channel, region.start);
+                    section.dirty = false;
+                }
+
+                position = region.start + region.length;
+            }
+
+            // Write out the rest of the file.
+            if (i < list.size() || i < regions.size())
+            {
+                regions.subList(i, regions.size()).clear();
+                buffer.reset();
+                long start = position;
+
+                for (; i < list.size(); i++)
+                {
+                    IniSection section = list.get(i);
+                    int from = buffer.size();
+
+                    writer.write(section, buffer);
+                    regions.add(new Region(section, position, buffer.size() - from));
+                    position += buffer.size() - from;
+                    section.dirty = false;
+
+                    if (buffer.size() >= FLUSH_SIZE)
+                    {
+                        buffer.writeTo(channel, start);
+                        buffer.reset();
+                        start = position;
+                    }
+                }
+
+                buffer.writeTo(channel, start);
+                channel.truncate(position);
+            }
+        } catch (IOException ex)
+        {
+            invalidate();
+            throw ex;
+        }
+
+        size = position;
+        paddedEquals = writer.paddedEquals();
+        modified = Files.getLastModifiedTime(file);
+    }
+
+    /**
+     * A {@code ByteArrayOutputStream} that can write its contents to a
+     * channel without copying them.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer() {
+            super(FLUSH_SIZE);
+        }
+
+        /**
+         * Write the whole contents to the {@code channel}, starting at the
+         * {@code position} in the file.
+         */
+        void writeTo(FileChannel channel, long position) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+
+            while (bytes.hasRemaining())
+            {
+                position += channel.write(bytes, position);
+            }
+        }
+    }
+
+    /**
+     * Where a section was last written in the file.
+     */
+    private static final class Region {
+
+        final int length;
+        final IniSection section;
+        final long start;
+
+        Region(IniSection section, long start, int length) {
+            this.section = section;
+            this.start = start;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * A <b>section/key</b> pair of an {@link IniDocument}, resolved once, for
+ * fast repeated access to its property.
+ * <p>
+ * Obtained from {@link IniDocument#handle(String, String)}. The handle holds on
+ * to the stored property itself, so its getters and setters skip the section
+ * and key lookups altogether. It remains valid across any changes to the
+ * property's value. Only after the key, or its section, has been removed, is
+ * the key looked up again, until it has been set again.
+ * </p><p>
+ * For example, to poll a setting inside a request loop:
+ * </p>
+ * <pre><code>
+ * IniHandle timeout = iniFile.iniDoc.handle("server", "timeout");
+ *
+ * while (running)
+ * {
+ *     socket.setSoTimeout(timeout.getInt(5000));
+ *     ...
+ * }
+ * </code></pre>
+ * <p>
+ * A handle to a {@link ConcurrentIniDocument} may be shared between threads.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniHandle {
+
+    /**
+     * The stored property, or {@code null} if it has not been found yet.
+     */
+    private volatile IniEntry entry;
+
+    private final IniDocument iniDoc;
+    private final String key;
+    private final String section;
+
+    /**
+     * Create a new handle.
+     *
+     * @param iniDoc  The document holding the property.
+     * @param section The section in which the key should reside.
+     * @param key     The key label.
+     */
+    IniHandle(IniDocument iniDoc, String section, String key) {
+        this.iniDoc = iniDoc;
+        this.section = section;
+        this.key = key;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of a <b>boolean</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public boolean getBoolean(boolean defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.booleanValue() : defaultvalue;
+    }
+
+    /**
+     * @return the comment, or {@code null} if there is none, or the key does
+     *         not exist.
+     */
+    public String getComment() {
+        IniEntry kv = entry();
+        return kv != null ? kv.comment() : null;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of a <b>double</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable double.
+     */
+    public double getDouble(double defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.doubleValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of a <b>float</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable float.
+     */
+    public float getFloat(float defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.floatValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of an <b>int</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable integer.
+     */
+    public int getInt(int defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.intValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of a <b>long</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable long.
+     */
+    public long getLong(long defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.longValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> in the form of a <b>String</b>.
+     *
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public String getString(String defaultvalue) {
+        IniEntry kv = iniDoc.expand(section, entry());
+        return kv != null && kv.hasValue() ? kv.string() : defaultvalue;
+    }
+
+    /**
+     * @return the key label.
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * @return the section name.
+     */
+    public String section() {
+        return section;
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>boolean</i>.
+     *
+     * @param value The value to store with the key.
+     *
+     * @see #set(String)
+     */
+    public void set(boolean value) {
+        set(Boolean.toString(value));
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>double</i>.
+     *
+     * @param value The value to store with the key.
+     *
+     * @see #set(String)
+     */
+    public void set(double value) {
+        set(Double.toString(value));
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>float</i>.
+     *
+     * @param value The value to store with the key.
+     *
+     * @see #set(String)
+     */
+    public void set(float value) {
+        set(Float.toString(value));
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>int</i>.
+     *
+     * @param value The value to store with the key.
+     *
+     * @see #set(String)
+     */
+    public void set(int value) {
+        set(Integer.toString(value));
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>long</i>.
+     *
+     * @param value The value to store with the key.
+     *
+     * @see #set(String)
+     */
+    public void set(long value) {
+        set(Long.toString(value));
+    }
+
+    /**
+     * Set the <i>value</i> of type: <i>String</i>.
+     * <p>
+     * Unlike {@link IniDocument#setString(String, String, String)}, any
+     * existing comment is left unchanged. If the key does not exist, it is
+     * added, with no comment.
+     *
+     * @param value The value text to store with the key.
+     */
+    public void set(String value) {
+        boolean done = false;
+
+        // Only repeated if the key is removed by another thread meanwhile.
+        while (!done)
+        {
+            IniEntry kv = entry();
+
+            if (kv == null)
+            {
+                iniDoc.setString(section, key, value);
+                done = true;
+            } else
+            {
+                done = iniDoc.setValue(section, kv, value);
+            }
+        }
+    }
+
+    /**
+     * Get the stored property, looking it up if it has not been found yet, or
+     * it has since been removed.
+     *
+     * @return the property, or {@code null} if the key does not exist.
+     */
+    private IniEntry entry() {
+        IniEntry kv = entry;
+
+        if (kv == null || kv.isDetached())
+        {
+            kv = iniDoc.getEntry(section, key);
+            entry = kv;
+        }
+
+        return kv;
+    }
+}
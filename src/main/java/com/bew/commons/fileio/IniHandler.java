@@ -0,0 +1,74 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * Receives the contents of an <u>ini</u> file, from an {@link IniReader}, as
+ * they are parsed.
+ * <p>
+ * Override only those methods of interest. By default, each does nothing.
+ * <p>
+ * A comment placed immediately before a section header or a key/value pair is
+ * passed in with it, as its {@code comment}. Any other comment is passed to
+ * {@link #comment(String, String, int) comment()} on its own. This is the same
+ * as when an {@link IniFile} is loaded into an {@link IniDocument}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public interface IniHandler {
+
+    /**
+     * A standalone comment.
+     *
+     * @param section    The current section, or {@code null} for the
+     *                   <b>global section</b>.
+     * @param comment    The comment, including its leading tag.
+     * @param lineNumber The line number of the comment.
+     */
+    default void comment(String section, String comment, int lineNumber) {
+    }
+
+    /**
+     * A key/value pair.
+     *
+     * @param section The current section, or {@code null} for the
+     *                <b>global section</b>.
+     * @param key     The key, stripped of leading and trailing white space.
+     * @param value   The value, stripped of leading and trailing white space.
+     * @param comment The comment immediately before it, or {@code null}.
+     */
+    default void property(String section, String key, String value, String comment) {
+    }
+
+    /**
+     * A section header.
+     *
+     * @param section The section name, exactly as it appears between the
+     *                brackets.
+     * @param comment The comment immediately before it, or {@code null}.
+     */
+    default void section(String section, String comment) {
+    }
+}
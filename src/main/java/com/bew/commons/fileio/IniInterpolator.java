@@ -0,0 +1,404 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expands the references to other properties in the values of an
+ * {@link IniDocument}, as per {@link IniFile#interpolate}.
+ * <p>
+ * Each value is expanded the first time it is read, and the result is kept
+ * with its property, so from then on reading it costs no more than reading a
+ * plain value. While expanding a value, each property it refers to is
+ * recorded as one that it depends on. When a property is changed, the kept
+ * results of only those values that depend on it, directly or through others,
+ * are discarded, and they are expanded again the next time they are read.
+ * </p><p>
+ * Discarding takes no locks, so it is safe to do while holding a section's
+ * lock in a {@link ConcurrentIniDocument}. Instead, each change is counted, and
+ * a value expanded while a change was being made is not kept.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniInterpolator implements IniDocument.KeyListener {
+
+    /**
+     * The properties whose kept values depend on each property.
+     */
+    private final Map<Ref, Set<Dependent>> dependents = new ConcurrentHashMap<>();
+
+    private final IniDocument iniDoc;
+
+    /**
+     * The number of changes made so far.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Create a new instance.
+     *
+     * @param iniDoc The document whose values are to be expanded.
+     */
+    IniInterpolator(IniDocument iniDoc) {
+        this.iniDoc = iniDoc;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Discards the kept values that depend on the property.
+     */
+    @Override
+    public void changed(String section, String key, IniEntry kv) {
+        version.incrementAndGet();
+
+        if (kv != null)
+        {
+            kv.resolved = null;
+        }
+
+        discard(new Ref(section, key));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The recorded dependencies are forgotten. The new properties may have
+     * kept values expanded in the document they were loaded into, such as by
+     * an {@link IniWatcher} checking them for circular references, with no
+     * dependencies recorded here. So those are discarded as well, and each
+     * is expanded again the next time it is read.
+     */
+    @Override
+    public void replaced() {
+        version.incrementAndGet();
+        dependents.clear();
+
+        for (IniSection section : iniDoc.entries.values())
+        {
+            for (IniEntry kv : section.value().values())
+            {
+                kv.resolved = null;
+            }
+        }
+    }
+
+    /**
+     * Expand the value of the property, and keep the result with it.
+     *
+     * @param section Name of the property's section.
+     * @param kv      The property, which has a value.
+     *
+     * @return the expanded value. A reference that would lead back to this
+     *         property is left as it is.
+     */
+    String resolve(String section, IniEntry kv) {
+        return resolve(section, kv, new Expansion(version.get()));
+    }
+
+    /**
+     * Expand every value in the document, in case any of them refers back to
+     * itself. Any section not yet read in by a {@link IniFile#lazyLoad} is
+     * read in.
+     *
+     * @param filepath Path to the <u>ini</u> file, for the exception.
+     *
+     * @throws IOException            If an I/O error occurs reading in a
+     *                                section.
+     * @throws IniFileFormatException If a value refers back to itself,
+     *                                directly or through others.
+     */
+    void resolveAll(String filepath) throws IOException, IniFileFormatException {
+        String cycle = null;
+
+        iniDoc.lockAll();
+
+        try
+        {
+            for (IniSection section : iniDoc.entries.values())
+            {
+                for (IniEntry kv : section.value().values())
+                {
+                    if (kv.resolved == null && kv.hasValue())
+                    {
+                        Expansion exp = new Expansion(version.get());
+                        resolve(section.key(), kv, exp);
+
+                        if (cycle == null)
+                        {
+                            cycle = exp.cycle;
+                        }
+                    }
+                }
+            }
+        } catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        } finally
+        {
+            iniDoc.unlockAll();
+        }
+
+        if (cycle != null)
+        {
+            throw new IniFileFormatException(filepath, "Circular reference: " + cycle);
+        }
+    }
+
+    /**
+     * Discard the kept values of the properties that depend on the one at
+     * {@code ref}, and then of those that depend on them. Each is recorded
+     * again when it is next expanded.
+     */
+    private void discard(Ref ref) {
+        Set<Dependent> refs = dependents.remove(ref);
+
+        if (refs != null)
+        {
+            for (Dependent dependent : refs)
+            {
+                dependent.kv.resolved = null;
+                discard(dependent.ref);
+            }
+        }
+    }
+
+    /**
+     * Expand the {@code value}, appending the values of the properties it
+     * refers to.
+     */
+    private String expand(Ref self, IniEntry kv, String value, Expansion exp) {
+        StringBuilder sb = new StringBuilder(value.length() + 32);
+        int length = value.length();
+        int i = 0;
+
+        while (i < length)
+        {
+            char ch = value.charAt(i);
+            int end;
+
+            if (ch != '$' || i + 1 == length)
+            {
+                sb.append(ch);
+                i++;
+            } else if (value.charAt(i + 1) == '$')
+            {
+                sb.append('$');
+                i += 2;
+            } else if (value.charAt(i + 1) == '{' && (end = value.indexOf('}', i + 2)) >= 0)
+            {
+                String text = reference(self, kv, value.substring(i + 2, end), exp);
+
+                if (text != null)
+                {
+                    sb.append(text);
+                } else
+                {
+                    sb.append(value, i, end + 1);
+                }
+
+                i = end + 1;
+            } else
+            {
+                sb.append(ch);
+                i++;
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Get the expanded value of the property that the {@code text} of a
+     * reference refers to: "section:key", ":key" for the global section, or
+     * "key" for the same section as the one referring to it.
+     *
+     * @return the value, or {@code null} if there is no such property, or it
+     *         would lead back to a property being expanded.
+     */
+    private String reference(Ref self, IniEntry kv, String text, Expansion exp) {
+        int colon = text.indexOf(':');
+        String section = colon < 0 ? self.section : colon == 0 ? null : text.substring(0, colon);
+        Ref ref = new Ref(section, text.substring(colon + 1));
+
+        // Recorded before the value is read, so that a change made meanwhile
+        // is sure to discard this one.
+        dependents.computeIfAbsent(ref, r -> ConcurrentHashMap.newKeySet()).add(new Dependent(self, kv));
+
+        if (exp.path.contains(ref))
+        {
+            if (exp.cycle == null)
+            {
+                StringBuilder sb = new StringBuilder();
+
+                for (Ref step : exp.path.subList(exp.path.indexOf(ref), exp.path.size()))
+                {
+                    sb.append(step).append(" -> ");
+                }
+
+                exp.cycle = sb.append(ref).toString();
+            }
+
+            return null;
+        }
+
+        IniEntry target = iniDoc.getEntry(ref.section, ref.key);
+
+        return target != null && target.hasValue() ? resolve(ref.section, target, exp) : null;
+    }
+
+    /**
+     * Expand the value of the property, and keep the result with it, unless
+     * it is part of a cycle, or a change was made meanwhile.
+     */
+    private String resolve(String section, IniEntry kv, Expansion exp) {
+        String rtn = kv.resolved;
+
+        if (rtn != null)
+        {
+            return rtn;
+        }
+
+        rtn = (String) kv.value();
+
+        if (rtn.indexOf('$') >= 0)
+        {
+            Ref self = new Ref(section, kv.key());
+            exp.path.add(self);
+            rtn = expand(self, kv, rtn, exp);
+            exp.path.remove(exp.path.size() - 1);
+        }
+
+        if (exp.cycle == null)
+        {
+            kv.resolved = rtn;
+
+            if (version.get() != exp.version)
+            {
+                kv.resolved = null;
+            }
+        }
+
+        return rtn;
+    }
+
+    /**
+     * A property whose kept value depends on another. Compared by identity,
+     * as a property that is removed, and then added again, is a new one.
+     */
+    private static final class Dependent {
+
+        final IniEntry kv;
+        final Ref ref;
+
+        Dependent(Ref ref, IniEntry kv) {
+            this.ref = ref;
+            this.kv = kv;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Dependent && ((Dependent) obj).kv == kv;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(kv);
+        }
+    }
+
+    /**
+     * The state of one expansion.
+     */
+    private static final class Expansion {
+
+        /**
+         * The first cycle found, or {@code null} if none has been.
+         */
+        String cycle;
+
+        /**
+         * The properties being expanded, each referred to by the one before.
+         */
+        final List<Ref> path = new ArrayList<>();
+
+        /**
+         * The number of changes made before the expansion started.
+         */
+        final long version;
+
+        Expansion(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * The section and key of a property, which need not exist.
+     */
+    private static final class Ref {
+
+        final String key;
+        final String section;
+
+        Ref(String section, String key) {
+            this.section = section;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+            {
+                return true;
+            } else if (!(obj instanceof Ref))
+            {
+                return false;
+            }
+
+            Ref other = (Ref) obj;
+            return key.equals(other.key) && Objects.equals(section, other.section);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() * 31 + Objects.hashCode(section);
+        }
+
+        @Override
+        public String toString() {
+            return section != null ? "[" + section + "]" + key : key;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.Objects;
+
+/**
+ * The section and key of one property, as found by
+ * {@link IniDocument#findKeys(String)} and the like.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniKey {
+
+    /**
+     * The key.
+     */
+    public final String key;
+
+    /**
+     * The section holding the key ({@code null} for the <b>global
+     * section</b>).
+     */
+    public final String section;
+
+    IniKey(String section, String key) {
+        this.section = section;
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+        {
+            return true;
+        } else if (!(obj instanceof IniKey))
+        {
+            return false;
+        }
+
+        IniKey other = (IniKey) obj;
+        return key.equals(other.key) && Objects.equals(section, other.section);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode() * 31 + Objects.hashCode(section);
+    }
+
+    @Override
+    public String toString() {
+        return "IniKey{" + "section=" + section + ", key=" + key + '}';
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Sorted index of the section names, and the key names, of an
+ * {@link IniDocument}, for the {@code find*()} queries.
+ * <p>
+ * Each query walks the index from the first name that could match, so it
+ * takes time in proportion to the number of names it passes over, rather than
+ * to the size of the document. For a prefix, or a range, those are just the
+ * matches. For a glob, they are the names that start with the part of the
+ * glob before its first wildcard, which is all of them if it starts with one.
+ * </p><p>
+ * The index is kept up to date, as a {@link IniDocument.KeyListener}, with
+ * each section and key that is added or removed. Being made of
+ * {@code ConcurrentSkipListSet}s, it may be read while it is being changed.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniKeyIndex implements IniDocument.KeyListener {
+
+    /**
+     * Orders by key, then by section, with the global section first.
+     */
+    private static final Comparator<IniKey> ORDER = Comparator.<IniKey, String>comparing(k -> k.key)
+            .thenComparing(k -> k.section, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final IniDocument iniDoc;
+
+    /**
+     * The keys of every section, in {@link #ORDER}.
+     */
+    private final ConcurrentSkipListSet<IniKey> keys = new ConcurrentSkipListSet<>(ORDER);
+
+    /**
+     * The names of every section, apart from the global section.
+     */
+    private final ConcurrentSkipListSet<String> sections = new ConcurrentSkipListSet<>();
+
+    /**
+     * Create a new, empty, index.
+     *
+     * @param iniDoc The document to index.
+     */
+    IniKeyIndex(IniDocument iniDoc) {
+        this.iniDoc = iniDoc;
+    }
+
+    /**
+     * Checks whether the {@code text} matches the {@code glob}, in which
+     * "*" matches any number of characters, and "?" any one character.
+     *
+     * @param glob The pattern.
+     * @param text The text to check.
+     *
+     * @return {@code true} if it matches.
+     */
+    static boolean matches(String glob, String text) {
+        int g = 0;
+        int t = 0;
+        int star = -1;
+        int mark = 0;
+
+        while (t < text.length())
+        {
+            // Checked first, so that a "*" in the text is not taken as a
+            // literal match for it.
+            if (g < glob.length() && glob.charAt(g) == '*')
+            {
+                // Try matching nothing first, then one more character each
+                // time the rest fails.
+                star = g++;
+                mark = t;
+            } else if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == text.charAt(t)))
+            {
+                g++;
+                t++;
+            } else if (star >= 0)
+            {
+                g = star + 1;
+                t = ++mark;
+            } else
+            {
+                return false;
+            }
+        }
+
+        while (g < glob.length() && glob.charAt(g) == '*')
+        {
+            g++;
+        }
+
+        return g == glob.length();
+    }
+
+    /**
+     * @return the part of the {@code glob} before its first wildcard.
+     */
+    private static String prefixOf(String glob) {
+        int i = 0;
+
+        while (i < glob.length() && glob.charAt(i) != '*' && glob.charAt(i) != '?')
+        {
+            i++;
+        }
+
+        return glob.substring(0, i);
+    }
+
+    /**
+     * Put in all of the sections and keys of the document. Must be called
+     * while the document is locked.
+     */
+    void addAll() {
+        for (IniSection section : iniDoc.entries.values())
+        {
+            if (section.key() != null)
+            {
+                sections.add(section.key());
+            }
+
+            for (String key : section.value().keySet())
+            {
+                keys.add(new IniKey(section.key(), key));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void changed(String section, String key, IniEntry kv) {
+        if (IniSection.isStandalone(key))
+        {
+            return;
+        } else if (kv != null)
+        {
+            keys.add(new IniKey(section, key));
+        } else
+        {
+            keys.remove(new IniKey(section, key));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replaced() {
+        keys.clear();
+        sections.clear();
+        addAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionAdded(String section) {
+        if (section != null)
+        {
+            sections.add(section);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sectionRemoved(String section) {
+        sections.remove(section);
+    }
+
+    /**
+     * @return the keys matching the {@code glob}, as per
+     *         {@link #matches(String, String)}.
+     */
+    List<IniKey> keys(String glob) {
+        String prefix = prefixOf(glob);
+        boolean exact = prefix.length() == glob.length();
+        return find(keys.tailSet(new IniKey(null, prefix)), k -> k.key, prefix, null,
+                    k -> exact ? k.key.length() == prefix.length() : matches(glob, k.key));
+    }
+
+    /**
+     * @return the keys from {@code from}, inclusive, to {@code to},
+     *         exclusive. Either may be {@code null}, for no limit.
+     */
+    List<IniKey> keys(String from, String to) {
+        NavigableSet<IniKey> set = from != null ? keys.tailSet(new IniKey(null, from)) : keys;
+        return find(set, k -> k.key, "", to, k -> true);
+    }
+
+    /**
+     * @return the keys starting with the {@code prefix}.
+     */
+    List<IniKey> keysWithPrefix(String prefix) {
+        return find(keys.tailSet(new IniKey(null, prefix)), k -> k.key, prefix, null, k -> true);
+    }
+
+    /**
+     * @return the names of the sections matching the {@code glob}, as per
+     *         {@link #matches(String, String)}.
+     */
+    List<String> sections(String glob) {
+        String prefix = prefixOf(glob);
+        return find(sections.tailSet(prefix), s -> s, prefix, null, s -> matches(glob, s));
+    }
+
+    /**
+     * @return the names of the sections from {@code from}, inclusive, to
+     *         {@code to}, exclusive. Either may be {@code null}, for no limit.
+     */
+    List<String> sections(String from, String to) {
+        NavigableSet<String> set = from != null ? sections.tailSet(from) : sections;
+        return find(set, s -> s, "", to, s -> true);
+    }
+
+    /**
+     * @return the names of the sections starting with the {@code prefix}.
+     */
+    List<String> sectionsWithPrefix(String prefix) {
+        return find(sections.tailSet(prefix), s -> s, prefix, null, s -> true);
+    }
+
+    /**
+     * Walk the {@code set}, for as long as its names start with the
+     * {@code prefix}, and are before {@code to}, collecting those that pass
+     * the {@code test}.
+     */
+    private static <T> List<T> find(NavigableSet<T> set, Function<T, String> name, String prefix, String to,
+                                    Predicate<T> test) {
+        List<T> rtn = new ArrayList<>();
+
+        for (T item : set)
+        {
+            String text = name.apply(item);
+
+            if (!text.startsWith(prefix) || (to != null && text.compareTo(to) >= 0))
+            {
+                break;
+            }
+
+            if (test.test(item))
+            {
+                rtn.add(item);
+            }
+        }
+
+        return rtn;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * A hand-written, single pass, scanner that classifies one line of an
+ * <u>ini</u> file.
+ * <p>
+ * It accepts and rejects exactly the same lines as
+ * {@link IniDocument#INI_PATTERN}, and finds the same groups. However, rather
+ * than creating a {@code String} for each group, it only records where the
+ * interesting parts of the line start and end. The caller then creates just
+ * the strings it actually needs.
+ * <p>
+ * After a call to {@link #scan(CharSequence, int, int) scan()}, the fields
+ * {@link #start} and {@link #end} hold the bounds of:
+ * </p>
+ * <ul>
+ * <li>{@link #SECTION}: the section name, between the brackets.</li>
+ * <li>{@link #COMMENT}: the comment, including its leading tag.</li>
+ * <li>{@link #PROPERTY}: the key, up to but not including the "=".</li>
+ * <li>{@link #UNKNOWN}: the unrecognised text.</li>
+ * </ul>
+ * <p>
+ * For a {@code PROPERTY}, {@link #valueStart} and {@link #valueEnd} hold the
+ * bounds of the value.
+ * <p>
+ * Instances are not thread-safe, but may be reused for any number of lines.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniLineScanner {
+
+    /**
+     * The line is empty.
+     */
+    static final int BLANK = 0;
+
+    /**
+     * The line is a comment.
+     */
+    static final int COMMENT = 1;
+
+    /**
+     * The line is a key/value pair.
+     */
+    static final int PROPERTY = 2;
+
+    /**
+     * The line is a section header.
+     */
+    static final int SECTION = 3;
+
+    /**
+     * The line is not valid.
+     */
+    static final int UNKNOWN = 4;
+
+    /**
+     * Tests whether or not {@code ch} is one of the characters that the regex
+     * "{@code .}" will not match.
+     *
+     * @param ch character to test.
+     *
+     * @return {@code true} if it is a line terminator.
+     */
+    static boolean isLineTerminator(char ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+
+    /**
+     * Returns the {@code [start, end)} range of {@code seq}, with any leading
+     * and trailing white space removed, as per {@link String#strip()}.
+     *
+     * @param seq   text.
+     * @param start start of the range.
+     * @param end   end of the range.
+     *
+     * @return the stripped text.
+     */
+    static String strip(CharSequence seq, int start, int end) {
+        start = stripStart(seq, start, end);
+        return seq.subSequence(start, stripEnd(seq, start, end)).toString();
+    }
+
+    /**
+     * Find the end of the {@code [start, end)} range, after removing any
+     * trailing white space, as per {@link String#strip()}.
+     *
+     * @param seq   text.
+     * @param start start of the range.
+     * @param end   end of the range.
+     *
+     * @return new end.
+     */
+    static int stripEnd(CharSequence seq, int start, int end) {
+        while (end > start && Character.isWhitespace(seq.charAt(end - 1)))
+        {
+            end--;
+        }
+
+        return end;
+    }
+
+    /**
+     * Find the start of the {@code [start, end)} range, after removing any
+     * leading white space, as per {@link String#strip()}.
+     *
+     * @param seq   text.
+     * @param start start of the range.
+     * @param end   end of the range.
+     *
+     * @return new start.
+     */
+    static int stripStart(CharSequence seq, int start, int end) {
+        while (start < end && Character.isWhitespace(seq.charAt(start)))
+        {
+            start++;
+        }
+
+        return start;
+    }
+
+    /**
+     * Index of the end of the section name, key, comment or unknown text.
+     */
+    int end;
+
+    /**
+     * Index of the start of the section name, key, comment or unknown text.
+     */
+    int start;
+
+    /**
+     * The type of the last line scanned.
+     */
+    int type;
+
+    /**
+     * Index of the end of the value.
+     */
+    int valueEnd;
+
+    /**
+     * Index of the start of the value.
+     */
+    int valueStart;
+
+    /**
+     * Scan the line held in {@code seq} between {@code from} (inclusive) and
+     * {@code to} (exclusive).
+     *
+     * @param seq  holds the line.
+     * @param from index of the first character of the line.
+     * @param to   index after the last character of the line.
+     *
+     * @return the type of line: one of {@link #BLANK}, {@link #COMMENT},
+     *         {@link #PROPERTY}, {@link #SECTION} or {@link #UNKNOWN}.
+     */
+    int scan(CharSequence seq, int from, int to) {
+        valueStart = valueEnd = -1;
+
+        if (from < to)
+        {
+            char first = seq.charAt(from);
+
+            // "^(?:\[(?<Section>[^\]]*)\])"
+            if (first == '[')
+            {
+                for (int i = from + 1; i < to; i++)
+                {
+                    if (seq.charAt(i) == ']')
+                    {
+                        start = from + 1;
+                        end = i;
+                        return type = SECTION;
+                    }
+                }
+            }
+
+            // "(?<Comment>^[#;][ \t]+.*)"
+            if ((first == '#' || first == ';') && from + 1 < to)
+            {
+                char second = seq.charAt(from + 1);
+
+                if (second == ' ' || second == '\t')
+                {
+                    start = from;
+                    end = restOfLine(seq, from + 2, to);
+                    return type = COMMENT;
+                }
+            }
+
+            // "(?:(?<Key>^[^#;=]+)=)(?:(?<==)(?<Value>.*))"
+            for (int i = from; i < to; i++)
+            {
+                char ch = seq.charAt(i);
+
+                if (ch == '=')
+                {
+                    if (i > from)
+                    {
+                        start = from;
+                        end = i;
+                        valueStart = i + 1;
+                        valueEnd = restOfLine(seq, i + 1, to);
+                        return type = PROPERTY;
+                    }
+
+                    break;
+                } else if (ch == '#' || ch == ';')
+                {
+                    break;
+                }
+            }
+        }
+
+        // "(?<Tail>.*)"
+        start = from;
+        end = restOfLine(seq, from, to);
+        return type = (end > start) ? UNKNOWN : BLANK;
+    }
+
+    /**
+     * Equivalent to the regex: "{@code .*}".
+     */
+    private static int restOfLine(CharSequence seq, int from, int to) {
+        int i = from;
+
+        while (i < to && !isLineTerminator(seq.charAt(i)))
+        {
+            i++;
+        }
+
+        return i;
+    }
+}
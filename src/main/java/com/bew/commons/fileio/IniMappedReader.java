@@ -0,0 +1,253 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads an <u>ini</u> file through a memory-mapped {@link FileChannel},
+ * passing each line to an {@link IniParser}.
+ * <p>
+ * The file is mapped one window at a time. The mapped bytes are bulk copied,
+ * in blocks, into a small heap buffer, as the UTF-8 decoder is much quicker
+ * with heap buffers than with direct ones. They are then decoded as UTF-8
+ * (which includes ASCII) into a single, reused, {@link CharBuffer}. Each line
+ * is then parsed in place, so no {@code String} is created for a line as a
+ * whole. Only the file window and the two buffers are held at any one time,
+ * however large the file.
+ * <p>
+ * Lines are split exactly as {@link java.io.BufferedReader#readLine()} splits
+ * them: at a line feed ('\n'), a carriage return ('\r'), or a carriage
+ * return followed immediately by a line feed.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniMappedReader {
+
+    /**
+     * Size of the byte buffer.
+     */
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Initial size of the character buffer. It grows as needed to hold the
+     * longest line.
+     */
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Size of each mapped window of the file.
+     */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+    private CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    private final CharsetDecoder decoder = UTF_8.newDecoder();
+    private final Line line = new Line();
+    private final IniParser parser;
+
+    /**
+     * Create a new reader.
+     *
+     * @param parser To receive each line.
+     */
+    IniMappedReader(IniParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Read the whole of the file, passing each line to the parser.
+     *
+     * @param path The file to read.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws IOException            If an I/O error occurs, including a
+     *                                malformed UTF-8 sequence.
+     * @throws IniFileFormatException If the format of the file does not
+     *                                conform to the general standard.
+     */
+    long read(Path path) throws IOException, IniFileFormatException {
+        try ( FileChannel channel = FileChannel.open(path, READ))
+        {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size)
+            {
+                long length = Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(READ_ONLY, position, length);
+                position += length;
+
+                while (window.hasRemaining())
+                {
+                    int count = Math.min(bytes.remaining(), window.remaining());
+                    bytes.put(window.slice(window.position(), count));
+                    window.position(window.position() + count);
+                    decode(false);
+                }
+            }
+
+            decode(true);
+            decoder.flush(chars);
+            parseLines(true);
+            return size;
+        }
+    }
+
+    /**
+     * Decode the contents of the byte buffer, parsing the lines as they are
+     * completed. Any bytes left over, being the start of a character that is
+     * not yet complete, are kept for next time.
+     *
+     * @param endOfInput {@code true} if there are no more bytes to come.
+     */
+    private void decode(boolean endOfInput) throws IOException, IniFileFormatException {
+        CoderResult result;
+        bytes.flip();
+
+        do
+        {
+            result = decoder.decode(bytes, chars, endOfInput);
+
+            if (result.isError())
+            {
+                result.throwException();
+            }
+
+            parseLines(false);
+        } while (result.isOverflow());
+
+        bytes.compact();
+    }
+
+    /**
+     * Parse all of the complete lines in the character buffer, leaving any
+     * incomplete last line at the start of the buffer, ready for more
+     * characters to be decoded after it.
+     *
+     * @param endOfInput {@code true} if there are no more characters to come.
+     */
+    private void parseLines(boolean endOfInput) throws IniFileFormatException {
+        chars.flip();
+        int limit = chars.limit();
+        int from = 0;
+        int i = 0;
+        line.array = chars.array();
+
+        while (i < limit)
+        {
+            char ch = line.array[i];
+
+            if (ch == '\n')
+            {
+                parser.parseLine(line, from, i);
+                from = ++i;
+            } else if (ch == '\r')
+            {
+                if (i + 1 < limit)
+                {
+                    parser.parseLine(line, from, i);
+                    i += line.array[i + 1] == '\n' ? 2 : 1;
+                    from = i;
+                } else if (endOfInput)
+                {
+                    parser.parseLine(line, from, i);
+                    from = ++i;
+                } else
+                {
+                    // Wait to see if a '\n' follows.
+                    break;
+                }
+            } else
+            {
+                i++;
+            }
+        }
+
+        if (endOfInput)
+        {
+            if (from < limit)
+            {
+                parser.parseLine(line, from, limit);
+            }
+
+            chars.clear();
+        } else if (from == 0 && limit == chars.capacity())
+        {
+            // A single line fills the buffer.
+            CharBuffer larger = CharBuffer.allocate(chars.capacity() * 2);
+            larger.put(chars);
+            chars = larger;
+        } else
+        {
+            chars.position(from);
+            chars.compact();
+        }
+    }
+
+    /**
+     * A light-weight view of the character buffer's array, which is quicker to
+     * scan than the {@code CharBuffer} itself.
+     */
+    private static final class Line implements CharSequence {
+
+        private char[] array;
+
+        @Override
+        public char charAt(int index) {
+            return array[index];
+        }
+
+        @Override
+        public int length() {
+            return array.length;
+        }
+
+        /**
+         * Returns a new {@code String}, rather than a view.
+         */
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(array, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(array);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the properties of a stack of {@link IniDocument}s as one, each layer
+ * overriding those below it.
+ * <p>
+ * For example, to combine a defaults file, a site file and a host file:
+ * </p>
+ * <pre><code>
+ * IniOverlay config = new IniOverlay(defaults.iniDoc, site.iniDoc, host.iniDoc);
+ * int port = config.getInt("server", "port", 80);
+ * IniDocument from = config.sourceOf("server", "port");
+ * </code></pre>
+ * <p>
+ * Rather than asking each layer in turn, the overlay keeps a single map from
+ * each section and key to the property in every layer that has it. So a
+ * lookup is one hash probe, however many layers there are. The map is kept
+ * up to date as the layers are changed: setting, adding or removing a
+ * property in any layer only updates the map for that one key. Replacing the
+ * whole contents of a layer, as by {@link IniWatcher}, updates the map for
+ * each of its keys.
+ * </p><p>
+ * The values are read exactly as through the layer's own getters, including
+ * any interpolation (see {@link IniFile#interpolate}), which is done within
+ * that layer. Any sections not yet read in by a {@link IniFile#lazyLoad} are
+ * read in when the overlay is created. A layer must not be loaded lazily
+ * after that, as such keys are not seen.
+ * </p><p>
+ * An overlay is thread-safe, provided its layers are
+ * {@link ConcurrentIniDocument}s, and may be read while they are changed. The
+ * map is a concurrent one, and the value and comment of each property are
+ * held in {@code volatile} fields, so neither needs a lock to be read.
+ * Call {@link #close()} to stop following the changes to the layers.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniOverlay implements AutoCloseable {
+
+    /**
+     * The properties of every layer, by section and key.
+     */
+    private final Map<Ref, Stack> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The layers, lowest priority first.
+     */
+    private final IniDocument[] layers;
+
+    /**
+     * Keeps {@link #entries} up to date with each layer.
+     */
+    private final Layer[] listeners;
+
+    /**
+     * Create a new overlay of the {@code layers}.
+     *
+     * @param layers The documents to combine, lowest priority first. The
+     *               value of a property is taken from the last of them that
+     *               has it.
+     *
+     * @throws NullPointerException If any of the {@code layers} is
+     *                              {@code null}.
+     */
+    public IniOverlay(IniDocument... layers) {
+        this.layers = layers.clone();
+        listeners = new Layer[layers.length];
+
+        for (int i = 0; i < layers.length; i++)
+        {
+            Objects.requireNonNull(this.layers[i], "layer is null");
+        }
+
+        for (int i = 0; i < layers.length; i++)
+        {
+            IniDocument iniDoc = this.layers[i];
+            listeners[i] = new Layer(i);
+
+            // Holds off any changes until the layer has been added, so that
+            // none are missed.
+            iniDoc.lockAll();
+
+            try
+            {
+                iniDoc.addKeyListener(listeners[i]);
+                listeners[i].addAll();
+            } finally
+            {
+                iniDoc.unlockAll();
+            }
+        }
+    }
+
+    /**
+     * Stop following the changes to the layers. The overlay must no longer be
+     * used.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < layers.length; i++)
+        {
+            layers[i].removeKeyListener(listeners[i]);
+        }
+    }
+
+    /**
+     * Tests to see whether or not this <b>key</b> exists within this
+     * <b>section</b> in any of the layers.
+     *
+     * @param section possible section
+     * @param key     possible key
+     *
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(String section, String key) {
+        return entries.containsKey(new Ref(section, key));
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>boolean</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public boolean getBoolean(String section, String key, boolean defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.booleanValue() : defaultvalue;
+    }
+
+    /**
+     * Returns the associated {@code comment} for this {@code key}, from the
+     * highest layer that has the key.
+     *
+     * @param section The section in which the key should reside.
+     * @param key     The key whose comment we are after.
+     *
+     * @return The comment or {@code null}.
+     */
+    public String getComment(String section, String key) {
+        Stack stack = entries.get(new Ref(section, key));
+        return stack != null ? stack.kv.comment() : null;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>double</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable double.
+     */
+    public double getDouble(String section, String key, double defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.doubleValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>float</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable float.
+     */
+    public float getFloat(String section, String key, float defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.floatValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of an
+     * <b>int</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable integer.
+     */
+    public int getInt(String section, String key, int defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.intValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>long</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     *
+     * @throws NumberFormatException if the value is not a parsable long.
+     */
+    public long getLong(String section, String key, long defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.longValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>String</b>, from the highest layer that has it.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public String getString(String section, String key, String defaultvalue) {
+        IniEntry kv = entry(section, key);
+        return kv != null && kv.hasValue() ? kv.string() : defaultvalue;
+    }
+
+    /**
+     * Find the layer that the value of this {@code key} is taken from.
+     *
+     * @param section The section in which the key should reside.
+     * @param key     The key whose layer we are after.
+     *
+     * @return the number of the layer, counting from zero for the lowest, or
+     *         {@code -1} if no layer has the key.
+     */
+    public int layerOf(String section, String key) {
+        Stack stack = entries.get(new Ref(section, key));
+        return stack != null ? stack.layer : -1;
+    }
+
+    /**
+     * @return the layers, lowest priority first.
+     */
+    public List<IniDocument> layers() {
+        return List.of(layers);
+    }
+
+    /**
+     * Find the layer that the value of this {@code key} is taken from.
+     *
+     * @param section The section in which the key should reside.
+     * @param key     The key whose layer we are after.
+     *
+     * @return the layer, or {@code null} if no layer has the key.
+     */
+    public IniDocument sourceOf(String section, String key) {
+        Stack stack = entries.get(new Ref(section, key));
+        return stack != null ? layers[stack.layer] : null;
+    }
+
+    /**
+     * Get the property from the highest layer that has it, with its value
+     * expanded by that layer.
+     */
+    private IniEntry entry(String section, String key) {
+        Stack stack = entries.get(new Ref(section, key));
+        return stack != null ? layers[stack.layer].expand(section, stack.kv) : null;
+    }
+
+    /**
+     * Set the property of one layer, which may be {@code null} if it has none.
+     */
+    private void put(Ref ref, int layer, IniEntry kv) {
+        entries.compute(ref, (r, stack) ->
+                    {
+                        if (stack == null)
+                        {
+                            return kv != null ? new Stack(layers.length, layer, kv) : null;
+                        } else
+                        {
+                            return stack.with(layer, kv);
+                        }
+                    });
+    }
+
+    /**
+     * Keeps {@link #entries} up to date with one layer.
+     */
+    private final class Layer implements IniDocument.KeyListener {
+
+        private final int layer;
+
+        Layer(int layer) {
+            this.layer = layer;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void changed(String section, String key, IniEntry kv) {
+            put(new Ref(section, key), layer, kv);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The properties of the old contents are taken out, and those of the
+         * new contents put in. No other change can be made to the layer
+         * meanwhile, so the new contents can be read without locking.
+         */
+        @Override
+        public void replaced() {
+            for (Map.Entry<Ref, Stack> entry : entries.entrySet())
+            {
+                if (entry.getValue().entries[layer] != null)
+                {
+                    put(entry.getKey(), layer, null);
+                }
+            }
+
+            addAll();
+        }
+
+        /**
+         * Put in all of the properties of the layer. Must be called while
+         * the layer is locked.
+         */
+        void addAll() {
+            for (IniSection section : layers[layer].entries.values())
+            {
+                for (IniEntry kv : section.value().values())
+                {
+                    put(new Ref(section.key(), kv.key()), layer, kv);
+                }
+            }
+        }
+    }
+
+    /**
+     * The section and key of a property.
+     */
+    private static final class Ref {
+
+        final int hash;
+        final String key;
+        final String section;
+
+        Ref(String section, String key) {
+            this.section = section;
+            this.key = key;
+            hash = key.hashCode() * 31 + Objects.hashCode(section);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+            {
+                return true;
+            } else if (!(obj instanceof Ref))
+            {
+                return false;
+            }
+
+            Ref other = (Ref) obj;
+            return hash == other.hash && key.equals(other.key) && Objects.equals(section, other.section);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The property of each layer that has one, for the same section and key,
+     * and which of them is used. Replaced as a whole, rather than changed.
+     */
+    private static final class Stack {
+
+        /**
+         * The property of each layer, or {@code null} where a layer has none.
+         */
+        final IniEntry[] entries;
+
+        /**
+         * The property used: that of the highest layer with one.
+         */
+        final IniEntry kv;
+
+        /**
+         * The number of the highest layer with a property.
+         */
+        final int layer;
+
+        Stack(int size, int layer, IniEntry kv) {
+            entries = new IniEntry[size];
+            entries[layer] = kv;
+            this.layer = layer;
+            this.kv = kv;
+        }
+
+        private Stack(IniEntry[] entries, int layer) {
+            this.entries = entries;
+            this.layer = layer;
+            kv = entries[layer];
+        }
+
+        /**
+         * @return a copy with the property of one layer changed, or
+         *         {@code null} if no layer would have one.
+         */
+        Stack with(int layer, IniEntry kv) {
+            if (entries[layer] == kv)
+            {
+                return this;
+            }
+
+            IniEntry[] copy = Arrays.copyOf(entries, entries.length);
+            copy[layer] = kv;
+            int top = copy.length - 1;
+
+            while (top >= 0 && copy[top] == null)
+            {
+                top--;
+            }
+
+            return top >= 0 ? new Stack(copy, top) : null;
+        }
+    }
+}
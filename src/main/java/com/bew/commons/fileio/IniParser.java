@@ -0,0 +1,323 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * Parses the lines of an <u>ini</u> file, one at a time, passing what it finds
+ * to an {@link IniHandler}.
+ * <p>
+ * This holds the state that carries over from one line to the next: the
+ * current section, any comment waiting for its key, and the line number. It
+ * is fed by {@link IniFile}, from either a {@code BufferedReader} or an
+ * {@link IniMappedReader}, and by {@link IniReader}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniParser {
+
+    private String currentSection;
+    private final String filepath;
+    private final IniHandler handler;
+
+    /**
+     * The document receiving the properties, or {@code null} if they go to
+     * some other {@link IniHandler}.
+     */
+    private final IniDocument iniDoc;
+    private String lastComment;
+    private int lineNumber;
+    private final IniLineScanner scanner = new IniLineScanner();
+
+    /**
+     * Checks each section and property, or {@code null} if there is no
+     * schema.
+     */
+    private final IniSchema schema;
+
+    /**
+     * The document to receive the properties, with their values as slices of
+     * the lines, rather than {@code String}s. Otherwise {@code null}.
+     */
+    private final IniDocument sliceDoc;
+
+    /**
+     * Create a new parser, that loads the properties into an
+     * {@link IniDocument}.
+     *
+     * @param iniDoc   To receive the properties.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     */
+    IniParser(IniDocument iniDoc, String filepath) {
+        this(iniDoc, filepath, false);
+    }
+
+    /**
+     * Create a new parser, that loads the properties into an
+     * {@link IniDocument}.
+     *
+     * @param iniDoc   To receive the properties.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     * @param slices   If {@code true}, each value is stored as the
+     *                 {@code subSequence()} of the line holding it, rather
+     *                 than a {@code String}. Only of use when the lines are
+     *                 held in an {@link IniSlice}.
+     */
+    IniParser(IniDocument iniDoc, String filepath, boolean slices) {
+        this(iniDoc, filepath, slices, null);
+    }
+
+    /**
+     * Create a new parser, that checks each section and property against the
+     * {@code schema}, and loads them into an {@link IniDocument}, along with
+     * the conversion of each typed value.
+     *
+     * @param iniDoc   To receive the properties.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     * @param slices   As per
+     *                 {@link #IniParser(IniDocument, String, boolean)}.
+     * @param schema   The schema, or {@code null} for none.
+     */
+    IniParser(IniDocument iniDoc, String filepath, boolean slices, IniSchema schema) {
+        this.handler = new DocumentHandler(iniDoc);
+        this.filepath = filepath;
+        this.iniDoc = iniDoc;
+        this.sliceDoc = slices ? iniDoc : null;
+        this.schema = schema;
+    }
+
+    /**
+     * Create a new parser.
+     *
+     * @param handler  To receive the contents of the file.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     */
+    IniParser(IniHandler handler, String filepath) {
+        this(handler, filepath, null);
+    }
+
+    /**
+     * Create a new parser, that checks each section and property against the
+     * {@code schema}.
+     *
+     * @param handler  To receive the contents of the file.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     * @param schema   The schema, or {@code null} for none.
+     */
+    IniParser(IniHandler handler, String filepath, IniSchema schema) {
+        this.handler = handler;
+        this.filepath = filepath;
+        this.iniDoc = null;
+        this.sliceDoc = null;
+        this.schema = schema;
+    }
+
+    /**
+     * Start part way through a file, as if the lines before it had already
+     * been parsed.
+     *
+     * @param section    The current section at that point.
+     * @param lineNumber The number of the line before the next one to be
+     *                   parsed.
+     */
+    void resume(String section, int lineNumber) {
+        currentSection = section;
+        this.lineNumber = lineNumber;
+        lastComment = null;
+    }
+
+    /**
+     * @return The number of the last line parsed.
+     */
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Parse the next line, held in {@code seq} between {@code from}
+     * (inclusive) and {@code to} (exclusive). The line terminator must not be
+     * included.
+     * <p>
+     * At most one call is made to the handler, for each line.
+     *
+     * @param seq  holds the line.
+     * @param from index of the first character of the line.
+     * @param to   index after the last character of the line.
+     *
+     * @throws IniFileFormatException If the line is not a section, key/value
+     *                                pair, comment or blank.
+     */
+    void parseLine(CharSequence seq, int from, int to) throws IniFileFormatException {
+        lineNumber++;
+
+        switch (scanner.scan(seq, from, to))
+        {
+            case IniLineScanner.SECTION:
+            {
+                String section = seq.subSequence(scanner.start, scanner.end).toString();
+
+                if (schema != null)
+                {
+                    schema.checkSection(filepath, lineNumber, section.strip());
+                }
+
+                handler.section(section, lastComment);
+                lastComment = null;
+                currentSection = section.strip();
+                break;
+            }
+
+            case IniLineScanner.PROPERTY:
+            {
+                String key = IniLineScanner.strip(seq, scanner.start, scanner.end);
+                CharSequence value;
+
+                if (sliceDoc != null)
+                {
+                    int start = IniLineScanner.stripStart(seq, scanner.valueStart, scanner.valueEnd);
+                    int end = IniLineScanner.stripEnd(seq, start, scanner.valueEnd);
+                    value = start < end ? seq.subSequence(start, end) : "";
+                } else
+                {
+                    value = IniLineScanner.strip(seq, scanner.valueStart, scanner.valueEnd);
+                }
+
+                IniSchema.Rule rule = null;
+                long bits = 0L;
+
+                if (schema != null)
+                {
+                    rule = schema.rule(filepath, lineNumber, currentSection, key);
+                    bits = rule.check(filepath, lineNumber, currentSection, key, value);
+                }
+
+                if (sliceDoc != null || (rule != null && rule.type != 0 && iniDoc != null))
+                {
+                    // The comment was parsed as one, so needs no checking.
+                    IniEntry kv = iniDoc.putValue(currentSection, key, value, lastComment);
+
+                    if (rule != null && rule.type != 0)
+                    {
+                        kv.typed(rule.type, bits);
+                    }
+                } else
+                {
+                    handler.property(currentSection, key, (String) value, lastComment);
+                }
+
+                lastComment = null;
+                break;
+            }
+
+            case IniLineScanner.COMMENT:
+                if (lastComment != null)
+                {
+                    handler.comment(currentSection, lastComment, lineNumber - 1);
+                }
+
+                lastComment = seq.subSequence(scanner.start, scanner.end).toString();
+                break;
+
+            case IniLineScanner.UNKNOWN:
+                throw new IniFileFormatException(filepath,
+                                                 "Unknown entry (line# " + lineNumber + "): "
+                                                 + seq.subSequence(scanner.start, scanner.end));
+
+            default:
+                if (lastComment != null)
+                {
+                    handler.comment(currentSection, lastComment, lineNumber - 1);
+                    lastComment = null;
+                }
+        }
+    }
+
+    /**
+     * Parse all of the lines in {@code text}, split as per
+     * {@link java.io.BufferedReader#readLine()}.
+     *
+     * @param text holds the lines.
+     *
+     * @throws IniFileFormatException If a line is not a section, key/value
+     *                                pair, comment or blank.
+     */
+    void parseLines(CharSequence text) throws IniFileFormatException {
+        int limit = text.length();
+        int from = 0;
+        int i = 0;
+
+        while (i < limit)
+        {
+            char ch = text.charAt(i);
+
+            if (ch == '\n' || ch == '\r')
+            {
+                parseLine(text, from, i);
+                i += (ch == '\r' && i + 1 < limit && text.charAt(i + 1) == '\n') ? 2 : 1;
+                from = i;
+            } else
+            {
+                i++;
+            }
+        }
+
+        if (from < limit)
+        {
+            parseLine(text, from, limit);
+        }
+    }
+
+    /**
+     * Loads the contents of the file into an {@link IniDocument}.
+     * <p>
+     * Standalone comments are stored against a made up key: the comment tag
+     * followed by the line number. For example: "#12".
+     * <p>
+     * Also used by {@link IniFile#mergeFiles(java.util.List, java.util.concurrent.Executor)
+     * mergeFiles()}, to merge in the contents of files parsed beforehand.
+     */
+    static final class DocumentHandler implements IniHandler {
+
+        private final IniDocument iniDoc;
+
+        DocumentHandler(IniDocument iniDoc) {
+            this.iniDoc = iniDoc;
+        }
+
+        @Override
+        public void comment(String section, String comment, int lineNumber) {
+            iniDoc.setComment(section, comment.substring(0, 1) + lineNumber, comment);
+        }
+
+        @Override
+        public void property(String section, String key, String value, String comment) {
+            iniDoc.setString(section, key, value, comment);
+        }
+
+        @Override
+        public void section(String section, String comment) {
+            iniDoc.setSection(section, comment);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.InvalidProgramStateException;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.bew.commons.fileio.IniEvent.Type.COMMENT;
+import static com.bew.commons.fileio.IniEvent.Type.PROPERTY;
+import static com.bew.commons.fileio.IniEvent.Type.SECTION;
+
+/**
+ * Reads an <u>ini</u> file one item at a time, without building an
+ * {@link IniDocument}.
+ * <p>
+ * The file is parsed with exactly the same rules as {@link IniFile#loadFile()}.
+ * Only the current line is held in memory, however large the file.
+ * </p><p>
+ * The contents can be received in any one of three ways:
+ * </p>
+ * <ul>
+ * <li>pushed to an {@link IniHandler}, by {@link #parse(IniHandler)},</li>
+ * <li>pulled one {@link IniEvent} at a time, by {@link #next()}, or</li>
+ * <li>as a lazily read {@link Stream} of {@code IniEvent}s, by
+ * {@link #stream()}.</li>
+ * </ul>
+ * <p>
+ * For example, to collect the keys of one section:
+ * </p>
+ * <pre><code>
+ * try (IniReader reader = new IniReader(path))
+ * {
+ *     List&lt;String&gt; keys = reader.stream()
+ *             .filter(e -&gt; e.type == IniEvent.Type.PROPERTY &amp;&amp; "section".equals(e.section))
+ *             .map(e -&gt; e.key)
+ *             .collect(Collectors.toList());
+ * }
+ * </code></pre>
+ * <p>
+ * An {@code IniReader} is not thread-safe, and can be read through only once.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public class IniReader implements Closeable {
+
+    private IniHandler delegate;
+    private IniEvent event;
+    private final IniParser parser;
+    private final BufferedReader reader;
+
+    /**
+     * Open the file for reading, as UTF-8.
+     *
+     * @param path The <u>ini</u> file.
+     *
+     * @throws IOException If an I/O error occurs opening the file.
+     */
+    public IniReader(Path path) throws IOException {
+        this(Files.newBufferedReader(path), path.toString());
+    }
+
+    /**
+     * Read from the supplied {@code reader}.
+     *
+     * @param reader The source of the <u>ini</u> file contents. If it is not a
+     *               {@link BufferedReader}, it will be wrapped in one.
+     *
+     * @throws NullPointerException If {@code reader} is {@code null}.
+     */
+    public IniReader(Reader reader) {
+        this(Objects.requireNonNull(reader, "reader is null") instanceof BufferedReader
+             ? (BufferedReader) reader : new BufferedReader(reader),
+             null);
+    }
+
+    private IniReader(BufferedReader reader, String filepath) {
+        this.reader = reader;
+        this.parser = new IniParser(new EventHandler(), filepath);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Read the next item from the file.
+     *
+     * @return the next item, or {@code null} if the end of the file has been
+     *         reached.
+     *
+     * @throws IOException            If an I/O error occurs.
+     * @throws IniFileFormatException If the format of the file does not
+     *                                conform to the general standard.
+     */
+    public IniEvent next() throws IOException, IniFileFormatException {
+        String line;
+        event = null;
+
+        while (event == null && (line = reader.readLine()) != null)
+        {
+            parser.parseLine(line, 0, line.length());
+        }
+
+        return event;
+    }
+
+    /**
+     * Read the rest of the file, passing each item to the {@code handler}.
+     *
+     * @param handler To receive the contents of the file.
+     *
+     * @throws IOException            If an I/O error occurs.
+     * @throws IniFileFormatException If the format of the file does not
+     *                                conform to the general standard.
+     */
+    public void parse(IniHandler handler) throws IOException, IniFileFormatException {
+        String line;
+        delegate = Objects.requireNonNull(handler, "handler is null");
+
+        try
+        {
+            while ((line = reader.readLine()) != null)
+            {
+                parser.parseLine(line, 0, line.length());
+            }
+        } finally
+        {
+            delegate = null;
+        }
+    }
+
+    /**
+     * Returns a sequential, ordered stream of the rest of the file's items.
+     * The file is read lazily, as the stream is consumed.
+     * <p>
+     * As a {@code Stream} cannot throw checked exceptions, any
+     * {@link IOException} is wrapped in an {@link UncheckedIOException}, and
+     * any {@link IniFileFormatException} is wrapped in an
+     * {@link InvalidProgramStateException}.
+     * <p>
+     * Closing the stream closes this reader.
+     *
+     * @return the stream.
+     */
+    public Stream<IniEvent> stream() {
+        Iterator<IniEvent> iterator = new Iterator<>()
+        {
+            private IniEvent nextEvent;
+
+            @Override
+            public boolean hasNext() {
+                if (nextEvent == null)
+                {
+                    try
+                    {
+                        nextEvent = IniReader.this.next();
+                    } catch (IOException ex)
+                    {
+                        throw new UncheckedIOException(ex);
+                    } catch (IniFileFormatException ex)
+                    {
+                        throw new InvalidProgramStateException(ex);
+                    }
+                }
+
+                return nextEvent != null;
+            }
+
+            @Override
+            public IniEvent next() {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                IniEvent rtn = nextEvent;
+                nextEvent = null;
+                return rtn;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() ->
+                {
+                    try
+                    {
+                        close();
+                    } catch (IOException ex)
+                    {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    /**
+     * Passes each item on to the {@link #parse(IniHandler) parse()} handler,
+     * if there is one. Otherwise, holds on to the one event, if any, from each
+     * line.
+     */
+    private final class EventHandler implements IniHandler {
+
+        @Override
+        public void comment(String section, String comment, int lineNumber) {
+            if (delegate != null)
+            {
+                delegate.comment(section, comment, lineNumber);
+            } else
+            {
+                event = new IniEvent(COMMENT, section, null, null, comment, lineNumber);
+            }
+        }
+
+        @Override
+        public void property(String section, String key, String value, String comment) {
+            if (delegate != null)
+            {
+                delegate.property(section, key, value, comment);
+            } else
+            {
+                event = new IniEvent(PROPERTY, section, key, value, comment, parser.lineNumber());
+            }
+        }
+
+        @Override
+        public void section(String section, String comment) {
+            if (delegate != null)
+            {
+                delegate.section(section, comment);
+            } else
+            {
+                event = new IniEvent(SECTION, section, null, null, comment, parser.lineNumber());
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.List;
+
+/**
+ * Receives the changes found each time an {@link IniWatcher} reloads its
+ * file.
+ * <p>
+ * Called on the watcher's background thread, after the new contents have
+ * been swapped in.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+@FunctionalInterface
+public interface IniReloadListener {
+
+    /**
+     * The file failed to reload, and so the current contents were kept.
+     * <p>
+     * By default, does nothing.
+     *
+     * @param ex The exception thrown while reading or parsing the file.
+     */
+    default void failed(Exception ex) {
+    }
+
+    /**
+     * The file has been reloaded, and some of its values have changed.
+     *
+     * @param iniFile The reloaded file.
+     * @param changes The changed values. Never empty.
+     */
+    void reloaded(IniFile iniFile, List<IniChange> changes);
+}
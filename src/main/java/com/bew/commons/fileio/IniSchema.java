@@ -0,0 +1,418 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Declares the sections and keys that an <u>ini</u> file may hold, with the
+ * type, and range, of each key's value.
+ * <p>
+ * When set as the {@link IniFile#schema}, each property is checked as the
+ * file is parsed, in the same pass, and an {@link IniFileFormatException} is
+ * thrown at the first section, key or value that does not conform. Each
+ * value of a typed key is stored along with its conversion, so the typed
+ * getters of {@link IniDocument}, such as {@code getInt()}, never have to
+ * parse it.
+ * </p><p>
+ * A schema is closed: any section, or key, that it does not declare is an
+ * error. Keys are declared in the section named by the last call to
+ * {@link #section(String)}, or before that, in the <b>global section</b>.
+ * For example:
+ * </p>
+ * <pre><code>
+ * iniFile.schema = new IniSchema()
+ *         .stringKey("name")
+ *         .section("server")
+ *         .stringKey("host")
+ *         .intKey("port", 1, 65535)
+ *         .booleanKey("secure");
+ * </code></pre>
+ * <p>
+ * A schema may be shared by any number of files, once it has been
+ * declared, but is not thread-safe while it is being declared.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniSchema {
+
+    /**
+     * The keys of the section being declared.
+     */
+    private Map<String, Rule> current;
+
+    /**
+     * The declared keys of each declared section.
+     */
+    private final Map<String, Map<String, Rule>> sections = new HashMap<>();
+
+    /**
+     * Create a new schema, that declares only the <b>global section</b>, with
+     * no keys.
+     */
+    public IniSchema() {
+        current = new HashMap<>();
+        sections.put(null, current);
+    }
+
+    /**
+     * Declare a key holding "true" or "false", ignoring case.
+     *
+     * @param key The key label.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema booleanKey(String key) {
+        return declare(key, new Rule("boolean", IniEntry.BOOLEAN, 0L, 0L, 0.0, 0.0));
+    }
+
+    /**
+     * Declare a key holding a {@code double}, from {@code min} to {@code max},
+     * inclusive.
+     *
+     * @param key The key label.
+     * @param min The lowest value.
+     * @param max The highest value.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema doubleKey(String key, double min, double max) {
+        return declare(key, new Rule("double", IniEntry.DOUBLE, 0L, 0L, min, max));
+    }
+
+    /**
+     * Declare a key holding a {@code float}, from {@code min} to {@code max},
+     * inclusive.
+     *
+     * @param key The key label.
+     * @param min The lowest value.
+     * @param max The highest value.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema floatKey(String key, float min, float max) {
+        return declare(key, new Rule("float", IniEntry.FLOAT, 0L, 0L, min, max));
+    }
+
+    /**
+     * Declare a key holding an {@code int}, from {@code min} to {@code max},
+     * inclusive.
+     *
+     * @param key The key label.
+     * @param min The lowest value.
+     * @param max The highest value.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema intKey(String key, int min, int max) {
+        return declare(key, new Rule("int", IniEntry.INT, min, max, 0.0, 0.0));
+    }
+
+    /**
+     * Declare a key holding a {@code long}, from {@code min} to {@code max},
+     * inclusive.
+     *
+     * @param key The key label.
+     * @param min The lowest value.
+     * @param max The highest value.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema longKey(String key, long min, long max) {
+        return declare(key, new Rule("long", IniEntry.LONG, min, max, 0.0, 0.0));
+    }
+
+    /**
+     * Declare a section, in which the keys declared from now on are to be
+     * found. Declaring the same section again adds to its keys.
+     *
+     * @param section Name of the section, or {@code null} for the <b>global
+     *                section</b>.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema section(String section) {
+        current = sections.computeIfAbsent(section, s -> new HashMap<>());
+        return this;
+    }
+
+    /**
+     * Declare a key holding any text.
+     *
+     * @param key The key label.
+     *
+     * @return this instance for chaining.
+     */
+    public IniSchema stringKey(String key) {
+        return declare(key, new Rule("string", (byte) 0, 0L, 0L, 0.0, 0.0));
+    }
+
+    /**
+     * Check every property of the {@code iniDoc}, and store the conversion of
+     * each value of a typed key, as if it had just been parsed. Used when a
+     * file is loaded other than by parsing it, or its values are interpolated.
+     * Any section not yet read in by a {@link IniFile#lazyLoad} is read in.
+     *
+     * @param iniDoc   The document to check.
+     * @param filepath Path to the <u>ini</u> file, for the exception.
+     *
+     * @throws IOException            If an I/O error occurs reading in a
+     *                                section.
+     * @throws IniFileFormatException If a section, key or value does not
+     *                                conform.
+     */
+    void validate(IniDocument iniDoc, String filepath) throws IOException, IniFileFormatException {
+        iniDoc.lockAll();
+
+        try
+        {
+            for (IniSection section : iniDoc.entries.values())
+            {
+                // The global section is always there, even if empty.
+                if (section.key() != null)
+                {
+                    checkSection(filepath, 0, section.key());
+                }
+
+                for (IniEntry kv : section.value().values())
+                {
+                    Rule rule = rule(filepath, 0, section.key(), kv.key());
+                    String value = kv.string();
+                    long bits = rule.check(filepath, 0, section.key(), kv.key(), value != null ? value : "");
+
+                    if (rule.type != 0 && value != null)
+                    {
+                        kv.typed(rule.type, bits);
+                    }
+                }
+            }
+        } catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        } finally
+        {
+            iniDoc.unlockAll();
+        }
+    }
+
+    /**
+     * Check that the {@code section} has been declared.
+     *
+     * @param filepath   Path to the <u>ini</u> file, for the exception.
+     * @param lineNumber The line number of the section, or {@code 0} if not
+     *                   known.
+     * @param section    Name of the section.
+     *
+     * @throws IniFileFormatException If it has not.
+     */
+    void checkSection(String filepath, int lineNumber, String section) throws IniFileFormatException {
+        if (!sections.containsKey(section))
+        {
+            throw unknownSection(filepath, lineNumber, section);
+        }
+    }
+
+    /**
+     * Get the rule for the {@code key} of the {@code section}.
+     *
+     * @param filepath   Path to the <u>ini</u> file, for the exception.
+     * @param lineNumber The line number of the property, or {@code 0} if not
+     *                   known.
+     * @param section    Name of the section.
+     * @param key        The key label.
+     *
+     * @return the rule.
+     *
+     * @throws IniFileFormatException If the section, or the key, has not been
+     *                                declared.
+     */
+    Rule rule(String filepath, int lineNumber, String section, String key) throws IniFileFormatException {
+        Map<String, Rule> keys = sections.get(section);
+
+        if (keys == null)
+        {
+            throw unknownSection(filepath, lineNumber, section);
+        }
+
+        Rule rule = keys.get(key);
+
+        if (rule == null)
+        {
+            throw new IniFileFormatException(filepath, "Unknown key" + line(lineNumber) + ": " + name(section, key));
+        }
+
+        return rule;
+    }
+
+    /**
+     * Add the {@code rule} for the {@code key} to the section being declared.
+     */
+    private IniSchema declare(String key, Rule rule) {
+        current.put(key, rule);
+        return this;
+    }
+
+    /**
+     * @return the {@code lineNumber}, as shown in a message, or nothing if
+     *         not known.
+     */
+    private static String line(int lineNumber) {
+        return lineNumber > 0 ? " (line# " + lineNumber + ")" : "";
+    }
+
+    /**
+     * @return the {@code key}, prefixed by its {@code section}, as shown in a
+     *         message.
+     */
+    private static String name(String section, String key) {
+        return section != null ? "[" + section + "]" + key : key;
+    }
+
+    private static IniFileFormatException unknownSection(String filepath, int lineNumber, String section) {
+        return new IniFileFormatException(filepath, "Unknown section" + line(lineNumber) + ": [" + section + "]");
+    }
+
+    /**
+     * The type, and range, of the value of one declared key.
+     */
+    static final class Rule {
+
+        final String name;
+        final long max;
+        final double maxDouble;
+        final long min;
+        final double minDouble;
+
+        /**
+         * The type of conversion, as per {@link IniEntry}, or {@code 0} for
+         * text.
+         */
+        final byte type;
+
+        Rule(String name, byte type, long min, long max, double minDouble, double maxDouble) {
+            this.name = name;
+            this.type = type;
+            this.min = min;
+            this.max = max;
+            this.minDouble = minDouble;
+            this.maxDouble = maxDouble;
+        }
+
+        /**
+         * Check the {@code value}, and convert it as per
+         * {@link IniEntry#typed(byte, long)}.
+         *
+         * @param filepath   Path to the <u>ini</u> file, for the exception.
+         * @param lineNumber The line number of the property, or {@code 0} if
+         *                   not known.
+         * @param section    Name of the property's section.
+         * @param key        The property's key.
+         * @param value      The value, as it is stored.
+         *
+         * @return the conversion, or {@code 0} for text.
+         *
+         * @throws IniFileFormatException If the value is not of the type, or
+         *                                is out of range.
+         */
+        long check(String filepath, int lineNumber, String section, String key, CharSequence value)
+                throws IniFileFormatException {
+
+            long bits;
+
+            try
+            {
+                switch (type)
+                {
+                    case IniEntry.BOOLEAN:
+                    {
+                        String text = value.toString();
+
+                        if (text.equalsIgnoreCase("true"))
+                        {
+                            bits = 1L;
+                        } else if (text.equalsIgnoreCase("false"))
+                        {
+                            bits = 0L;
+                        } else
+                        {
+                            throw new NumberFormatException(text);
+                        }
+
+                        return bits;
+                    }
+
+                    case IniEntry.DOUBLE:
+                    case IniEntry.FLOAT:
+                    {
+                        double d = type == IniEntry.DOUBLE
+                                   ? Double.parseDouble(value.toString())
+                                   : Float.parseFloat(value.toString());
+
+                        if (!(d >= minDouble && d <= maxDouble))
+                        {
+                            throw outOfRange(filepath, lineNumber, section, key, value,
+                                             minDouble + " to " + maxDouble);
+                        }
+
+                        return type == IniEntry.DOUBLE
+                               ? Double.doubleToRawLongBits(d)
+                               : Float.floatToRawIntBits((float) d);
+                    }
+
+                    case IniEntry.INT:
+                    case IniEntry.LONG:
+                        bits = value instanceof IniSlice
+                               ? ((IniSlice) value).longValue()
+                               : Long.parseLong(value.toString());
+
+                        if (bits < min || bits > max)
+                        {
+                            throw outOfRange(filepath, lineNumber, section, key, value, min + " to " + max);
+                        }
+
+                        return bits;
+
+                    default:
+                        return 0L;
+                }
+            } catch (NumberFormatException ex)
+            {
+                throw new IniFileFormatException(filepath, "Invalid value" + line(lineNumber) + ": "
+                                                           + name(section, key) + "=" + value
+                                                           + " (expected " + name + ")");
+            }
+        }
+
+        private IniFileFormatException outOfRange(String filepath, int lineNumber, String section, String key,
+                                                  CharSequence value, String range) {
+            return new IniFileFormatException(filepath, "Value out of range" + line(lineNumber) + ": "
+                                                        + name(section, key) + "=" + value
+                                                        + " (expected " + name + " " + range + ")");
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.property.MutableIniProperty;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single section of an {@link IniDocument}.
+ * <p>
+ * The {@code key} is the section's name ({@code null} for the global section),
+ * and the {@code value} is the section's list of properties, indexed by their
+ * keys. A {@link LinkedHashMap} is used so that the properties are found by
+ * hash lookup, while still maintaining the original loading sequence for
+ * when they are written back out to file.
+ * <p>
+ * Standalone comments (those not attached to a key) are held apart from the
+ * properties, so that looking up and iterating over the properties never has
+ * to pass over them. Each property is numbered in the order it was added, and
+ * each comment records the number of properties added before it, so it can
+ * be written back out in its original place, even after some of them have
+ * been removed. They are stored against a
+ * made up key: the comment tag followed by the line number. For example:
+ * "#12". As a valid key can not start with a comment tag, these never clash
+ * with the keys of properties.
+ * <p>
+ * When the file is loaded lazily (see {@link IniFile#lazyLoad}), the section
+ * holds on to where its properties are in the file, or in its compiled copy
+ * (see {@link IniFile#binaryCache}), and only reads them in the first time its
+ * {@link #value()} is needed.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+class IniSection extends MutableIniProperty<LinkedHashMap<String, IniEntry>> {
+
+    /**
+     * @serial serial
+     */
+    private static final long serialVersionUID = 3154786624591875303L;
+
+    /**
+     * The number of properties added so far, used to number each one.
+     */
+    private int added;
+
+    /**
+     * Set whenever this section is changed, and cleared once it has been
+     * written out by an incremental save (see {@link IniFile#incrementalSave}).
+     */
+    transient boolean dirty = true;
+
+    /**
+     * The parts of the file still to be loaded into this section, in file
+     * order, or {@code null} if there are none.
+     */
+    private transient volatile List<Deferred> pending;
+
+    /**
+     * The standalone comments, in file order, or {@code null} if there are
+     * none.
+     */
+    private LinkedHashMap<String, Standalone> standalone;
+
+    /**
+     * Create a new, empty section.
+     *
+     * @param name    The section's name.
+     * @param comment The section's comment.
+     */
+    IniSection(String name, String comment) {
+        super(name, new LinkedHashMap<>(), comment);
+    }
+
+    /**
+     * Create a new, empty section, with room for {@code size} properties
+     * before it needs to grow.
+     *
+     * @param name    The section's name.
+     * @param comment The section's comment.
+     * @param size    The expected number of properties.
+     */
+    IniSection(String name, String comment, int size) {
+        super(name, new LinkedHashMap<>((int) (size / 0.75f) + 1), comment);
+    }
+
+    /**
+     * Checks whether the {@code key} is that of a standalone comment.
+     *
+     * @param key The key label.
+     *
+     * @return {@code true} if the key starts with a comment tag.
+     */
+    static boolean isStandalone(String key) {
+        return !key.isEmpty() && (key.charAt(0) == '#' || key.charAt(0) == ';');
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Any parts of the file still to be loaded into this section are loaded
+     * first.
+     *
+     * @throws UncheckedIOException If an I/O error occurs while loading.
+     */
+    @Override
+    public LinkedHashMap<String, IniEntry> value() {
+        if (pending != null)
+        {
+            load();
+        }
+
+        return value;
+    }
+
+    /**
+     * Mark all of this section's entries as detached, as the section has been
+     * removed from its document.
+     * <p>
+     * Any parts of the file still to be loaded are not loaded, as there can be
+     * no {@link IniHandle}s to entries that were never loaded.
+     */
+    void detach() {
+        for (IniEntry kv : value.values())
+        {
+            kv.detach();
+        }
+    }
+
+    /**
+     * The keys of the entries loaded so far.
+     * <p>
+     * Any parts of the file still to be loaded are not loaded, as no listener
+     * can have been told of keys that were never loaded.
+     *
+     * @return a copy of the keys, in document order.
+     */
+    List<String> loadedKeys() {
+        return new ArrayList<>(value.keySet());
+    }
+
+    /**
+     * Add a part of a file to be loaded into this section later.
+     *
+     * @param body The part of the file.
+     */
+    synchronized void defer(Deferred body) {
+        if (pending == null)
+        {
+            pending = new ArrayList<>(1);
+        }
+
+        pending.add(body);
+    }
+
+    /**
+     * Load the pending parts of the file.
+     */
+    private synchronized void load() {
+        if (pending != null)
+        {
+            try
+            {
+                for (Deferred body : pending)
+                {
+                    body.load(this);
+                }
+            } catch (IOException ex)
+            {
+                throw new UncheckedIOException(ex);
+            }
+
+            pending = null;
+        }
+    }
+
+    /**
+     * Get the property, or standalone comment, stored against the
+     * {@code key}.
+     *
+     * @param key The key label.
+     *
+     * @return the stored property or {@code null}.
+     */
+    IniEntry entry(String key) {
+        LinkedHashMap<String, IniEntry> kvmap = value();
+
+        if (isStandalone(key))
+        {
+            return standalone != null ? standalone.get(key) : null;
+        }
+
+        return kvmap.get(key);
+    }
+
+    /**
+     * Add, or replace, a standalone comment. A new one is placed after all of
+     * the current properties.
+     * <p>
+     * Also used while loading, so any parts of the file still to be loaded are
+     * not loaded first. Outside of loading, {@link #value()} must have been
+     * called first.
+     *
+     * @param key     The comment's made up key.
+     * @param comment The comment.
+     *
+     * @return the previous comment, or {@code null} if there was none.
+     */
+    String putStandalone(String key, String comment) {
+        if (standalone == null)
+        {
+            standalone = new LinkedHashMap<>();
+        }
+
+        Standalone sc = standalone.get(key);
+
+        if (sc == null)
+        {
+            standalone.put(key, new Standalone(key, comment, added));
+            return null;
+        } else
+        {
+            String rtn = sc.comment();
+            sc.comment(comment);
+            return rtn;
+        }
+    }
+
+    /**
+     * Add a new property, after all of the current ones, and number it.
+     * <p>
+     * Also used while loading. Outside of loading, {@link #value()} must have
+     * been called first.
+     *
+     * @param kv The property, whose key is not yet stored.
+     */
+    void add(IniEntry kv) {
+        kv.order = added++;
+        value.put(kv.key(), kv);
+    }
+
+    /**
+     * Remove the property, or standalone comment, stored against the
+     * {@code key}.
+     * <p>
+     * Any standalone comments that followed a removed property keep their
+     * place after the property before it. Nothing else needs to be changed,
+     * as they are placed by the number of properties added before them.
+     *
+     * @param key The key label.
+     *
+     * @return {@code true} if there was one to remove.
+     */
+    boolean remove(String key) {
+        LinkedHashMap<String, IniEntry> kvmap = value();
+
+        if (isStandalone(key))
+        {
+            return standalone != null && standalone.remove(key) != null;
+        }
+
+        IniEntry kv = kvmap.remove(key);
+
+        if (kv != null)
+        {
+            kv.detach();
+        }
+
+        return kv != null;
+    }
+
+    /**
+     * Works out the place of each of the standalone comments, among the
+     * properties now in this section.
+     *
+     * @return for each of the {@link #standalone()} comments, in the same
+     *         order, the number of properties that now precede it.
+     */
+    int[] positions() {
+        Collection<Standalone> comments = standalone();
+        int[] rtn = new int[comments.size()];
+        Iterator<IniEntry> properties = value.values().iterator();
+        IniEntry kv = properties.hasNext() ? properties.next() : null;
+        int position = 0;
+        int i = 0;
+
+        for (Standalone sc : comments)
+        {
+            while (kv != null && kv.order < sc.after)
+            {
+                kv = properties.hasNext() ? properties.next() : null;
+                position++;
+            }
+
+            rtn[i++] = position;
+        }
+
+        return rtn;
+    }
+
+    /**
+     * @return the standalone comments, in file order. Each precedes all of
+     *         the properties numbered at least its {@link Standalone#after}.
+     */
+    Collection<Standalone> standalone() {
+        value();
+        return standalone != null ? standalone.values() : List.of();
+    }
+
+    /**
+     * Add all of the properties, as per
+     * {@link IniDocument#putAll(String, Map, Map) putAll()}.
+     */
+    void putAll(Map<String, String> values, Map<String, String> comments) {
+        LinkedHashMap<String, IniEntry> kvmap = value();
+
+        for (Map.Entry<String, String> entry : values.entrySet())
+        {
+            String key = entry.getKey();
+            String comment = comments.get(key);
+            IniEntry kv = kvmap.get(key);
+
+            if (kv == null)
+            {
+                add(new IniEntry(key, entry.getValue(), comment));
+            } else
+            {
+                kv.value(entry.getValue());
+                kv.comment(comment);
+            }
+        }
+    }
+
+    /**
+     * Add a property, as per
+     * {@link IniDocument#setString(String, String, String, String) setString()},
+     * while loading. The {@code val} may be an {@link IniSlice}.
+     *
+     * @return the stored property.
+     */
+    IniEntry putString(String key, CharSequence val, String comment) {
+        IniEntry kv = value.get(key);
+
+        if (kv == null)
+        {
+            kv = new IniEntry(key, val, comment);
+            add(kv);
+        } else
+        {
+            kv.value(val);
+            kv.comment(comment);
+        }
+
+        return kv;
+    }
+
+    /**
+     * A part of a file, to be loaded into a section the first time its
+     * contents are needed.
+     */
+    interface Deferred {
+
+        /**
+         * Load this part of the file into the {@code iniSection}.
+         *
+         * @param iniSection To receive the entries.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        void load(IniSection iniSection) throws IOException;
+    }
+
+    /**
+     * A standalone comment.
+     * <p>
+     * The {@code comment} holds the text, and the {@code key} its made up
+     * key.
+     */
+    static final class Standalone extends IniEntry {
+
+        /**
+         * @serial serial
+         */
+        private static final long serialVersionUID = -6254019583340985121L;
+
+        /**
+         * The number of properties that had been added to the section before
+         * this comment.
+         */
+        final int after;
+
+        private Standalone(String key, String comment, int after) {
+            super(key, null, comment);
+            this.after = after;
+        }
+    }
+}
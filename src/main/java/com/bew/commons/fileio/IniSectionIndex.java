@@ -0,0 +1,413 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Lazily loads an <u>ini</u> file into an {@link IniDocument}.
+ * <p>
+ * A single pass is made over the raw bytes of the file, which are never
+ * decoded, apart from the section headers and comments. Every line is checked
+ * for being a valid section header, key/value pair, comment or blank, exactly
+ * as per {@link IniLineScanner}, so a badly formatted file still fails at load
+ * time. (All of the characters that matter: "[]#;=", space, tab, '\n' and '\r',
+ * are single bytes in UTF-8 that never occur inside a multi-byte character.)
+ * <p>
+ * Each section is added to the document with its comment, in the same order
+ * as a full load. However, the lines between one section header and the next
+ * are only recorded as a {@link Body}: a byte range of the file. They are
+ * parsed into their section the first time it is used.
+ * <p>
+ * The file must not be changed until all of the sections have been used, or
+ * the document has been saved.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniSectionIndex {
+
+    /**
+     * Initial size of each mapped window of the file. It grows as needed to
+     * hold the longest line.
+     */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * The current section's body, if it has been given to a section.
+     */
+    private Body body;
+
+    /**
+     * Where the current section's body starts, or {@code -1} if it starts at
+     * the next line.
+     */
+    private long bodyStart;
+
+    /**
+     * The number of the line before the current section's body.
+     */
+    private int bodyLine;
+
+    private String currentSection;
+    private final CharsetDecoder decoder = UTF_8.newDecoder();
+    private final Path file;
+    private final String filepath;
+    private final IniDocument iniDoc;
+    private String lastComment;
+    private int lineNumber;
+    private final IniLineScanner scanner = new IniLineScanner();
+
+    private IniSectionIndex(Path file, IniDocument iniDoc, String filepath) {
+        this.file = file;
+        this.iniDoc = iniDoc;
+        this.filepath = filepath;
+    }
+
+    /**
+     * Index the {@code file}, adding its sections to {@code iniDoc}, ready to
+     * be loaded when needed.
+     *
+     * @param file     The file to index.
+     * @param iniDoc   To receive the sections.
+     * @param filepath Path to the <u>ini</u> file, for error reporting.
+     *
+     * @throws IOException            If an I/O error occurs, including a
+     *                                malformed UTF-8 sequence in a section
+     *                                header or comment.
+     * @throws IniFileFormatException If the format of the file does not
+     *                                conform to the general standard.
+     */
+    static void index(Path file, IniDocument iniDoc, String filepath)
+            throws IOException, IniFileFormatException {
+        new IniSectionIndex(file, iniDoc, filepath).index();
+    }
+
+    /**
+     * Classify a line of bytes, exactly as
+     * {@link IniLineScanner#scan(CharSequence, int, int)} would classify the
+     * decoded line.
+     */
+    private static int classify(ByteBuffer buf, int from, int to) {
+        if (from < to)
+        {
+            byte first = buf.get(from);
+
+            if (first == '[')
+            {
+                for (int i = from + 1; i < to; i++)
+                {
+                    if (buf.get(i) == ']')
+                    {
+                        return IniLineScanner.SECTION;
+                    }
+                }
+            }
+
+            if ((first == '#' || first == ';') && from + 1 < to)
+            {
+                byte second = buf.get(from + 1);
+
+                if (second == ' ' || second == '\t')
+                {
+                    return IniLineScanner.COMMENT;
+                }
+            }
+
+            for (int i = from; i < to; i++)
+            {
+                byte b = buf.get(i);
+
+                if (b == '=')
+                {
+                    if (i > from)
+                    {
+                        return IniLineScanner.PROPERTY;
+                    }
+
+                    break;
+                } else if (b == '#' || b == ';')
+                {
+                    break;
+                }
+            }
+
+            // The only line terminators that can be within a line are:
+            // U+0085 (C2 85), U+2028 (E2 80 A8) and U+2029 (E2 80 A9).
+            boolean blank = (first == (byte) 0xC2 && from + 1 < to && buf.get(from + 1) == (byte) 0x85)
+                            || (first == (byte) 0xE2 && from + 2 < to && buf.get(from + 1) == (byte) 0x80
+                                && (buf.get(from + 2) == (byte) 0xA8 || buf.get(from + 2) == (byte) 0xA9));
+
+            if (!blank)
+            {
+                return IniLineScanner.UNKNOWN;
+            }
+        }
+
+        return IniLineScanner.BLANK;
+    }
+
+    /**
+     * A line that will add an entry to the current section's body has been
+     * found, so make sure the body has been given to its section.
+     */
+    private void addEntry() {
+        if (body == null)
+        {
+            body = new Body(file, filepath, currentSection, bodyStart, bodyLine);
+            iniDoc.defer(currentSection, body);
+        }
+    }
+
+    private String decode(ByteBuffer buf, int from, int to) throws IOException {
+        return decoder.decode(buf.slice(from, to - from)).toString();
+    }
+
+    private void index() throws IOException, IniFileFormatException {
+        try ( FileChannel channel = FileChannel.open(file, READ))
+        {
+            long size = channel.size();
+            long position = 0;
+            long windowSize = WINDOW_SIZE;
+
+            while (position < size)
+            {
+                long length = Math.min(windowSize, size - position);
+
+                if (length > Integer.MAX_VALUE)
+                {
+                    throw new IOException("Line too long, after byte: " + position);
+                }
+
+                boolean last = position + length == size;
+                MappedByteBuffer buf = channel.map(READ_ONLY, position, length);
+                int limit = (int) length;
+                int lineStart = 0;
+                int i = 0;
+
+                while (i < limit)
+                {
+                    byte b = buf.get(i);
+
+                    if (b == '\n' || b == '\r')
+                    {
+                        if (b == '\r' && i + 1 == limit && !last)
+                        {
+                            // Wait to see if a '\n' follows.
+                            break;
+                        }
+
+                        line(buf, lineStart, i, position);
+                        i += (b == '\r' && i + 1 < limit && buf.get(i + 1) == '\n') ? 2 : 1;
+                        lineStart = i;
+                    } else
+                    {
+                        i++;
+                    }
+                }
+
+                if (last)
+                {
+                    if (lineStart < limit)
+                    {
+                        line(buf, lineStart, limit, position);
+                    }
+
+                    position = size;
+                } else if (lineStart == 0)
+                {
+                    windowSize *= 2;
+                } else
+                {
+                    position += lineStart;
+                    windowSize = WINDOW_SIZE;
+                }
+            }
+
+            if (body != null)
+            {
+                body.end = size;
+            }
+        }
+    }
+
+    /**
+     * Process one line.
+     *
+     * @param buf      Holds the line.
+     * @param from     Start of the line in {@code buf}.
+     * @param to       End of the line in {@code buf}, excluding the
+     *                 terminator.
+     * @param position Position of {@code buf} in the file.
+     */
+    private void line(ByteBuffer buf, int from, int to, long position)
+            throws IOException, IniFileFormatException {
+        lineNumber++;
+
+        if (bodyStart < 0)
+        {
+            bodyStart = position + from;
+        }
+
+        switch (classify(buf, from, to))
+        {
+            case IniLineScanner.SECTION:
+            {
+                if (body != null)
+                {
+                    body.end = position + from;
+                    body = null;
+                }
+
+                String line = decode(buf, from, to);
+                String section = line.substring(1, line.indexOf(']'));
+                iniDoc.setSection(section, lastComment);
+                lastComment = null;
+                currentSection = section.strip();
+                bodyStart = -1;
+                bodyLine = lineNumber;
+                break;
+            }
+
+            case IniLineScanner.PROPERTY:
+                addEntry();
+                lastComment = null;
+                break;
+
+            case IniLineScanner.COMMENT:
+            {
+                if (lastComment != null)
+                {
+                    addEntry();
+                }
+
+                String line = decode(buf, from, to);
+                scanner.scan(line, 0, line.length());
+                lastComment = line.substring(scanner.start, scanner.end);
+                break;
+            }
+
+            case IniLineScanner.UNKNOWN:
+            {
+                String line = decode(buf, from, to);
+                scanner.scan(line, 0, line.length());
+                throw new IniFileFormatException(filepath,
+                                                 "Unknown entry (line# " + lineNumber + "): "
+                                                 + line.substring(scanner.start, scanner.end));
+            }
+
+            default:
+                if (lastComment != null)
+                {
+                    addEntry();
+                    lastComment = null;
+                }
+        }
+    }
+
+    /**
+     * The lines of a file, between one section header and the next, that hold
+     * the entries of a section.
+     */
+    static final class Body implements IniSection.Deferred {
+
+        /**
+         * End of the lines in the file, just before the next section header,
+         * or the end of the file.
+         */
+        long end;
+
+        private final Path file;
+        private final String filepath;
+        private final int lineNumber;
+        private final String section;
+        private final long start;
+
+        private Body(Path file, String filepath, String section, long start, int lineNumber) {
+            this.file = file;
+            this.filepath = filepath;
+            this.section = section;
+            this.start = start;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * Parse these lines into the {@code iniSection}.
+         *
+         * @param iniSection To receive the entries.
+         *
+         * @throws IOException If an I/O error occurs, including a malformed
+         *                     UTF-8 sequence, or the file has been changed
+         *                     since it was indexed.
+         */
+        @Override
+        public void load(IniSection iniSection) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(end - start));
+
+            try ( FileChannel channel = FileChannel.open(file, READ))
+            {
+                while (bytes.hasRemaining())
+                {
+                    if (channel.read(bytes, start + bytes.position()) < 0)
+                    {
+                        throw new IOException("File has been changed: " + filepath);
+                    }
+                }
+            }
+
+            bytes.flip();
+            String text = UTF_8.newDecoder().decode(bytes).toString();
+            IniParser parser = new IniParser(new IniHandler()
+            {
+                @Override
+                public void comment(String section, String comment, int lineNumber) {
+                    iniSection.putStandalone(comment.substring(0, 1) + lineNumber, comment);
+                }
+
+                @Override
+                public void property(String section, String key, String value, String comment) {
+                    iniSection.putString(key, value, comment);
+                }
+            }, filepath);
+            parser.resume(section, lineNumber);
+
+            try
+            {
+                parser.parseLines(text);
+            } catch (IniFileFormatException ex)
+            {
+                throw new IOException("File has been changed: " + filepath, ex);
+            }
+        }
+    }
+}
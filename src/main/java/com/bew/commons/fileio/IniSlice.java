@@ -0,0 +1,132 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+/**
+ * A range of the characters of a whole loaded <u>ini</u> file, used as a
+ * property's value in place of a {@link String} (see
+ * {@link IniFile#sliceValues}).
+ * <p>
+ * The characters are shared, never copied, and never changed. The numeric
+ * conversions parse straight from them. Only {@link #toString()} creates a
+ * {@code String}.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+final class IniSlice implements CharSequence {
+
+    private final char[] chars;
+    private final int end;
+    private final int start;
+
+    /**
+     * Create a new slice of the {@code chars}.
+     *
+     * @param chars The whole file.
+     * @param start Index of the first character of the slice.
+     * @param end   Index after the last character of the slice.
+     */
+    IniSlice(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return chars[start + index];
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public IniSlice subSequence(int from, int to) {
+        if (from < 0 || from > to || to > end - start)
+        {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + (end - start));
+        }
+
+        return new IniSlice(chars, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Same as {@link Boolean#parseBoolean(String)}.
+     *
+     * @return {@code true} if this is "true", ignoring case.
+     */
+    boolean booleanValue() {
+        String match = "true";
+
+        if (end - start != match.length())
+        {
+            return false;
+        }
+
+        // As per String.equalsIgnoreCase().
+        for (int i = 0; i < match.length(); i++)
+        {
+            char ch = chars[start + i];
+            char m = match.charAt(i);
+            char upper = Character.toUpperCase(ch);
+
+            if (ch != m && upper != Character.toUpperCase(m) && Character.toLowerCase(upper) != m)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Same as {@link Integer#parseInt(String)}.
+     *
+     * @return the value as an {@code int}.
+     *
+     * @throws NumberFormatException if the value is not a parsable integer.
+     */
+    int intValue() {
+        return Integer.parseInt(this, 0, end - start, 10);
+    }
+
+    /**
+     * Same as {@link Long#parseLong(String)}.
+     *
+     * @return the value as a {@code long}.
+     *
+     * @throws NumberFormatException if the value is not a parsable long.
+     */
+    long longValue() {
+        return Long.parseLong(this, 0, end - start, 10);
+    }
+}
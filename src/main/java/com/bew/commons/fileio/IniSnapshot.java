@@ -0,0 +1,403 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.property.IniProperty;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a frozen, read-only copy of the contents of an
+ * {@link IniDocument}.
+ * <p>
+ * Once constructed, an {@code IniSnapshot} never changes. It can therefore be
+ * shared freely between any number of threads, without any locking, while the
+ * {@code IniDocument} it was copied from continues to be modified. To see those
+ * modifications, a new snapshot has to be taken.
+ * </p><p>
+ * The usual way to obtain a snapshot is through {@link IniFile#snapshot()},
+ * which always returns the most recently published version. Writers publish a
+ * new version with {@link IniFile#update(java.util.function.Consumer)
+ * IniFile.update}, which replaces the current snapshot in a single atomic step.
+ * Readers that hold on to an older snapshot continue to see a consistent view
+ * of the document as it was at the time that snapshot was published.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniSnapshot {
+
+    /**
+     * The frozen copy of {@link IniDocument#entries}.
+     */
+    private final Map<String, Section> sections;
+
+    /**
+     * The names of all sections, in their original loading sequence.
+     */
+    private final List<String> sectionNames;
+
+    /**
+     * Create a snapshot of the current contents of {@code iniDoc}.
+     * <p>
+     * The {@code iniDoc} must not be modified while the snapshot is being
+     * taken, unless it is a {@link ConcurrentIniDocument}.
+     *
+     * @param iniDoc The document to copy.
+     */
+    public IniSnapshot(IniDocument iniDoc) {
+        LinkedHashMap<String, Section> copy = new LinkedHashMap<>(iniDoc.entries.size() * 2);
+
+        iniDoc.lockAll();
+
+        try
+        {
+            for (IniSection section : iniDoc.entries.values())
+            {
+                copy.put(section.key(), new Section(iniDoc, section));
+            }
+        } finally
+        {
+            iniDoc.unlockAll();
+        }
+
+        sections = Collections.unmodifiableMap(copy);
+        sectionNames = Collections.unmodifiableList(new ArrayList<>(copy.keySet()));
+    }
+
+    /**
+     * Tests to see whether or not this <b>key</b> exists within this
+     * <b>section</b>.
+     *
+     * @param section possible section
+     * @param key     possible key
+     *
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKey(String section, String key) {
+        Section iniSection = sections.get(section);
+
+        return iniSection != null && iniSection.keys.containsKey(key);
+    }
+
+    /**
+     * Tests to see whether or not this <b>key</b> exists within the global
+     * section.
+     *
+     * @param key possible key.
+     *
+     * @return {@code true} if the key exists, {@code false} otherwise.
+     */
+    public boolean containsKeyG(String key) {
+        return containsKey(null, key);
+    }
+
+    /**
+     * Tests to see whether or not this <b>section</b> exists.
+     *
+     * @param section possible section.
+     *
+     * @return {@code true} if the section exists, {@code false} otherwise.
+     */
+    public boolean containsSection(String section) {
+        return sections.containsKey(section);
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>boolean</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public boolean getBoolean(String section, String key, boolean defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? kv.booleanValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>boolean</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public boolean getBooleanG(String key, boolean defaultvalue) {
+        return getBoolean(null, key, defaultvalue);
+    }
+
+    /**
+     * Returns the associated {@code comment} for this {@code key} from this
+     * {@code section}, if it is set. Otherwise {@code null}.
+     *
+     * @param section The section in which the key should reside.
+     * @param key     The key whose comment we are after.
+     *
+     * @return The comment or {@code null}.
+     */
+    public String getComment(String section, String key) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null ? kv.comment() : null;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>double</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public double getDouble(String section, String key, double defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? kv.doubleValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>double</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public double getDoubleG(String key, double defaultvalue) {
+        return getDouble(null, key, defaultvalue);
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>float</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public float getFloat(String section, String key, float defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? kv.floatValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>float</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public float getFloatG(String key, float defaultvalue) {
+        return getFloat(null, key, defaultvalue);
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>int</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public int getInt(String section, String key, int defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? kv.intValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>int</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public int getIntG(String key, int defaultvalue) {
+        return getInt(null, key, defaultvalue);
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>long</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public long getLong(String section, String key, long defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? kv.longValue() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>long</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public long getLongG(String key, long defaultvalue) {
+        return getLong(null, key, defaultvalue);
+    }
+
+    /**
+     * Returns {@code section}'s list of properties.
+     *
+     * @param section Name of the section.
+     *
+     * @return Unmodifiable list of properties, or {@code null} if there is no
+     *         section by that name.
+     */
+    public List<IniProperty<Object>> getSection(String section) {
+        Section iniSection = sections.get(section);
+
+        return iniSection != null ? iniSection.properties() : null;
+    }
+
+    /**
+     * Gets the {@code comment} for this {@code section}.
+     * <p>
+     * Will also return {@code null} if there is no section by that name.
+     *
+     * @param section Name of the section.
+     *
+     * @return The comment if set, otherwise {@code null}.
+     */
+    public String getSectionComment(String section) {
+        Section iniSection = sections.get(section);
+
+        return iniSection != null ? iniSection.comment : null;
+    }
+
+    /**
+     * Get list of all sections.
+     *
+     * @return Unmodifiable list of all sections.
+     */
+    public List<String> getSections() {
+        return sectionNames;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> in the form of a
+     * <b>String</b>.
+     *
+     * @param section      The section in which the key should reside.
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public String getString(String section, String key, String defaultvalue) {
+        IniEntry kv = getEntry(section, key);
+        return kv != null && kv.hasValue() ? (String) kv.value() : defaultvalue;
+    }
+
+    /**
+     * Obtain the <i>value</i> of the <i>key</i> from the global section, in the
+     * form of a <b>String</b>.
+     *
+     * @param key          The key whose value we are after.
+     * @param defaultvalue The value to return if the key does not exist.
+     *
+     * @return Either the stored value or the defaultValue if key is not found.
+     */
+    public String getStringG(String key, String defaultvalue) {
+        return getString(null, key, defaultvalue);
+    }
+
+    private IniEntry getEntry(String section, String key) {
+        Section iniSection = sections.get(section);
+
+        return iniSection != null ? iniSection.keys.get(key) : null;
+    }
+
+    /**
+     * Frozen copy of an {@link IniSection}.
+     */
+    private static final class Section {
+
+        final String comment;
+        final LinkedHashMap<String, IniEntry> keys;
+
+        /**
+         * Built on first use. Being an unmodifiable wrapper, it is safe for
+         * more than one thread to race to build it.
+         */
+        private List<IniProperty<Object>> properties;
+
+        Section(IniDocument iniDoc, IniSection section) {
+            comment = section.comment();
+            keys = new LinkedHashMap<>(section.value().size() * 2);
+
+            // The entries are copied, so that later changes to the document's
+            // entries are not seen through this snapshot. Any references in
+            // the values are expanded as they are copied.
+            for (IniEntry kv : section.value().values())
+            {
+                String value = iniDoc.expand(section.key(), kv).string();
+                keys.put(kv.key(), new IniEntry(kv.key(), value, kv.comment()));
+            }
+        }
+
+        List<IniProperty<Object>> properties() {
+            List<IniProperty<Object>> rtn = properties;
+
+            if (rtn == null)
+            {
+                ArrayList<IniProperty<Object>> list = new ArrayList<>(keys.size());
+
+                // Handed out as plain IniProperty copies, so they can not be
+                // cast back and modified.
+                keys.values().forEach(kv
+                        -> list.add(new IniProperty<>(kv.key(), kv.value(), kv.comment())));
+                rtn = Collections.unmodifiableList(list);
+                properties = rtn;
+            }
+
+            return rtn;
+        }
+    }
+}
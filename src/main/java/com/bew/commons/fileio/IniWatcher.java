@@ -0,0 +1,273 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Reloads an {@link IniFile} whenever its file is changed by anything else,
+ * such as by being edited by hand.
+ * <p>
+ * Obtained from {@link IniFile#watch(long, java.util.concurrent.TimeUnit)}.
+ * The directory holding the file is watched by a {@link WatchService}, on a
+ * background thread. As an editor may write a file in several steps, the
+ * file is only reloaded once no more changes to it have been seen for the
+ * {@code delay}.
+ * </p><p>
+ * The file is parsed into a new document on the background thread, as per
+ * the {@link IniFile}'s settings, including its {@link IniFile#schema} and
+ * {@link IniFile#interpolate}. If it cannot be loaded, nothing is swapped in,
+ * and the error is kept (see {@link #getLastError()}). Otherwise, the
+ * changed values are then worked out, and the new contents are swapped into
+ * {@link IniFile#iniDoc} in a single step, with a new
+ * {@link IniFile#snapshot()} published at the same time. No change can be
+ * made to {@code iniDoc} in between, so none is lost from the changes. A
+ * {@link ConcurrentIniDocument} holds off all other access meanwhile, but
+ * readers using snapshots are never blocked. Finally, the
+ * {@link IniReloadListener}s are given the changes. If nothing has changed,
+ * nothing is swapped in, so the file being saved by this program does not
+ * cause a reload.
+ * </p><p>
+ * Any {@link IniHandle}s look their keys up again after a reload. Changes
+ * made to {@code iniDoc} by this program, but not yet saved, are lost by a
+ * reload.
+ * </p><p>
+ * The background thread does not keep the JVM running.
+ * </p>
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniWatcher implements AutoCloseable {
+
+    private volatile boolean closed;
+    private final long delay;
+    private final IniFile iniFile;
+    private volatile Exception lastError;
+    private final List<IniReloadListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long reloads;
+    private final Thread thread;
+    private final WatchService watchService;
+
+    /**
+     * Create and start a new watcher.
+     *
+     * @param iniFile The file to reload.
+     * @param delay   The time, in nanoseconds, to wait for the changes to
+     *                stop.
+     *
+     * @throws IOException If an I/O error occurs starting to watch the
+     *                     directory.
+     */
+    IniWatcher(IniFile iniFile, long delay) throws IOException {
+        this.iniFile = iniFile;
+        this.delay = delay;
+
+        Path dir = iniFile.path.toAbsolutePath().getParent();
+        watchService = dir.getFileSystem().newWatchService();
+
+        try
+        {
+            dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException ex)
+        {
+            watchService.close();
+            throw ex;
+        }
+
+        thread = new Thread(this::run, "IniWatcher: " + iniFile.path);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Add a listener to be given the changes after each reload.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(IniReloadListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop watching the file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed)
+        {
+            closed = true;
+            watchService.close();
+        }
+    }
+
+    /**
+     * @return the exception thrown by the most recent failed reload, or
+     *         {@code null} if none has failed.
+     */
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @return the number of reloads that found a change.
+     */
+    public long getReloadCount() {
+        return reloads;
+    }
+
+    /**
+     * @return {@code true} if this has been closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Reload the file now, on this thread, and tell the listeners of any
+     * changes.
+     *
+     * @return the changed values, which may be empty.
+     *
+     * @throws IOException            If an I/O error occurs.
+     * @throws IniFileFormatException If the format of the file does not
+     *                                conform to the general standard.
+     */
+    public synchronized List<IniChange> reload() throws IOException, IniFileFormatException {
+        List<IniChange> changes;
+
+        // Parse the file into a new document, before holding anything up.
+        IniDocument fresh = new IniDocument();
+        IniFile parser = new IniFile(iniFile.path, fresh);
+        parser.memoryMapped = iniFile.memoryMapped;
+        parser.sliceValues = iniFile.sliceValues;
+        parser.interpolate = iniFile.interpolate;
+        parser.schema = iniFile.schema;
+
+        try
+        {
+            parser.loadFile();
+        } catch (IOException | IniFileFormatException | RuntimeException ex)
+        {
+            lastError = ex;
+            throw ex;
+        }
+
+        changes = iniFile.swap(fresh);
+
+        if (!changes.isEmpty())
+        {
+            reloads++;
+
+            for (IniReloadListener listener : listeners)
+            {
+                listener.reloaded(iniFile, changes);
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(IniReloadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Take the events from the {@code key}.
+     *
+     * @return {@code true} if any of them may be for the file.
+     */
+    private boolean isForFile(WatchKey key) {
+        boolean rtn = false;
+        Path name = iniFile.path.getFileName();
+
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context()))
+            {
+                rtn = true;
+            }
+        }
+
+        key.reset();
+        return rtn;
+    }
+
+    /**
+     * The background thread: wait for a change to the file, then for the
+     * changes to stop, then reload.
+     */
+    private void run() {
+        try
+        {
+            while (!closed)
+            {
+                if (!isForFile(watchService.take()))
+                {
+                    continue;
+                }
+
+                WatchKey key;
+
+                while ((key = watchService.poll(delay, NANOSECONDS)) != null)
+                {
+                    isForFile(key);
+                }
+
+                try
+                {
+                    reload();
+                } catch (IOException | IniFileFormatException | RuntimeException ex)
+                {
+                    for (IniReloadListener listener : listeners)
+                    {
+                        listener.failed(ex);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ex)
+        {
+            // Closed.
+        }
+    }
+}
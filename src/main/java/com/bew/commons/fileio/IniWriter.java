@@ -0,0 +1,490 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Writes an {@link IniDocument} out in <u>ini</u> file format, encoded as
+ * UTF-8.
+ * <p>
+ * The output is exactly that of {@link IniFile#saveFile()}. Each part of each
+ * line is encoded straight into a fixed size buffer, without first building
+ * the line as a {@code String}, so writing out even a very large document
+ * creates next to no garbage.
+ * </p><p>
+ * The document can be written to any one of:
+ * </p>
+ * <ul>
+ * <li>an {@link OutputStream}, by {@link #writeTo(OutputStream)},</li>
+ * <li>a {@link WritableByteChannel}, such as a socket or file channel, by
+ * {@link #writeTo(WritableByteChannel)}, or</li>
+ * <li>a {@link ByteBuffer}, such as a mapped file, by
+ * {@link #writeTo(ByteBuffer)}. Use {@link #size()} to find how large it
+ * needs to be.</li>
+ * </ul>
+ * <p>
+ * For example, to send a document down a socket:
+ * </p>
+ * <pre><code>
+ * new IniWriter(iniFile.iniDoc).writeTo(socketChannel);
+ * </code></pre>
+ * <p>
+ * An {@code IniWriter} may be used any number of times, but is not
+ * thread-safe.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ * @version 1.0.24
+ *
+ * @deprecated Moved out to project: BEWFiles.
+ */
+@Deprecated
+public final class IniWriter {
+
+    /**
+     * The size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The encoded text not yet written to the target.
+     */
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+
+    /**
+     * The target channel, or {@code null}.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Holds the characters of a {@code String} being written.
+     */
+    private final char[] chars = new char[1024];
+
+    private final IniDocument iniDoc;
+
+    /**
+     * The target stream, or {@code null}.
+     */
+    private OutputStream out;
+
+    private final boolean paddedEquals;
+
+    /**
+     * The number of bytes in {@link #bytes}.
+     */
+    private int pos;
+
+    /**
+     * The target buffer, or {@code null}.
+     */
+    private ByteBuffer target;
+
+    /**
+     * The number of bytes written to the target so far.
+     */
+    private long written;
+
+    /**
+     * Create a new writer, that uses "=" to separate the key/value data.
+     *
+     * @param iniDoc The document to write.
+     *
+     * @throws NullPointerException If {@code iniDoc} is {@code null}.
+     */
+    public IniWriter(IniDocument iniDoc) {
+        this(iniDoc, false);
+    }
+
+    /**
+     * Create a new writer.
+     *
+     * @param iniDoc       The document to write.
+     * @param paddedEquals As per {@link IniFile#paddedEquals}.
+     *
+     * @throws NullPointerException If {@code iniDoc} is {@code null}.
+     */
+    public IniWriter(IniDocument iniDoc, boolean paddedEquals) {
+        this.iniDoc = Objects.requireNonNull(iniDoc, "iniDoc is null");
+        this.paddedEquals = paddedEquals;
+    }
+
+    /**
+     * @return {@code true} if this writer puts spaces around the "=".
+     */
+    boolean paddedEquals() {
+        return paddedEquals;
+    }
+
+    /**
+     * Works out the number of bytes that the document would be written out
+     * as, by writing it out to nowhere.
+     *
+     * @return the size in bytes.
+     *
+     * @throws UncheckedIOException If an I/O error occurs reading in a
+     *                              section not yet read in by a
+     *                              {@link IniFile#lazyLoad}.
+     */
+    public long size() {
+        try
+        {
+            return writeTo(OutputStream.nullOutputStream());
+        } catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Write the document to the {@code buffer}, from its current position.
+     *
+     * @param buffer The buffer to write to.
+     *
+     * @return the number of bytes written.
+     *
+     * @throws BufferOverflowException If there is not enough room left in the
+     *                                 buffer. Only part of the document will
+     *                                 have been written.
+     */
+    public int writeTo(ByteBuffer buffer) throws BufferOverflowException {
+        try
+        {
+            return (int) writeAll(null, null, buffer);
+        } catch (IOException ex)
+        {
+            // Only thrown by streams and channels.
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Write the document to the {@code out} stream, which is then flushed,
+     * but not closed.
+     *
+     * @param out The stream to write to.
+     *
+     * @return the number of bytes written.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public long writeTo(OutputStream out) throws IOException {
+        long rtn = writeAll(out, null, null);
+        out.flush();
+        return rtn;
+    }
+
+    /**
+     * Write the document to the {@code channel}, which is left open.
+     *
+     * @param channel The channel to write to.
+     *
+     * @return the number of bytes written.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        return writeAll(null, channel, null);
+    }
+
+    /**
+     * Write one {@code section} to the {@code out} stream, without flushing
+     * it. Used by {@link IniFileLayout}, which holds the document's lock.
+     *
+     * @param section The section to write.
+     * @param out     The stream to write to.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void write(IniSection section, OutputStream out) throws IOException {
+        start(out, null, null);
+
+        try
+        {
+            write(section);
+            drain();
+        } finally
+        {
+            this.out = null;
+        }
+    }
+
+    /**
+     * Make sure there is room in {@link #bytes} for {@code count} more bytes.
+     */
+    private void ensure(int count) throws IOException {
+        if (BUFFER_SIZE - pos < count)
+        {
+            drain();
+        }
+    }
+
+    /**
+     * Write out the contents of {@link #bytes} to the target.
+     */
+    private void drain() throws IOException {
+        if (out != null)
+        {
+            out.write(bytes, 0, pos);
+        } else if (channel != null)
+        {
+            ByteBuffer buf = ByteBuffer.wrap(bytes, 0, pos);
+
+            while (buf.hasRemaining())
+            {
+                channel.write(buf);
+            }
+        } else
+        {
+            target.put(bytes, 0, pos);
+        }
+
+        written += pos;
+        pos = 0;
+    }
+
+    /**
+     * Write a whole string, encoded as UTF-8.
+     */
+    private void put(CharSequence text) throws IOException {
+        put(text, 0, text.length());
+    }
+
+    /**
+     * Write part of a string, encoded as UTF-8. As with
+     * {@link java.nio.charset.StandardCharsets#UTF_8}, an unpaired surrogate
+     * is written as "?".
+     */
+    private void put(CharSequence text, int from, int to) throws IOException {
+        int i = from;
+
+        while (i < to)
+        {
+            if (text instanceof String)
+            {
+                // Copy across as much ASCII as will fit, in one go.
+                int count = Math.min(Math.min(to - i, BUFFER_SIZE - pos), chars.length);
+                ((String) text).getChars(i, i + count, chars, 0);
+
+                int n = 0;
+                char ch;
+
+                while (n < count && (ch = chars[n]) < 0x80)
+                {
+                    bytes[pos + n] = (byte) ch;
+                    n++;
+                }
+
+                pos += n;
+                i += n;
+
+                if (i == to)
+                {
+                    break;
+                }
+            }
+
+            i = putChar(text, i, to);
+        }
+    }
+
+    /**
+     * Write a single ASCII character.
+     */
+    private void put(char ch) throws IOException {
+        if (pos == BUFFER_SIZE)
+        {
+            drain();
+        }
+
+        bytes[pos++] = (byte) ch;
+    }
+
+    /**
+     * Write one character, or surrogate pair, of the {@code text}.
+     *
+     * @return the index of the next character.
+     */
+    private int putChar(CharSequence text, int i, int to) throws IOException {
+        char ch = text.charAt(i++);
+        ensure(4);
+
+        if (ch < 0x80)
+        {
+            bytes[pos++] = (byte) ch;
+        } else if (ch < 0x800)
+        {
+            bytes[pos++] = (byte) (0xC0 | ch >> 6);
+            bytes[pos++] = (byte) (0x80 | ch & 0x3F);
+        } else if (!Character.isSurrogate(ch))
+        {
+            bytes[pos++] = (byte) (0xE0 | ch >> 12);
+            bytes[pos++] = (byte) (0x80 | ch >> 6 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | ch & 0x3F);
+        } else if (Character.isHighSurrogate(ch) && i < to && Character.isLowSurrogate(text.charAt(i)))
+        {
+            int cp = Character.toCodePoint(ch, text.charAt(i++));
+            bytes[pos++] = (byte) (0xF0 | cp >> 18);
+            bytes[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+            bytes[pos++] = (byte) (0x80 | cp & 0x3F);
+        } else
+        {
+            bytes[pos++] = (byte) '?';
+        }
+
+        return i;
+    }
+
+    /**
+     * Set the target, ready to write.
+     */
+    private void start(OutputStream out, WritableByteChannel channel, ByteBuffer target) {
+        this.out = out;
+        this.channel = channel;
+        this.target = target;
+        pos = 0;
+        written = 0L;
+    }
+
+    /**
+     * Write the whole document to the target, holding off any changes to it
+     * meanwhile.
+     *
+     * @return the number of bytes written.
+     */
+    private long writeAll(OutputStream out, WritableByteChannel channel, ByteBuffer target)
+            throws IOException {
+
+        start(out, channel, target);
+        iniDoc.lockAll();
+
+        try
+        {
+            for (IniSection section : iniDoc.entries.values())
+            {
+                write(section);
+            }
+
+            drain();
+            return written;
+        } catch (UncheckedIOException ex)
+        {
+            throw ex.getCause();
+        } finally
+        {
+            iniDoc.unlockAll();
+            this.out = null;
+            this.channel = null;
+            this.target = null;
+        }
+    }
+
+    /**
+     * Write one section: its header (unless it is the global section), then
+     * its properties, with the standalone comments in their places.
+     */
+    private void write(IniSection section) throws IOException {
+        if (section.key() != null)
+        {
+            put('\n');
+
+            if (section.comment() != null)
+            {
+                put(section.comment());
+                put('\n');
+            }
+
+            put('[');
+            put(section.key());
+            put(']');
+            put('\n');
+        }
+
+        Iterator<IniSection.Standalone> comments = section.standalone().iterator();
+        IniSection.Standalone comment = comments.hasNext() ? comments.next() : null;
+
+        for (IniEntry kv : section.value().values())
+        {
+            // Any standalone comments before this key?
+            while (comment != null && comment.after <= kv.order)
+            {
+                put(comment.comment());
+                put('\n');
+                comment = comments.hasNext() ? comments.next() : null;
+            }
+
+            if (kv.comment() != null)
+            {
+                put(kv.comment());
+                put('\n');
+            }
+
+            writeProperty(kv.key(), kv.text());
+        }
+
+        while (comment != null)
+        {
+            put(comment.comment());
+            put('\n');
+            comment = comments.hasNext() ? comments.next() : null;
+        }
+    }
+
+    /**
+     * Write a "key=value" line. With no value, the line is stripped of
+     * leading and trailing white space, leaving just "key=" (or "key =").
+     */
+    private void writeProperty(String key, CharSequence value) throws IOException {
+        if (value == null || value.length() == 0)
+        {
+            int from = 0;
+
+            while (from < key.length() && Character.isWhitespace(key.charAt(from)))
+            {
+                from++;
+            }
+
+            if (from == key.length())
+            {
+                put('=');
+            } else
+            {
+                put(key, from, key.length());
+                put(paddedEquals ? " =" : "=");
+            }
+        } else
+        {
+            put(key);
+            put(paddedEquals ? " = " : "=");
+            put(value);
+        }
+
+        put('\n');
+    }
+}
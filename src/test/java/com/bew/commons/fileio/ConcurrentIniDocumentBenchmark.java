@@ -0,0 +1,167 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Multi-threaded throughput of {@link ConcurrentIniDocument}, compared with a
+ * plain {@link IniDocument} guarded by a single lock.
+ * <p>
+ * Each thread works mostly on its own section, with {@code writePercent} of
+ * its operations being writes. The {@link #main(String[])} method runs the
+ * benchmarks once for each thread count, from 1 up to the number of available
+ * processors, so that the scaling (or contention) can be seen.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.ConcurrentIniDocumentBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ConcurrentIniDocumentBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 64;
+
+    /**
+     * Run the benchmarks for 1 to N threads.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentIniDocumentBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+
+    @Benchmark
+    public int concurrent(Documents docs, Worker worker) {
+        if (worker.nextIsWrite())
+        {
+            docs.concurrent.setInt(worker.section, worker.nextKey(), worker.counter);
+            return 0;
+        } else
+        {
+            return docs.concurrent.getInt(worker.section, worker.nextKey(), 0);
+        }
+    }
+
+    @Benchmark
+    public int locked(Documents docs, Worker worker) {
+        synchronized (docs.locked)
+        {
+            if (worker.nextIsWrite())
+            {
+                docs.locked.setInt(worker.section, worker.nextKey(), worker.counter);
+                return 0;
+            } else
+            {
+                return docs.locked.getInt(worker.section, worker.nextKey(), 0);
+            }
+        }
+    }
+
+    /**
+     * The shared documents.
+     */
+    @State(Scope.Benchmark)
+    public static class Documents {
+
+        final ConcurrentIniDocument concurrent = new ConcurrentIniDocument();
+        final IniDocument locked = new IniDocument();
+        final AtomicInteger nextSection = new AtomicInteger();
+
+        @Setup
+        public void setup() {
+            for (int s = 0; s < SECTIONS; s++)
+            {
+                for (int k = 0; k < KEYS; k++)
+                {
+                    concurrent.setInt("section" + s, "key" + k, k);
+                    locked.setInt("section" + s, "key" + k, k);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per thread state.
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+
+        @Param(
+                {
+                    "0", "10", "50"
+                })
+        public int writePercent;
+
+        int counter;
+        String section;
+        private String[] keys;
+
+        @Setup
+        public void setup(Documents docs) {
+            section = "section" + (docs.nextSection.getAndIncrement() % SECTIONS);
+            keys = new String[KEYS];
+
+            for (int k = 0; k < KEYS; k++)
+            {
+                keys[k] = "key" + k;
+            }
+        }
+
+        String nextKey() {
+            return keys[counter % KEYS];
+        }
+
+        boolean nextIsWrite() {
+            return (++counter % 100) < writePercent;
+        }
+    }
+}
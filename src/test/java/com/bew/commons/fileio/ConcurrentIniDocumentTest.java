@@ -0,0 +1,218 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.InvalidParameterValueException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class ConcurrentIniDocumentTest {
+
+    private static final int KEYS = 50;
+    private static final int ROUNDS = 200;
+    private static final int SECTIONS = 100;
+    private static final int THREADS = 4;
+
+    /**
+     * Testing the inherited single threaded behaviour, of class
+     * ConcurrentIniDocument.
+     */
+    @Test
+    public void testSingleThreaded() {
+        System.out.println("testSingleThreaded");
+        ConcurrentIniDocument iniDoc = new ConcurrentIniDocument(3);
+
+        iniDoc.setInt("a", "int", 12);
+        iniDoc.setStringG("global", "value");
+        iniDoc.setSection("b", "# Section b");
+        assertDoesNotThrow(() -> iniDoc.setComment("b", "key", "; A comment"));
+
+        assertEquals(12, iniDoc.getInt("a", "int", 0));
+        assertEquals("value", iniDoc.getStringG("global", null));
+        assertEquals("# Section b", iniDoc.getSectionComment("b"));
+        assertEquals("; A comment", iniDoc.getComment("b", "key"));
+        assertEquals(3, iniDoc.getSections().size());
+        assertTrue(iniDoc.containsKey("a", "int"));
+
+        iniDoc.removeKey("a", "int");
+        iniDoc.removeSection("b");
+        assertEquals(0, iniDoc.getInt("a", "int", 0));
+        assertNull(iniDoc.getSection("b"));
+
+        assertThrows(InvalidParameterValueException.class, () -> iniDoc.setComment("a", "k", "bad"));
+        assertThrows(InvalidParameterValueException.class, () -> new ConcurrentIniDocument(0));
+    }
+
+    /**
+     * Testing that concurrent writers of separate sections, and readers of
+     * all sections, see consistent values, of class ConcurrentIniDocument.
+     */
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        System.out.println("testConcurrentAccess");
+        ConcurrentIniDocument iniDoc = new ConcurrentIniDocument();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try
+        {
+            for (int t = 0; t < THREADS; t++)
+            {
+                String section = "section" + t;
+
+                futures.add(executor.submit(() ->
+                {
+                    for (int round = 1; round <= ROUNDS; round++)
+                    {
+                        for (int k = 0; k < KEYS; k++)
+                        {
+                            iniDoc.setInt(section, "key" + k, round);
+                        }
+                    }
+                }));
+
+                futures.add(executor.submit(() ->
+                {
+                    int last = 0;
+
+                    for (int i = 0; i < ROUNDS * KEYS; i++)
+                    {
+                        // Values only ever go up, as the writer works through
+                        // its rounds.
+                        int value = iniDoc.getInt(section, "key0", 0);
+                        assertTrue(value >= last);
+                        last = value;
+                        new IniSnapshot(iniDoc);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures)
+            {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally
+        {
+            executor.shutdownNow();
+        }
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                assertEquals(ROUNDS, iniDoc.getInt("section" + t, "key" + k, 0));
+            }
+        }
+
+        assertEquals(THREADS + 1, iniDoc.getSections().size());
+    }
+
+    /**
+     * Testing that readers keep running while a large document is reloaded,
+     * of class ConcurrentIniDocument.
+     */
+    @Test
+    public void testReplaceWith() throws Exception {
+        System.out.println("testReplaceWith");
+        ConcurrentIniDocument iniDoc = new ConcurrentIniDocument();
+        IniDocument fresh = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS * 20; k++)
+            {
+                iniDoc.setInt("section" + s, "key" + k, 1);
+                fresh.setInt("section" + s, "key" + k, 2);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch running = new CountDownLatch(1);
+
+        try
+        {
+            Future<Integer> reader = executor.submit(() ->
+            {
+                int last = 1;
+                int reads = 0;
+
+                while (!done.get())
+                {
+                    // Either the old contents, or the new, never a mixture.
+                    int value = iniDoc.getInt("section50", "key500", 0);
+                    assertTrue(value == last || value == 2);
+                    last = value;
+                    reads++;
+                    running.countDown();
+                }
+
+                return reads;
+            });
+
+            // Readers are not held off while the listeners are told.
+            iniDoc.addKeyListener(new IniDocument.KeyListener()
+            {
+                @Override
+                public void changed(String section, String key, IniEntry kv) {
+                }
+
+                @Override
+                public void replaced() {
+                    assertEquals(2, assertDoesNotThrow(() ->
+                    {
+                        return executor.submit(() -> iniDoc.getInt("section0", "key0", 0))
+                                .get(10, TimeUnit.SECONDS);
+                    }));
+                }
+            });
+
+            running.await();
+            List<IniChange> changes = new ArrayList<>();
+            assertTrue(iniDoc.replaceWith(fresh, changes));
+            assertEquals(SECTIONS * KEYS * 20, changes.size());
+
+            done.set(true);
+            assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+        } finally
+        {
+            done.set(true);
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, iniDoc.getInt("section99", "key999", 0));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of loading a large file at startup: parsing it, against loading its
+ * compiled copy with {@link IniFile#binaryCache}, with and without
+ * {@link IniFile#lazyLoad} (reading one value), against mapping the compiled
+ * copy with {@link IniBinary#open(Path)} and reading one value.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniBinaryBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniBinaryBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 1000;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniBinaryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private Path bin;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, IniFileFormatException {
+        file = Files.createTempFile("IniBinaryBenchmark", ".ini");
+        bin = file.resolveSibling(file.getFileName() + ".bin");
+        IniFile iniFile = new IniFile(file);
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                iniFile.iniDoc.setString("section" + s, "key" + k, "value " + s + "." + k);
+            }
+        }
+
+        iniFile.saveFile();
+
+        // Compile it.
+        iniFile = new IniFile(file);
+        iniFile.binaryCache = true;
+        iniFile.loadFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(bin);
+    }
+
+    @Benchmark
+    public IniFile binaryCache() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.binaryCache = true;
+        return iniFile.loadFile();
+    }
+
+    @Benchmark
+    public String binaryCacheLazy() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.binaryCache = true;
+        iniFile.lazyLoad = true;
+        return iniFile.loadFile().iniDoc.getString("section500", "key50", null);
+    }
+
+    @Benchmark
+    public String mapped() throws IOException {
+        return IniBinary.open(bin).getString("section500", "key50", null);
+    }
+
+    @Benchmark
+    public IniFile parse() throws IOException, IniFileFormatException {
+        return new IniFile(file).loadFile();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniBinaryTest {
+
+    private static final Path PATH = Path.of("src/test/resources/Test-orig.ini");
+
+    /**
+     * Test of load method, of class IniBinary.
+     */
+    @Test
+    public void testLoad() {
+        System.out.println("testLoad");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniBinaryTest", ".bin");
+        });
+
+        try
+        {
+            IniDocument expected = assertDoesNotThrow(() ->
+            {
+                return new IniFile(PATH).loadFile().iniDoc;
+            });
+            expected.setString("unicode", "kéy €", "välue 😀");
+            expected.setComment("unicode", "; 99", "; Standalone");
+            assertDoesNotThrow(() -> IniBinary.write(expected, file));
+
+            IniDocument instance = new IniDocument();
+            assertDoesNotThrow(() -> IniBinary.open(file)).load(instance);
+            assertArrayEquals(bytes(expected), bytes(instance));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+            });
+        }
+    }
+
+    /**
+     * Test of the query methods of class IniBinary, on the mapped file.
+     */
+    @Test
+    public void testOpen() {
+        System.out.println("testOpen");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniBinaryTest", ".bin");
+        });
+
+        try
+        {
+            IniDocument iniDoc = assertDoesNotThrow(() ->
+            {
+                return new IniFile(PATH).loadFile().iniDoc;
+            });
+
+            for (int i = 0; i < 1000; i++)
+            {
+                iniDoc.setString("section" + i % 10, "key" + i, "value " + i);
+            }
+
+            assertDoesNotThrow(() -> IniBinary.write(iniDoc, file));
+            IniBinary instance = assertDoesNotThrow(() -> IniBinary.open(file));
+
+            assertEquals(Arrays.asList(null, "others", "numbers", "section", "section0", "section1",
+                                       "section2", "section3", "section4", "section5", "section6",
+                                       "section7", "section8", "section9"),
+                         instance.getSections());
+            assertTrue(instance.containsSection(null));
+            assertTrue(instance.containsSection("numbers"));
+            assertFalse(instance.containsSection("Numbers"));
+            assertEquals("; The numbers racket is noisy.", instance.getSectionComment("numbers"));
+
+            assertEquals("Hello World", instance.getString("others", "s1", null));
+            assertEquals("value 567", instance.getString("section7", "key567", null));
+            assertEquals("default", instance.getString("section6", "key567", "default"));
+            assertEquals("", instance.getString("section", "Bye now", "default"));
+            assertEquals("default", instance.getString("missing", "key", "default"));
+            assertTrue(instance.containsKey("section", "Bye now"));
+            assertFalse(instance.containsKey("section", "bye now"));
+            assertEquals("# This is the long but not the short of it.", instance.getComment("numbers", "long"));
+            assertNull(instance.getComment("numbers", "int"));
+            assertEquals(List.of("double", "float", "int", "long"), instance.getKeys("numbers"));
+            assertEquals(List.of(), instance.getKeys("missing"));
+
+            assertThrows(IOException.class, () -> IniBinary.open(PATH));
+
+            // Corrupt, but complete: the number of key slots, then a string
+            // number.
+            byte[] good = assertDoesNotThrow(() -> Files.readAllBytes(file));
+
+            for (int offset : new int[]
+            {
+                52, 56
+            })
+            {
+                byte[] bad = good.clone();
+                bad[offset] = 0x7F;
+                assertDoesNotThrow(() -> Files.write(file, bad));
+                assertThrows(IOException.class, () -> IniBinary.open(file));
+            }
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+            });
+        }
+    }
+
+    private static byte[] bytes(IniDocument iniDoc) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertDoesNotThrow(() -> new IniWriter(iniDoc).writeTo(out));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of binding thousands of per-employee sections, as in {@code Test.ini},
+ * with {@link IniBinder}, onto a record and onto a plain class, against
+ * hand-written code.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniBinderBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniBinderBenchmark {
+
+    private static final int EMPLOYEES = 5000;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniBinderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument iniDoc;
+    private final List<String> names = new ArrayList<>(EMPLOYEES);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        iniDoc = new IniDocument();
+
+        for (int i = 0; i < EMPLOYEES; i++)
+        {
+            String name = "Employee " + i;
+            names.add(name);
+            iniDoc.setString("Employees", String.format("%04d", i), name);
+            iniDoc.setString(name, "Address", i + " Anders Ave");
+            iniDoc.setString(name, "Suburb", "Jinville");
+            iniDoc.setString(name, "State", "SA");
+            iniDoc.setString(name, "Phone", "0412-345-395");
+            iniDoc.setString(name, "Comments", "Good worker");
+            iniDoc.setString(name, "Age", Integer.toString(20 + i % 40));
+        }
+    }
+
+    @Benchmark
+    public List<Employee> handWritten() {
+        List<Employee> rtn = new ArrayList<>(EMPLOYEES);
+
+        for (String name : names)
+        {
+            rtn.add(new Employee(iniDoc.getString(name, "Address", null),
+                                 iniDoc.getString(name, "Suburb", null),
+                                 iniDoc.getString(name, "State", null),
+                                 iniDoc.getString(name, "Phone", null),
+                                 iniDoc.getString(name, "Comments", null),
+                                 iniDoc.getInt(name, "Age", 0)));
+        }
+
+        return rtn;
+    }
+
+    @Benchmark
+    public List<EmployeeBean> pojo() {
+        IniBinder<EmployeeBean> binder = IniBinder.of(EmployeeBean.class);
+        List<EmployeeBean> rtn = new ArrayList<>(EMPLOYEES);
+
+        for (String name : names)
+        {
+            rtn.add(binder.bind(iniDoc, name));
+        }
+
+        return rtn;
+    }
+
+    @Benchmark
+    public List<Employee> record() {
+        IniBinder<Employee> binder = IniBinder.of(Employee.class);
+        List<Employee> rtn = new ArrayList<>(EMPLOYEES);
+
+        for (String name : names)
+        {
+            rtn.add(binder.bind(iniDoc, name));
+        }
+
+        return rtn;
+    }
+
+    public record Employee(String address, String suburb, String state, String phone, String comments, int age) {
+
+    }
+
+    public static class EmployeeBean {
+
+        private String address;
+        private int age;
+        private String comments;
+        private String phone;
+        private String state;
+        private String suburb;
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public void setComments(String comments) {
+            this.comments = comments;
+        }
+
+        public void setPhone(String phone) {
+            this.phone = phone;
+        }
+
+        public void setState(String state) {
+            this.state = state;
+        }
+
+        public void setSuburb(String suburb) {
+            this.suburb = suburb;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniBinderTest {
+
+    private static final Path PATH = Path.of("src/test/resources/Test-orig.ini");
+
+    /**
+     * Test of bind method, of class IniBinder, onto a record.
+     */
+    @Test
+    public void testBind_Record() {
+        System.out.println("testBind_Record");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setString("Fred Smith", "Address", "10 Anders Ave");
+        iniDoc.setString("Fred Smith", "Suburb", "Jinville");
+        iniDoc.setString("Fred Smith", "Age", "42");
+        iniDoc.setString("Fred Smith", "Rating", " HIGH");
+        iniDoc.setString("Fred Smith", "Unknown", "ignored");
+        iniDoc.setSection("Nobody");
+
+        IniBinder<Employee> instance = IniBinder.of(Employee.class);
+        assertSame(instance, IniBinder.of(Employee.class));
+        assertEquals(new Employee("10 Anders Ave", "Jinville", 42, 0L, false, Rating.HIGH),
+                     instance.bind(iniDoc, "Fred Smith"));
+        assertEquals(new Employee(null, null, 0, 0L, false, null), instance.bind(iniDoc, "Nobody"));
+        assertNull(instance.bind(iniDoc, "Missing"));
+
+        iniDoc.setString("Fred Smith", "Age", "old");
+        assertThrows(NumberFormatException.class, () -> instance.bind(iniDoc, "Fred Smith"));
+        assertThrows(IllegalArgumentException.class, () -> IniBinder.of(Unbindable.class));
+    }
+
+    /**
+     * Test of bind method, of class IniBinder, onto a plain class.
+     */
+    @Test
+    public void testBind_Pojo() {
+        System.out.println("testBind_Pojo");
+        IniDocument iniDoc = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile().iniDoc;
+        });
+        Numbers numbers = IniBinder.of(Numbers.class).bind(iniDoc, "numbers");
+        assertEquals(11.1, numbers.dbl);
+        assertEquals(12.3F, numbers.flt);
+        assertEquals(34, numbers.integer);
+        assertEquals(1, numbers.setterCalls);
+
+        Others others = IniBinder.of(Others.class).bind(iniDoc, "others");
+        assertEquals("Hello World", others.s1);
+        assertEquals(Boolean.TRUE, others.flag);
+        assertEquals("unset", others.home);
+    }
+
+    /**
+     * Test of bind method, of class IniBinder, onto types narrower than int.
+     */
+    @Test
+    public void testBind_Narrow() {
+        System.out.println("testBind_Narrow");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setString("small", "count", "-32768");
+        iniDoc.setString("small", "level", "127");
+
+        IniBinder<Small> instance = IniBinder.of(Small.class);
+        assertEquals(new Small((short) -32768, (byte) 127), instance.bind(iniDoc, "small"));
+
+        iniDoc.setString("small", "count", "70000");
+        assertThrows(NumberFormatException.class, () -> instance.bind(iniDoc, "small"));
+        iniDoc.setString("small", "count", "0");
+        iniDoc.setString("small", "level", "128");
+        assertThrows(NumberFormatException.class, () -> instance.bind(iniDoc, "small"));
+    }
+
+    /**
+     * Bound onto, through setters.
+     */
+    public static class Numbers {
+
+        double dbl;
+        float flt;
+        int integer;
+        int setterCalls;
+
+        public void setDouble(double value) {
+            dbl = value;
+        }
+
+        private void setFloat(float value) {
+            flt = value;
+        }
+
+        public void setInt(int value) {
+            setterCalls++;
+            integer = value;
+        }
+    }
+
+    /**
+     * Bound onto, including from a superclass.
+     */
+    public static class Others extends Base {
+
+        Boolean flag;
+        final String home = "unset";
+
+        void setBoolean(Boolean value) {
+            flag = value;
+        }
+    }
+
+    public static class Base {
+
+        String s1;
+    }
+
+    public enum Rating {
+        LOW, HIGH
+    }
+
+    public record Employee(String address, String suburb, int age, long id, boolean manager, Rating rating) {
+
+    }
+
+    public record Small(short count, Byte level) {
+
+    }
+
+    public record Unbindable(Object value) {
+
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of looking up sections and keys in an {@link IniDocument}
+ * as the number of sections, and keys per section, grows.
+ * <p>
+ * With the hash indexed storage, the average time per operation should stay
+ * flat across all of the document sizes.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniDocumentLookupBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniDocumentLookupBenchmark {
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniDocumentLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "10", "1000", "5000"
+            })
+    public int sections;
+
+    @Param(
+            {
+                "10", "200"
+            })
+    public int keys;
+
+    private IniDocument iniDoc;
+    private String firstSection;
+    private String lastKey;
+    private String lastSection;
+
+    @Setup
+    public void setup() {
+        iniDoc = new IniDocument();
+
+        for (int s = 0; s < sections; s++)
+        {
+            String section = "section" + s;
+
+            for (int k = 0; k < keys; k++)
+            {
+                iniDoc.setInt(section, "key" + k, k);
+            }
+        }
+
+        firstSection = "section0";
+        lastSection = "section" + (sections - 1);
+        lastKey = "key" + (keys - 1);
+    }
+
+    @Benchmark
+    public boolean containsSection() {
+        return iniDoc.containsSection(lastSection);
+    }
+
+    @Benchmark
+    public String getStringFirstSection() {
+        return iniDoc.getString(firstSection, lastKey, null);
+    }
+
+    @Benchmark
+    public String getStringLastSection() {
+        return iniDoc.getString(lastSection, lastKey, null);
+    }
+
+    @Benchmark
+    public String setStringLastSection() {
+        return iniDoc.setString(lastSection, lastKey, "value");
+    }
+}
@@ -20,7 +20,16 @@ package com.bew.commons.fileio;
 
 import com.bew.commons.InvalidParameterValueException;
 import com.bew.commons.property.IniProperty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -616,6 +625,262 @@ public class IniDocumentTest {
 
         String comment = "This is not a valid comment.";
         assertFalse(IniDocument.validateComment(comment));
+
+        // Must agree with COMMENT_PATTERN.
+        Pattern p = Pattern.compile(IniDocument.COMMENT_PATTERN);
+
+        for (String text : List.of("#", ";", "# ", "#\t", "; x", "#x", " # x", "=# x", "#\n x", "x"))
+        {
+            Matcher m = p.matcher(text);
+            m.find();
+            assertEquals(m.group("Comment") != null, IniDocument.validateComment(text), text);
+        }
+
+        assertFalse(IniDocument.validateComment(""));
+        assertTrue(IniDocument.validateComments(Arrays.asList(TEST_COMMENT, null, "; Another")));
+        assertFalse(IniDocument.validateComments(Arrays.asList(TEST_COMMENT, comment)));
+    }
+
+    /**
+     * Testing that the loading sequence of sections and keys is maintained,
+     * of class IniDocument.
+     */
+    @Test
+    public void testInsertionOrder() {
+        System.out.println("testInsertionOrder");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setString("b", "z", "1");
+        iniDoc.setString("a", "y", "2");
+        iniDoc.setString("b", "x", "3");
+        iniDoc.setString("b", "z", "4");
+        iniDoc.setStringG("w", "5");
+
+        assertEquals(List.of("b", "a"), iniDoc.getSections().subList(1, 3));
+        assertNull(iniDoc.getSections().get(0));
+
+        List<IniProperty<Object>> result = iniDoc.getSection("b");
+        assertEquals(2, result.size());
+        assertEquals("z", result.get(0).key());
+        assertEquals("4", result.get(0).value());
+        assertEquals("x", result.get(1).key());
+
+        iniDoc.removeKey("b", "z");
+        iniDoc.setString("b", "z", "6");
+        result = iniDoc.getSection("b");
+        assertEquals("x", result.get(0).key());
+        assertEquals("z", result.get(1).key());
+
+        iniDoc.removeSection(null);
+        assertTrue(iniDoc.containsKeyG("w"));
+        iniDoc.removeSection("b");
+        assertFalse(iniDoc.containsSection("b"));
+        assertFalse(iniDoc.containsKey("b", "x"));
+    }
+
+    /**
+     * Testing that the cached typed values follow changes to the stored
+     * value, of class IniDocument.
+     */
+    @Test
+    public void testTypedValueCache() {
+        System.out.println("testTypedValueCache");
+        IniDocument iniDoc = new IniDocument();
+        String section = "testTypedValueCache";
+
+        iniDoc.setInt(section, "num", 42);
+        assertEquals(42, iniDoc.getInt(section, "num", 0));
+        assertEquals(42, iniDoc.getInt(section, "num", 0));
+        assertEquals(42L, iniDoc.getLong(section, "num", 0));
+        assertEquals(42.0, iniDoc.getDouble(section, "num", 0));
+        assertEquals(42, iniDoc.getInt(section, "num", 0));
+
+        iniDoc.setString(section, "num", "43");
+        assertEquals(43, iniDoc.getInt(section, "num", 0));
+        iniDoc.setLong(section, "num", 44L);
+        assertEquals(44L, iniDoc.getLong(section, "num", 0));
+        assertEquals(44.0F, iniDoc.getFloat(section, "num", 0));
+
+        iniDoc.setString(section, "num", "not a number");
+        assertThrows(NumberFormatException.class, () -> iniDoc.getInt(section, "num", 0));
+        assertFalse(iniDoc.getBoolean(section, "num", true));
+
+        iniDoc.setBoolean(section, "num", true);
+        assertTrue(iniDoc.getBoolean(section, "num", false));
+
+        iniDoc.setComment(section, "noValue", TEST_COMMENT);
+        assertEquals(7, iniDoc.getInt(section, "noValue", 7));
+    }
+
+    /**
+     * Test of getSectionView, getSectionsView and forEachInSection methods,
+     * of class IniDocument.
+     */
+    @Test
+    public void testViews() {
+        System.out.println("testViews");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setString("b", "z", "1");
+        iniDoc.setString("b", "x", "2");
+
+        Collection<IniProperty<Object>> view = iniDoc.getSectionView("b");
+        Set<String> sections = iniDoc.getSectionsView();
+        assertNull(iniDoc.getSectionView("missing"));
+        assertEquals(2, view.size());
+        assertEquals(Arrays.asList(null, "b"), new ArrayList<>(sections));
+
+        iniDoc.setString("b", "w", "3");
+        iniDoc.setString("a", "v", "4");
+        assertEquals(List.of("z", "x", "w"),
+                     view.stream().map(IniProperty::key).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(null, "b", "a"), new ArrayList<>(sections));
+        assertThrows(UnsupportedOperationException.class, () -> view.clear());
+        assertThrows(UnsupportedOperationException.class, () -> sections.remove("a"));
+
+        List<String> values = new ArrayList<>();
+        assertTrue(iniDoc.forEachInSection("b", p -> values.add((String) p.value())));
+        assertEquals(List.of("1", "2", "3"), values);
+        assertFalse(iniDoc.forEachInSection("missing", p -> values.add(null)));
+        assertEquals(3, values.size());
+    }
+
+    /**
+     * Test of putAll method, of class IniDocument.
+     */
+    @Test
+    public void testPutAll() {
+        System.out.println("testPutAll");
+        IniDocument iniDoc = new IniDocument();
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("z", "1");
+        values.put("y", "2");
+        values.put("x", "3");
+        iniDoc.setString("b", "y", "old", TEST_COMMENT);
+        iniDoc.putAll("b", values, Map.of("x", TEST_COMMENT, "w", TEST_COMMENT));
+
+        assertEquals(List.of("y", "z", "x"), iniDoc.getSection("b").stream()
+                     .map(IniProperty::key).collect(Collectors.toList()));
+        assertEquals("2", iniDoc.getString("b", "y", null));
+        assertNull(iniDoc.getComment("b", "y"));
+        assertEquals(TEST_COMMENT, iniDoc.getComment("b", "x"));
+        assertFalse(iniDoc.containsKey("b", "w"));
+
+        iniDoc.putAll("a", values);
+        assertEquals(List.of("z", "y", "x"), iniDoc.getSection("a").stream()
+                     .map(IniProperty::key).collect(Collectors.toList()));
+        assertEquals(3, iniDoc.getInt("a", "x", 0));
+
+        assertThrows(InvalidParameterValueException.class, () ->
+             {
+                 iniDoc.putAll("c", values, Map.of("z", TEST_COMMENT, "y", "bad"));
+             });
+        assertFalse(iniDoc.containsSection("c"));
+
+        values.put(null, "4");
+        assertThrows(NullPointerException.class, () -> iniDoc.putAll("c", values));
+        assertFalse(iniDoc.containsSection("c"));
+    }
+
+    /**
+     * Test of handle method, of class IniDocument.
+     */
+    @Test
+    public void testHandle() {
+        System.out.println("testHandle");
+        IniDocument iniDoc = new IniDocument();
+        IniHandle handle = iniDoc.handle("a", "num");
+        assertEquals(7, handle.getInt(7));
+        assertNull(handle.getComment());
+        assertThrows(NullPointerException.class, () -> iniDoc.handle("a", null));
+
+        handle.set(42);
+        assertEquals(42, iniDoc.getInt("a", "num", 0));
+        assertEquals(42, handle.getInt(0));
+
+        iniDoc.setString("a", "num", "43", TEST_COMMENT);
+        assertEquals(43L, handle.getLong(0));
+        assertEquals(TEST_COMMENT, handle.getComment());
+        handle.set(true);
+        assertTrue(iniDoc.getBoolean("a", "num", false));
+        assertEquals(TEST_COMMENT, iniDoc.getComment("a", "num"));
+
+        iniDoc.removeKey("a", "num");
+        assertNull(handle.getString(null));
+        iniDoc.setDouble("a", "num", 1.5);
+        assertEquals(1.5, handle.getDouble(0));
+
+        iniDoc.removeSection("a");
+        assertEquals(2.5F, handle.getFloat(2.5F));
+        handle.set("value");
+        assertEquals("value", iniDoc.getString("a", "num", null));
+        assertEquals("a", handle.section());
+        assertEquals("num", handle.key());
+    }
+
+    /**
+     * Test of findKeys method, and the like, of class IniDocument.
+     */
+    @Test
+    public void testFindKeys() {
+        System.out.println("testFindKeys");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setStringG("db.host", "localhost");
+        iniDoc.setString("main", "db.pool.size", "10");
+        iniDoc.setString("main", "db.pool.idle", "2");
+        iniDoc.setString("main", "db.port", "5432");
+        iniDoc.setString("other", "db.pool.size", "20");
+        iniDoc.setString("web.1", "timeout", "30");
+        iniDoc.setString("web.2", "timeout", "60");
+
+        assertEquals(List.of(new IniKey("main", "db.pool.idle"), new IniKey("main", "db.pool.size"),
+                             new IniKey("other", "db.pool.size")),
+                     iniDoc.findKeysWithPrefix("db.pool."));
+        assertEquals(List.of(new IniKey(null, "db.host"), new IniKey("main", "db.port")),
+                     iniDoc.findKeys("db.?o*t"));
+        assertEquals(2, iniDoc.findKeys("*out").size());
+        assertEquals(List.of(new IniKey("main", "db.port")), iniDoc.findKeys("db.port"));
+        assertEquals(List.of(new IniKey("main", "db.pool.idle")), iniDoc.findKeysInRange("db.p", "db.pool.s"));
+        assertEquals(List.of("web.1", "web.2"), iniDoc.findSections("web.?"));
+        assertEquals(List.of("main", "other"), iniDoc.findSectionsInRange(null, "p"));
+        assertEquals(List.of("other"), iniDoc.findSectionsWithPrefix("ot"));
+
+        // Kept up to date.
+        iniDoc.setString("new", "db.pool.max", "50");
+        iniDoc.removeKey("main", "db.pool.idle");
+        iniDoc.removeSection("other");
+        assertEquals(List.of(new IniKey("new", "db.pool.max"), new IniKey("main", "db.pool.size")),
+                     iniDoc.findKeysWithPrefix("db.pool."));
+        assertEquals(List.of("main", "new", "web.1", "web.2"), iniDoc.findSections("*"));
+
+        IniDocument other = new IniDocument();
+        other.setString("x", "db.pool.size", "1");
+        List<IniChange> changes = new ArrayList<>();
+        assertTrue(iniDoc.replaceWith(other, changes));
+        assertTrue(changes.stream().anyMatch(c -> c.type == IniChange.Type.ADDED && "x".equals(c.section)));
+        assertEquals(List.of(new IniKey("x", "db.pool.size")), iniDoc.findKeys("db.*"));
+        assertEquals(List.of("x"), iniDoc.findSectionsInRange(null, null));
+        assertTrue(iniDoc.findKeys("none").isEmpty());
+
+        // Nothing replaced if nothing has changed.
+        IniDocument same = new IniDocument();
+        same.setString("x", "db.pool.size", "1");
+        changes.clear();
+        assertFalse(iniDoc.replaceWith(same, changes));
+        assertTrue(changes.isEmpty());
+        assertEquals(List.of(new IniKey("x", "db.pool.size")), iniDoc.findKeys("db.*"));
+
+        // A "*" in the text is still matched by the wildcard.
+        assertTrue(IniKeyIndex.matches("*a", "*ba"));
+        assertTrue(IniKeyIndex.matches("a*?c", "a*bc"));
+        assertFalse(IniKeyIndex.matches("*a", "*ab"));
+
+        // A key added by its comment alone.
+        assertDoesNotThrow(() ->
+        {
+            iniDoc.setComment("x", "db.pool.min", TEST_COMMENT);
+        });
+        assertTrue(iniDoc.containsKey("x", "db.pool.min"));
+        assertEquals(List.of(new IniKey("x", "db.pool.min"), new IniKey("x", "db.pool.size")),
+                     iniDoc.findKeysWithPrefix("db.pool."));
     }
 
     private class MembersState {
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares repeated reads through the typed getters of {@link IniDocument},
+ * which are served from the cached conversion, against parsing the string
+ * value on every read.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniDocumentTypedGetterBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniDocumentTypedGetterBenchmark {
+
+    private static final String SECTION = "tunables";
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniDocumentTypedGetterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument iniDoc;
+
+    @Setup
+    public void setup() {
+        iniDoc = new IniDocument();
+        iniDoc.setInt(SECTION, "threads", 1_234_567);
+        iniDoc.setLong(SECTION, "timeout", 9_876_543_210L);
+        iniDoc.setDouble(SECTION, "ratio", 0.123456789);
+        iniDoc.setBoolean(SECTION, "enabled", true);
+    }
+
+    @Benchmark
+    public boolean getBoolean() {
+        return iniDoc.getBoolean(SECTION, "enabled", false);
+    }
+
+    @Benchmark
+    public double getDouble() {
+        return iniDoc.getDouble(SECTION, "ratio", 0);
+    }
+
+    @Benchmark
+    public double getDoubleParsed() {
+        return Double.parseDouble(iniDoc.getString(SECTION, "ratio", null));
+    }
+
+    @Benchmark
+    public int getInt() {
+        return iniDoc.getInt(SECTION, "threads", 0);
+    }
+
+    @Benchmark
+    public int getIntParsed() {
+        return Integer.parseInt(iniDoc.getString(SECTION, "threads", null));
+    }
+
+    @Benchmark
+    public long getLong() {
+        return iniDoc.getLong(SECTION, "timeout", 0);
+    }
+
+    @Benchmark
+    public long getLongParsed() {
+        return Long.parseLong(iniDoc.getString(SECTION, "timeout", null));
+    }
+}
@@ -18,16 +18,30 @@
  */
 package com.bew.commons.fileio;
 
+import com.bew.commons.InvalidParameterValueException;
 import com.bew.commons.InvalidProgramStateException;
+import com.bew.commons.property.IniProperty;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -514,6 +528,1040 @@ public class IniFileTest {
              });
     }
 
+    /**
+     * Test of snapshot and update methods, of class IniFile.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("testSnapshot");
+        IniFile instance = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+
+        IniSnapshot first = instance.snapshot();
+        assertSame(first, instance.snapshot());
+        assertEquals(34, first.getInt("numbers", "int", 0));
+        assertEquals(instance.iniDoc.getSections(), first.getSections());
+
+        IniSnapshot second = instance.update(iniDoc ->
+        {
+            iniDoc.setInt("numbers", "int", 35);
+            iniDoc.removeSection("section");
+        });
+        assertSame(second, instance.snapshot());
+        assertEquals(35, second.getInt("numbers", "int", 0));
+        assertFalse(second.containsSection("section"));
+
+        // The earlier snapshot is unchanged.
+        assertEquals(34, first.getInt("numbers", "int", 0));
+        assertTrue(first.containsKey("section", "key"));
+        assertEquals("value", first.getString("section", "key", null));
+        assertThrows(UnsupportedOperationException.class, () ->
+             {
+                 first.getSection("others").clear();
+             });
+
+        // Direct changes are not seen until the next publication.
+        instance.iniDoc.setInt("numbers", "int", 36);
+        assertEquals(35, instance.snapshot().getInt("numbers", "int", 0));
+        assertDoesNotThrow(() ->
+        {
+            instance.mergeFile(PATH);
+        });
+        assertEquals(34, instance.snapshot().getInt("numbers", "int", 0));
+    }
+
+    /**
+     * Test of loadFile method, with memoryMapped set, of class IniFile.
+     */
+    @Test
+    public void testLoadFile_MemoryMapped() {
+        System.out.println("testLoadFile_MemoryMapped");
+        IniFile expected = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+        IniFile instance = new IniFile(PATH);
+        instance.memoryMapped = true;
+        assertDoesNotThrow(() ->
+        {
+            instance.loadFile();
+        });
+        assertTrue(instance.isLoaded());
+        assertEquals(contents(expected.iniDoc), contents(instance.iniDoc));
+
+        // Mixed line endings, multi-byte characters, a line longer than the
+        // initial buffer, and no final line terminator.
+        Path mixed = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(mixed, "# Comment\r\nkey1=\u00e9t\u00e9\r[s\u20ac]\n\n; A\r\n"
+                                         + "long=" + "x".repeat(100_000) + "\rlast = \u4e16\u754c\r");
+            });
+            IniFile reader = assertDoesNotThrow(() ->
+            {
+                return new IniFile(mixed).loadFile();
+            });
+            IniFile mapped = new IniFile(mixed);
+            mapped.memoryMapped = true;
+            assertDoesNotThrow(() ->
+            {
+                mapped.loadFile();
+            });
+            assertEquals(contents(reader.iniDoc), contents(mapped.iniDoc));
+            assertEquals("\u4e16\u754c", mapped.iniDoc.getString("s\u20ac", "last", null));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(mixed);
+            });
+        }
+    }
+
+    /**
+     * Test of loadFile method, with lazyLoad set, of class IniFile.
+     */
+    @Test
+    public void testLoadFile_LazyLoad() {
+        System.out.println("testLoadFile_LazyLoad");
+        IniFile expected = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+        IniFile instance = new IniFile(PATH);
+        instance.lazyLoad = true;
+        assertDoesNotThrow(() ->
+        {
+            instance.loadFile();
+        });
+        assertTrue(instance.isLoaded());
+        assertEquals(expected.iniDoc.getSections(), instance.iniDoc.getSections());
+
+        // Only the "numbers" section is read in.
+        assertEquals(34, instance.iniDoc.getInt("numbers", "int", 0));
+        assertEquals(contents(expected.iniDoc), contents(instance.iniDoc));
+
+        // A change, before the other sections are read in, is saved with them.
+        IniFile changed = new IniFile(PATH);
+        changed.lazyLoad = true;
+        assertDoesNotThrow(() ->
+        {
+            changed.loadFile();
+            changed.iniDoc.setInt("numbers", "int", 35);
+            changed.saveFile();
+        });
+        expected.iniDoc.setInt("numbers", "int", 35);
+        IniFile reloaded = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+        assertEquals(contents(expected.iniDoc), contents(reloaded.iniDoc));
+
+        // Bad lines are still found at load time.
+        Path bad = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            // Repeated and padded section names, and standalone comments.
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(bad, "g=1\r\n# One\r\n# Two\r\n[ a ]\r\nx=1\n# Three\n\n[b]\n"
+                                       + "[a]\ny=2\n; Four\n[ a ]\nz=3\n# Five\r\n# Six");
+            });
+            IniFile eager = assertDoesNotThrow(() ->
+            {
+                return new IniFile(bad).loadFile();
+            });
+            IniFile tricky = new IniFile(bad);
+            tricky.lazyLoad = true;
+            assertDoesNotThrow(() ->
+            {
+                tricky.loadFile();
+            });
+            assertEquals(contents(eager.iniDoc), contents(tricky.iniDoc));
+
+            // Removing a section not yet read in does not read it in.
+            IniFile unread = new IniFile(bad);
+            unread.lazyLoad = true;
+            List<String> events = new ArrayList<>();
+            assertDoesNotThrow(() ->
+            {
+                unread.loadFile();
+            });
+            unread.iniDoc.addKeyListener(new IniDocument.KeyListener()
+            {
+                @Override
+                public void changed(String section, String key, IniEntry kv) {
+                    events.add(section + "." + key);
+                }
+
+                @Override
+                public void replaced() {
+                }
+
+                @Override
+                public void sectionRemoved(String section) {
+                    events.add(section);
+                }
+            });
+            // Reading it in now would fail.
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(bad, "");
+            });
+            unread.iniDoc.removeSection("a");
+            assertEquals(List.of("a"), events);
+            assertFalse(unread.iniDoc.containsSection("a"));
+
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(bad, "[a]\nkey=value\n\n# Comment\n[b]\nNot valid\n");
+            });
+            IniFile lazy = new IniFile(bad);
+            lazy.lazyLoad = true;
+            IniFileFormatException ex = assertThrows(IniFileFormatException.class, () ->
+                                                 {
+                                                     lazy.loadFile();
+                                                 });
+            assertEquals("Unknown entry (line# 6): Not valid", ex.getMessage());
+            assertEquals("# Comment", lazy.iniDoc.getSectionComment("b"));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(bad);
+            });
+        }
+    }
+
+    /**
+     * Test of loadFile method, with binaryCache set, of class IniFile.
+     */
+    @Test
+    public void testLoadFile_BinaryCache() {
+        System.out.println("testLoadFile_BinaryCache");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+        Path bin = file.resolveSibling(file.getFileName() + ".bin");
+
+        try
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.copy(PATH, file, StandardCopyOption.REPLACE_EXISTING);
+            });
+            IniFile expected = assertDoesNotThrow(() ->
+            {
+                return new IniFile(file).loadFile();
+            });
+
+            // Parsed, then compiled.
+            IniFile instance = new IniFile(file);
+            instance.binaryCache = true;
+            assertDoesNotThrow(() ->
+            {
+                instance.loadFile();
+            });
+            assertTrue(instance.isLoaded());
+            assertTrue(Files.exists(bin));
+            assertEquals(contents(expected.iniDoc), contents(instance.iniDoc));
+
+            // Loaded from the compiled copy, while the file looks unchanged.
+            FileTime modified = assertDoesNotThrow(() -> Files.getLastModifiedTime(file));
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(file, Files.readString(file).replace("Hello World", "Hello Earth"));
+                Files.setLastModifiedTime(file, modified);
+            });
+            IniFile cached = new IniFile(file);
+            cached.binaryCache = true;
+            assertDoesNotThrow(() ->
+            {
+                cached.loadFile();
+            });
+            assertEquals(contents(expected.iniDoc), contents(cached.iniDoc));
+
+            IniFile lazy = new IniFile(file);
+            lazy.binaryCache = true;
+            lazy.lazyLoad = true;
+            assertDoesNotThrow(() ->
+            {
+                lazy.loadFile();
+            });
+            assertEquals(contents(expected.iniDoc), contents(lazy.iniDoc));
+
+            // Parsed, and compiled again, once it has changed.
+            assertDoesNotThrow(() ->
+            {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+            });
+            IniFile changed = new IniFile(file);
+            changed.binaryCache = true;
+            assertDoesNotThrow(() ->
+            {
+                changed.loadFile();
+            });
+            assertEquals("Hello Earth", changed.iniDoc.getString("others", "s1", null));
+            assertEquals("Hello Earth", assertDoesNotThrow(() -> IniBinary.open(bin)).getString("others", "s1", null));
+
+            // A damaged compiled copy is replaced.
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(bin, "Not compiled");
+            });
+            IniFile damaged = new IniFile(file);
+            damaged.binaryCache = true;
+            assertDoesNotThrow(() ->
+            {
+                damaged.loadFile();
+            });
+            assertEquals("Hello Earth", damaged.iniDoc.getString("others", "s1", null));
+            assertDoesNotThrow(() -> IniBinary.open(bin));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(bin);
+            });
+        }
+    }
+
+    /**
+     * Test of loadFile and mergeFile methods, with interpolate set, of class
+     * IniFile.
+     */
+    @Test
+    public void testLoadFile_Interpolate() {
+        System.out.println("testLoadFile_Interpolate");
+        List<Path> files = new ArrayList<>();
+
+        try
+        {
+            for (String text : new String[]
+            {
+                "root=/opt/app\n[paths]\nbin=${:root}/bin\ntool=${bin}/tool $$HOME ${missing} ${x\n"
+                + "[server]\nport=80${paths:digit}\n[paths]\ndigit=8\n",
+                "root=/usr\n[paths]\ndigit=9\n",
+                "[a]\nx=${y}\ny=${a:x}!\n",
+                "root=/opt/app\n[paths]\nbin=${:root}/bin\n"
+            })
+            {
+                files.add(assertDoesNotThrow(() ->
+                {
+                    Path file = Files.createTempFile("IniFileTest", ".ini");
+                    Files.writeString(file, text);
+                    return file;
+                }));
+            }
+
+            // Read as written, unless set.
+            IniFile plain = assertDoesNotThrow(() ->
+            {
+                return new IniFile(files.get(0)).loadFile();
+            });
+            assertEquals("${:root}/bin", plain.iniDoc.getString("paths", "bin", null));
+
+            IniFile instance = new IniFile(files.get(0), new ConcurrentIniDocument());
+            instance.interpolate = true;
+            assertDoesNotThrow(() ->
+            {
+                instance.loadFile();
+            });
+            IniDocument iniDoc = instance.iniDoc;
+            IniHandle tool = iniDoc.handle("paths", "tool");
+            assertEquals("/opt/app/bin", iniDoc.getString("paths", "bin", null));
+            assertEquals("/opt/app/bin/tool $HOME ${missing} ${x", tool.getString(null));
+            assertEquals(808, iniDoc.getInt("server", "port", 0));
+            assertEquals("/opt/app/bin", instance.snapshot().getString("paths", "bin", null));
+
+            // Merging, or setting, a property expands its dependents again.
+            assertDoesNotThrow(() ->
+            {
+                instance.mergeFile(files.get(1));
+            });
+            assertEquals("/usr/bin/tool $HOME ${missing} ${x", tool.getString(null));
+            assertEquals(809, iniDoc.getInt("server", "port", 0));
+            assertEquals("/usr/bin", instance.snapshot().getString("paths", "bin", null));
+            iniDoc.setString("paths", "missing", "found");
+            assertEquals("/usr/bin/tool $HOME found ${x", tool.getString(null));
+            iniDoc.setStringG("root", "/home");
+            assertEquals("/home/bin", iniDoc.getString("paths", "bin", null));
+            iniDoc.removeKey("paths", "digit");
+            assertEquals("80${paths:digit}", iniDoc.getString("server", "port", null));
+
+            // Saved as written.
+            assertEquals("${:root}/bin", iniDoc.getSection("paths").get(0).value());
+
+            // A value that refers back to itself.
+            IniFileFormatException ex = assertThrows(IniFileFormatException.class, () -> instance.mergeFile(files.get(2)));
+            assertEquals("Circular reference: [a]x -> [a]y -> [a]x", ex.getMessage());
+            assertEquals("${a:x}!", iniDoc.getString("a", "y", null));
+            iniDoc.setString("a", "y", "z");
+            assertEquals("z", iniDoc.getString("a", "x", null));
+
+            // Reloaded as loaded, and checked before being swapped in.
+            IniFile watched = new IniFile(files.get(3), new ConcurrentIniDocument());
+            watched.interpolate = true;
+            IniWatcher watcher = assertDoesNotThrow(() ->
+            {
+                return watched.loadFile().watch(1, TimeUnit.DAYS);
+            });
+
+            try
+            {
+                assertDoesNotThrow(() ->
+                {
+                    Files.writeString(files.get(3), "root=/usr\n[paths]\nbin=${:root}/bin\n");
+                    watcher.reload();
+                });
+                assertEquals("/usr/bin", watched.iniDoc.getString("paths", "bin", null));
+                watched.iniDoc.setStringG("root", "/home");
+                assertEquals("/home/bin", watched.iniDoc.getString("paths", "bin", null));
+
+                assertDoesNotThrow(() ->
+                {
+                    Files.writeString(files.get(3), "[paths]\nbin=${lib}\nlib=${bin}\n");
+                });
+                ex = assertThrows(IniFileFormatException.class, () -> watcher.reload());
+                assertEquals("Circular reference: [paths]bin -> [paths]lib -> [paths]bin", ex.getMessage());
+                assertEquals("/home/bin", watched.iniDoc.getString("paths", "bin", null));
+            } finally
+            {
+                assertDoesNotThrow(() ->
+                {
+                    watcher.close();
+                });
+            }
+        } finally
+        {
+            for (Path file : files)
+            {
+                assertDoesNotThrow(() ->
+                {
+                    Files.deleteIfExists(file);
+                });
+            }
+        }
+    }
+
+    /**
+     * Test of loadFile method, with a schema, of class IniFile.
+     */
+    @Test
+    public void testLoadFile_Schema() {
+        System.out.println("testLoadFile_Schema");
+        IniSchema schema = new IniSchema()
+                .stringKey("name")
+                .section("server")
+                .stringKey("host")
+                .intKey("port", 1, 65535)
+                .longKey("limit", 0L, Long.MAX_VALUE)
+                .doubleKey("ratio", 0.0, 1.0)
+                .floatKey("scale", 0.5F, 2.0F)
+                .booleanKey("secure");
+        List<Path> files = new ArrayList<>();
+
+        try
+        {
+            for (String text : new String[]
+            {
+                "name=test\n# Server\n[server]\nhost=localhost\nport=8080\nlimit=10000000000\n"
+                + "ratio=0.25\nscale=1.5\nsecure=TRUE\n",
+                "[server]\nport=70000\n",
+                "[server]\nport=80\nsecure=yes\n",
+                "[server]\nhost=localhost\nprt=80\n",
+                "[client]\n"
+            })
+            {
+                files.add(assertDoesNotThrow(() ->
+                {
+                    Path file = Files.createTempFile("IniFileTest", ".ini");
+                    Files.writeString(file, text);
+                    return file;
+                }));
+            }
+
+            for (int i = 0; i < 3; i++)
+            {
+                IniFile instance = new IniFile(files.get(0));
+                instance.schema = schema;
+                instance.sliceValues = i == 1;
+                instance.lazyLoad = i == 2;
+                assertDoesNotThrow(() ->
+                {
+                    instance.loadFile();
+                });
+                IniDocument iniDoc = instance.iniDoc;
+                assertEquals("test", iniDoc.getStringG("name", null));
+                assertEquals(8080, iniDoc.getInt("server", "port", 0));
+                assertEquals(10000000000L, iniDoc.getLong("server", "limit", 0L));
+                assertEquals(0.25, iniDoc.getDouble("server", "ratio", 0.0));
+                assertEquals(1.5F, iniDoc.getFloat("server", "scale", 0.0F));
+                assertTrue(iniDoc.getBoolean("server", "secure", false));
+                assertEquals("8080", iniDoc.getString("server", "port", null));
+            }
+
+            String[] messages =
+            {
+                "Value out of range (line# 2): [server]port=70000 (expected int 1 to 65535)",
+                "Invalid value (line# 3): [server]secure=yes (expected boolean)",
+                "Unknown key (line# 3): [server]prt",
+                "Unknown section (line# 1): [client]"
+            };
+
+            for (int i = 0; i < messages.length; i++)
+            {
+                IniFile instance = new IniFile(files.get(i + 1));
+                instance.schema = schema;
+                IniFileFormatException ex = assertThrows(IniFileFormatException.class, () -> instance.loadFile());
+                assertEquals(messages[i], ex.getMessage());
+            }
+
+            // Checked once loaded, without the line number.
+            IniFile lazy = new IniFile(files.get(1));
+            lazy.schema = schema;
+            lazy.lazyLoad = true;
+            IniFileFormatException ex = assertThrows(IniFileFormatException.class, () -> lazy.loadFile());
+            assertEquals("Value out of range: [server]port=70000 (expected int 1 to 65535)", ex.getMessage());
+
+            // Checked before a new snapshot is published.
+            IniFile interpolated = new IniFile(files.get(0));
+            interpolated.schema = schema;
+            interpolated.interpolate = true;
+            assertDoesNotThrow(() ->
+            {
+                interpolated.loadFile();
+            });
+            assertEquals(8080, interpolated.snapshot().getInt("server", "port", 0));
+            ex = assertThrows(IniFileFormatException.class, () -> interpolated.mergeFile(files.get(1)));
+            assertEquals("Value out of range: [server]port=70000 (expected int 1 to 65535)", ex.getMessage());
+            assertEquals(8080, interpolated.snapshot().getInt("server", "port", 0));
+
+            // Only checked at load.
+            interpolated.iniDoc.setString("server", "port", "0");
+            assertEquals(0, interpolated.iniDoc.getInt("server", "port", 1));
+        } finally
+        {
+            for (Path file : files)
+            {
+                assertDoesNotThrow(() ->
+                {
+                    Files.deleteIfExists(file);
+                });
+            }
+        }
+    }
+
+    /**
+     * Test of loadFile method, with sliceValues set, of class IniFile.
+     */
+    @Test
+    public void testLoadFile_SliceValues() {
+        System.out.println("testLoadFile_SliceValues");
+        IniFile expected = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+        IniFile instance = new IniFile(PATH);
+        instance.sliceValues = true;
+        assertDoesNotThrow(() ->
+        {
+            instance.loadFile();
+        });
+        assertTrue(instance.isLoaded());
+        assertEquals(contents(expected.iniDoc), contents(instance.iniDoc));
+
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(file, "int = -42 \r\nlong=12345678901\n[s]\nb = TRUE\nn =\n"
+                                        + "d = 1.5\nbad = 4x\ntext = \u00e9t\u00e9");
+            });
+            IniFile sliced = new IniFile(file);
+            sliced.sliceValues = true;
+            assertDoesNotThrow(() ->
+            {
+                sliced.loadFile();
+            });
+            IniDocument iniDoc = sliced.iniDoc;
+            assertEquals(-42, iniDoc.getIntG("int", 0));
+            assertEquals(-42L, iniDoc.getLongG("int", 0));
+            assertEquals(12345678901L, iniDoc.getLongG("long", 0));
+            assertTrue(iniDoc.getBoolean("s", "b", false));
+            assertEquals("", iniDoc.getString("s", "n", null));
+            assertEquals(1.5, iniDoc.getDouble("s", "d", 0));
+            assertEquals(1.5F, iniDoc.getFloat("s", "d", 0));
+            assertThrows(NumberFormatException.class, () -> iniDoc.getInt("s", "bad", 0));
+            assertEquals("\u00e9t\u00e9", iniDoc.getString("s", "text", null));
+            assertEquals("1.5", iniDoc.getSection("s").get(2).value());
+
+            assertEquals(-42, iniDoc.setIntG("int", 7));
+            assertEquals(7, iniDoc.getIntG("int", 0));
+            assertDoesNotThrow(() ->
+            {
+                sliced.saveFile();
+            });
+            IniFile reloaded = assertDoesNotThrow(() ->
+            {
+                return new IniFile(file).loadFile();
+            });
+            assertEquals(contents(iniDoc), contents(reloaded.iniDoc));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+            });
+        }
+    }
+
+    /**
+     * Test of saving standalone comments, of class IniFile.
+     */
+    @Test
+    public void testSaveFile_StandaloneComments() {
+        System.out.println("testSaveFile_StandaloneComments");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            String text = "# One\n\ng=1\n; Two\n\n[a]\nx=1\n\n# Three\n\n"
+                          + "# Four\ny=2\nz=3\n# Five\n\n";
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(file, text);
+            });
+            IniFile instance = assertDoesNotThrow(() ->
+            {
+                return new IniFile(file).loadFile();
+            });
+            assertEquals(List.of("# One", "; Two"), instance.iniDoc.getStandaloneComments(null));
+            assertEquals(List.of("# Three", "# Five"), instance.iniDoc.getStandaloneComments("a"));
+            assertEquals(List.of("x", "y", "z"), instance.iniDoc.getSection("a").stream()
+                         .map(IniProperty::key).collect(Collectors.toList()));
+            assertEquals("# Three", instance.iniDoc.getComment("a", "#9"));
+            assertFalse(instance.iniDoc.containsKey("a", "#9"));
+
+            assertDoesNotThrow(() ->
+            {
+                instance.saveFile();
+            });
+            String saved = assertDoesNotThrow(() ->
+            {
+                return Files.readString(file);
+            });
+            assertEquals("# One\ng=1\n; Two\n\n[a]\nx=1\n# Three\n# Four\ny=2\nz=3\n# Five\n", saved);
+
+            // The comments after a removed key stay in place.
+            instance.iniDoc.removeKey("a", "x");
+            instance.iniDoc.removeKey("a", "#14");
+            instance.iniDoc.setComment("a", "#16", "# Six");
+            assertDoesNotThrow(() ->
+            {
+                instance.saveFile();
+            });
+            saved = assertDoesNotThrow(() ->
+            {
+                return Files.readString(file);
+            });
+            assertEquals("# One\ng=1\n; Two\n\n[a]\n# Three\n# Four\ny=2\nz=3\n# Six\n", saved);
+
+            // A key added again goes after them all.
+            instance.iniDoc.removeKey("a", "z");
+            instance.iniDoc.setString("a", "z", "4");
+            assertDoesNotThrow(() ->
+            {
+                instance.saveFile();
+            });
+            saved = assertDoesNotThrow(() ->
+            {
+                return Files.readString(file);
+            });
+            assertEquals("# One\ng=1\n; Two\n\n[a]\n# Three\n# Four\ny=2\n# Six\nz=4\n", saved);
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+            });
+        }
+    }
+
+    /**
+     * Test of saveFile method, with incrementalSave, of class IniFile.
+     */
+    @Test
+    public void testSaveFile_IncrementalSave() {
+        System.out.println("testSaveFile_IncrementalSave");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+        Path full = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            IniFile instance = new IniFile(file);
+            instance.incrementalSave = true;
+            instance.iniDoc.setStringG("g", "1");
+
+            for (int i = 0; i < 5; i++)
+            {
+                instance.iniDoc.setString("s" + i, "k", "value" + i);
+                instance.iniDoc.setInt("s" + i, "n", i);
+            }
+
+            IniHandle handle = instance.iniDoc.handle("s4", "k");
+
+            // Each change, followed by an incremental save, must leave the
+            // file the same as a full save would.
+            List<Runnable> changes = List.of(
+                    () -> instance.iniDoc.setString("s0", "k", "value0"),
+                    () -> instance.iniDoc.setString("s2", "k", "VALUE2"),
+                    () -> handle.set("other"),
+                    () -> instance.iniDoc.setString("s1", "k", "a longer value"),
+                    () -> instance.iniDoc.setStringG("g", ""),
+                    () -> instance.iniDoc.removeKey("s3", "n"),
+                    () -> instance.iniDoc.setComment("s0", "#1", "# Standalone"),
+                    () -> instance.iniDoc.setSection("s5", "; New"),
+                    () -> instance.iniDoc.removeSection("s2"),
+                    () -> instance.iniDoc.putAll("s0", Map.of("n", "9")),
+                    // Nothing changed, but every section is written differently.
+                    () -> instance.paddedEquals = true,
+                    () -> instance.iniDoc.setString("s4", "k", "padded"),
+                    () -> instance.paddedEquals = false,
+                    () -> assertDoesNotThrow(() ->
+                    {
+                        // Changed by something else.
+                        Files.writeString(file, "[x]\ny=1\n");
+                    }));
+
+            for (Runnable change : changes)
+            {
+                change.run();
+                assertDoesNotThrow(() ->
+                {
+                    instance.saveFile();
+                    instance.saveFileAs(full);
+                });
+                assertEquals(assertDoesNotThrow(() -> Files.readString(full)),
+                             assertDoesNotThrow(() -> Files.readString(file)));
+            }
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(full);
+            });
+        }
+    }
+
+    /**
+     * Test of autosave method, of class IniFile.
+     */
+    @Test
+    public void testAutosave() {
+        System.out.println("testAutosave");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+        Path full = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+        Path merge = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniFileTest", ".ini");
+        });
+
+        try
+        {
+            IniFile instance = new IniFile(file, new ConcurrentIniDocument());
+            assertThrows(InvalidParameterValueException.class, () -> instance.autosave(1, TimeUnit.HOURS, 0));
+
+            IniAutosave autosave = instance.autosave(1, TimeUnit.HOURS, 10);
+            assertThrows(InvalidProgramStateException.class, () -> instance.autosave(1, TimeUnit.HOURS, 10));
+
+            // Loading a file is not a change.
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(file, "[t]\nx=1\ny=2\n");
+                Files.writeString(merge, "# Merged\n[m]\na=1\nb=2\nc=3\n");
+                instance.loadFile();
+            });
+            assertEquals(0L, autosave.getChangeCount());
+
+            // Not saved until the tenth change.
+            for (int i = 0; i < 9; i++)
+            {
+                instance.iniDoc.setInt("s", "k" + i, i);
+            }
+
+            assertEquals(0L, autosave.getWriteCount());
+            assertEquals("[t]\nx=1\ny=2\n", assertDoesNotThrow(() -> Files.readString(file)));
+
+            instance.iniDoc.setInt("s", "k9", 9);
+
+            for (int i = 0; i < 500 && autosave.getWriteCount() == 0L; i++)
+            {
+                assertDoesNotThrow(() -> Thread.sleep(10));
+            }
+
+            assertEquals(1L, autosave.getWriteCount());
+            assertEquals(10L, autosave.getChangeCount());
+            assertEquals(9L, autosave.getWritesAvoided());
+            assertTrue(autosave.getLastFlushLatency(TimeUnit.NANOSECONDS) > 0L);
+
+            // The rest are saved when closed. A merged file is one change,
+            // and removing a key that is not there is none.
+            instance.iniDoc.removeKey("s", "k0");
+            instance.iniDoc.removeKey("s", "k0");
+            instance.iniDoc.removeKey("none", "k0");
+            instance.iniDoc.setStringG("g", "x");
+            assertDoesNotThrow(() ->
+            {
+                instance.mergeFile(merge);
+            });
+            assertEquals(13L, autosave.getChangeCount());
+            assertDoesNotThrow(() ->
+            {
+                autosave.close();
+                instance.saveFileAs(full);
+            });
+            assertTrue(autosave.isClosed());
+            assertEquals(2L, autosave.getWriteCount());
+            assertEquals(11L, autosave.getWritesAvoided());
+            assertNull(autosave.getLastError());
+            assertEquals(assertDoesNotThrow(() -> Files.readString(full)),
+                         assertDoesNotThrow(() -> Files.readString(file)));
+
+            // No longer watching.
+            instance.iniDoc.setStringG("g", "y");
+            assertEquals(13L, autosave.getChangeCount());
+
+            // Told once the change has been made.
+            IniDocument plain = new IniDocument();
+            List<String> seen = new ArrayList<>();
+            plain.changeListener = () -> seen.add(plain.getStringG("g", null));
+            plain.setStringG("g", "z");
+            assertEquals(List.of("z"), seen);
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(full);
+                Files.deleteIfExists(merge);
+            });
+        }
+    }
+
+    /**
+     * Test of watch method, of class IniFile.
+     */
+    @Test
+    public void testWatch() {
+        System.out.println("testWatch");
+        Path dir = assertDoesNotThrow(() ->
+        {
+            return Files.createTempDirectory("IniFileTest");
+        });
+        Path file = dir.resolve("watch.ini");
+
+        try
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.writeString(file, "g=1\n\n[a]\nx=1\n");
+            });
+            IniFile instance = assertDoesNotThrow(() ->
+            {
+                return new IniFile(file, new ConcurrentIniDocument()).loadFile();
+            });
+            IniSnapshot before = instance.snapshot();
+            IniHandle handle = instance.iniDoc.handle("a", "x");
+            assertEquals(1, handle.getInt(0));
+
+            IniWatcher watcher = assertDoesNotThrow(() -> instance.watch(300, TimeUnit.MILLISECONDS));
+            assertThrows(InvalidProgramStateException.class, () -> instance.watch(50, TimeUnit.MILLISECONDS));
+            BlockingQueue<List<IniChange>> reloaded = new LinkedBlockingQueue<>();
+            watcher.addListener((iniFile, changes) -> reloaded.add(changes));
+
+            try
+            {
+                // Reloaded on this thread.
+                assertDoesNotThrow(() ->
+                {
+                    Files.writeString(file, "# Comment\n[a]\nx=2\ny=3\n");
+                });
+                List<IniChange> changes = assertDoesNotThrow(() -> watcher.reload());
+                assertEquals("[REMOVED null.g 1>null, CHANGED a.x 1>2, ADDED a.y null>3]", changes.stream()
+                             .map(c -> c.type + " " + c.section + "." + c.key + " " + c.oldValue + ">" + c.newValue)
+                             .collect(Collectors.toList()).toString());
+                assertEquals(2, handle.getInt(0));
+                assertEquals(1, before.getIntG("g", 0));
+                assertEquals(0, instance.snapshot().getIntG("g", 0));
+                assertEquals(3, instance.snapshot().getInt("a", "y", 0));
+                assertEquals("# Comment", instance.iniDoc.getSectionComment("a"));
+
+                // Nothing changed by saving it.
+                assertDoesNotThrow(() ->
+                {
+                    instance.saveFile();
+                });
+                assertTrue(assertDoesNotThrow(() -> watcher.reload()).isEmpty());
+                assertEquals(1L, watcher.getReloadCount());
+
+                // Reloaded in the background.
+                assertDoesNotThrow(() ->
+                {
+                    Files.writeString(file, "[a]\nx=4\n");
+                });
+
+                List<IniChange> background;
+
+                do
+                {
+                    background = assertDoesNotThrow(() -> reloaded.poll(10, TimeUnit.SECONDS));
+                    assertNotNull(background);
+                } while (!background.stream().anyMatch(c -> "4".equals(c.newValue)));
+
+                assertEquals(4, handle.getInt(0));
+                assertFalse(instance.iniDoc.containsKey("a", "y"));
+                assertNull(watcher.getLastError());
+
+                // Checked against the schema, before anything is swapped in.
+                instance.schema = new IniSchema().section("a").intKey("x", 1, 10);
+                assertDoesNotThrow(() ->
+                {
+                    Files.writeString(file, "[a]\nx=40\n");
+                });
+                assertThrows(IniFileFormatException.class, () -> watcher.reload());
+                assertNotNull(watcher.getLastError());
+                assertEquals(4, handle.getInt(0));
+            } finally
+            {
+                assertDoesNotThrow(() ->
+                {
+                    watcher.close();
+                });
+            }
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(dir);
+            });
+        }
+    }
+
+    /**
+     * Test of mergeFiles method, of class IniFile.
+     */
+    @Test
+    public void testMergeFiles() {
+        System.out.println("testMergeFiles");
+        List<Path> files = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                int n = i;
+                files.add(assertDoesNotThrow(() ->
+                {
+                    Path file = Files.createTempFile("IniFileTest", ".ini");
+                    Files.writeString(file, "# Fragment " + n + "\ng" + n % 3 + "=" + n + "\n\n"
+                                            + "# Section " + n + "\n[s" + n % 5 + "]\n"
+                                            + "; Standalone " + n + "\n\n"
+                                            + (n % 2 == 0 ? "# Key " + n + "\n" : "")
+                                            + "k=" + n + "\nk" + n + "=x\n");
+                    return file;
+                }));
+            }
+
+            IniFile expected = assertDoesNotThrow(() ->
+            {
+                IniFile rtn = new IniFile(PATH).loadFile();
+
+                for (Path file : files)
+                {
+                    rtn.mergeFile(file);
+                }
+
+                return rtn;
+            });
+            IniFile instance = assertDoesNotThrow(() ->
+            {
+                return new IniFile(PATH).loadFile().mergeFiles(files, executor);
+            });
+            assertEquals(contents(expected.iniDoc), contents(instance.iniDoc));
+
+            // Without loading first, and with the files memory mapped.
+            IniFile fragments = new IniFile(PATH);
+            fragments.memoryMapped = true;
+            assertDoesNotThrow(() ->
+            {
+                fragments.mergeFiles(files);
+            });
+            assertEquals("19", fragments.iniDoc.getString("s4", "k", null));
+            assertEquals(List.of("; Standalone 19"), fragments.iniDoc.getStandaloneComments("s4"));
+
+            // Nothing is merged if any file fails to parse.
+            Path bad = assertDoesNotThrow(() ->
+            {
+                Path file = Files.createTempFile("IniFileTest", ".ini");
+                Files.writeString(file, "[x]\nNot a key\n");
+                return file;
+            });
+            files.add(0, bad);
+            String before = contents(instance.iniDoc);
+            assertThrows(IniFileFormatException.class, () -> instance.mergeFiles(files, executor));
+            assertEquals(before, contents(instance.iniDoc));
+        } finally
+        {
+            executor.shutdown();
+
+            for (Path file : files)
+            {
+                assertDoesNotThrow(() ->
+                {
+                    Files.deleteIfExists(file);
+                });
+            }
+        }
+    }
+
     /**
      * Test of toString method, of class IniFile.
      */
@@ -527,6 +1575,32 @@ public class IniFileTest {
         assertTrue(instance.toString().startsWith("IniFile{\n_path="));
     }
 
+    /**
+     * Lists the whole contents of the {@code iniDoc}, in order.
+     */
+    static String contents(IniDocument iniDoc) {
+        StringBuilder sb = new StringBuilder();
+
+        for (String section : iniDoc.getSections())
+        {
+            sb.append("[").append(section).append("] ")
+                    .append(iniDoc.getSectionComment(section)).append("\n");
+
+            for (IniProperty<Object> property : iniDoc.getSection(section))
+            {
+                sb.append(property.key()).append("=").append(property.value())
+                        .append(" ").append(property.comment()).append("\n");
+            }
+
+            for (String comment : iniDoc.getStandaloneComments(section))
+            {
+                sb.append(comment).append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
     private class MembersState {
 
         String lastComment = null;
@@ -0,0 +1,114 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of repeatedly reading the same property, by section and key through
+ * {@link IniDocument#getInt(String, String, int)}, compared with an
+ * {@link IniHandle}, for both {@link IniDocument} and
+ * {@link ConcurrentIniDocument}.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniHandleBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniHandleBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniHandleBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument concurrent;
+    private IniHandle concurrentHandle;
+    private IniDocument plain;
+    private IniHandle plainHandle;
+
+    @Setup
+    public void setup() {
+        concurrent = new ConcurrentIniDocument();
+        plain = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                concurrent.setInt("section" + s, "key" + k, k);
+                plain.setInt("section" + s, "key" + k, k);
+            }
+        }
+
+        concurrentHandle = concurrent.handle("section50", "key50");
+        plainHandle = plain.handle("section50", "key50");
+    }
+
+    @Benchmark
+    public int concurrentHandle() {
+        return concurrentHandle.getInt(0);
+    }
+
+    @Benchmark
+    public int concurrentLookup() {
+        return concurrent.getInt("section50", "key50", 0);
+    }
+
+    @Benchmark
+    public int plainHandle() {
+        return plainHandle.getInt(0);
+    }
+
+    @Benchmark
+    public int plainLookup() {
+        return plain.getInt("section50", "key50", 0);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of saving a large file after changing one value, with and without
+ * {@link IniFile#incrementalSave}.
+ * <p>
+ * {@code inPlace} changes the value to one of the same length, so only its
+ * section is overwritten. {@code resized} changes its length, so the file is
+ * written out from its section on. The changed section is in the middle of
+ * the file.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniIncrementalSaveBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniIncrementalSaveBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 1000;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniIncrementalSaveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private int count;
+    private IniFile full;
+    private IniFile incremental;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        full = create();
+        incremental = create();
+        incremental.incrementalSave = true;
+        incremental.saveFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(full.path);
+        Files.deleteIfExists(incremental.path);
+    }
+
+    @Benchmark
+    public IniFile fullSave() throws IOException {
+        full.iniDoc.setInt("section500", "key50", count++ & 1);
+        return full.saveFile();
+    }
+
+    @Benchmark
+    public IniFile inPlace() throws IOException {
+        incremental.iniDoc.setInt("section500", "key50", count++ & 1);
+        return incremental.saveFile();
+    }
+
+    @Benchmark
+    public IniFile resized() throws IOException {
+        incremental.iniDoc.setInt("section500", "key50", (count++ & 1) * 10);
+        return incremental.saveFile();
+    }
+
+    private static IniFile create() throws IOException {
+        Path file = Files.createTempFile("IniIncrementalSaveBenchmark", ".ini");
+        IniFile iniFile = new IniFile(file);
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                iniFile.iniDoc.setString("section" + s, "key" + k, "value " + k);
+            }
+        }
+
+        iniFile.iniDoc.setString("section500", "key50", "0");
+        return iniFile;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of reading a value through {@link IniDocument#getString(String, String, String)},
+ * when it is plain, compared with one made up of references to others, with
+ * {@link IniFile#interpolate} set. Also, the cost of reading it after one of
+ * the properties it refers to has been changed.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniInterpolationBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniInterpolationBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniInterpolationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument interpolated;
+    private IniDocument plain;
+    private boolean toggle;
+
+    @Setup
+    public void setup() throws IOException, IniFileFormatException {
+        interpolated = new IniDocument();
+        plain = new IniDocument();
+        interpolated.setStringG("root", "/opt/app");
+        plain.setStringG("root", "/opt/app");
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            interpolated.setString("section" + s, "dir", "${:root}/section" + s);
+            plain.setString("section" + s, "dir", "/opt/app/section" + s);
+
+            for (int k = 0; k < KEYS; k++)
+            {
+                interpolated.setString("section" + s, "key" + k, "${dir}/key" + k);
+                plain.setString("section" + s, "key" + k, "/opt/app/section" + s + "/key" + k);
+            }
+        }
+
+        interpolated.interpolate("benchmark");
+    }
+
+    /**
+     * Change the root, that every value refers to, then read one value.
+     */
+    @Benchmark
+    public String changed() {
+        toggle = !toggle;
+        interpolated.setStringG("root", toggle ? "/usr" : "/opt/app");
+        return interpolated.getString("section50", "key50", null);
+    }
+
+    @Benchmark
+    public String interpolated() {
+        return interpolated.getString("section50", "key50", null);
+    }
+
+    @Benchmark
+    public String plain() {
+        return plain.getString("section50", "key50", null);
+    }
+}
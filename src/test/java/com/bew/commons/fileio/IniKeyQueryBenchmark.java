@@ -0,0 +1,120 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.property.IniProperty;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of finding the few keys that start with a prefix, among many, by
+ * scanning every section, compared with
+ * {@link IniDocument#findKeysWithPrefix(String)}.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniKeyQueryBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniKeyQueryBenchmark {
+
+    private static final int KEYS = 100;
+    private static final String PREFIX = "db.pool.";
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniKeyQueryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument iniDoc;
+
+    @Setup
+    public void setup() {
+        iniDoc = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                iniDoc.setString("section" + s, "key" + k, "value" + k);
+            }
+        }
+
+        for (int s = 0; s < SECTIONS; s += 10)
+        {
+            iniDoc.setString("section" + s, PREFIX + "size", "10");
+        }
+
+        // Build the index.
+        iniDoc.findKeysWithPrefix(PREFIX);
+    }
+
+    @Benchmark
+    public List<IniKey> index() {
+        return iniDoc.findKeysWithPrefix(PREFIX);
+    }
+
+    @Benchmark
+    public List<IniKey> scan() {
+        List<IniKey> rtn = new ArrayList<>();
+
+        for (String section : iniDoc.getSectionsView())
+        {
+            for (IniProperty<Object> property : iniDoc.getSectionView(section))
+            {
+                if (property.key().startsWith(PREFIX))
+                {
+                    rtn.add(new IniKey(section, property.key()));
+                }
+            }
+        }
+
+        return rtn;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Start-up cost of loading a file of 50,000 sections, and then reading five
+ * of them, with and without {@link IniFile#lazyLoad}.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniLazyLoadBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniLazyLoadBenchmark {
+
+    private static final int KEYS = 10;
+    private static final int SECTIONS = 50_000;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniLazyLoadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("IniLazyLoadBenchmark", ".ini");
+
+        try ( BufferedWriter bw = Files.newBufferedWriter(file))
+        {
+            for (int s = 0; s < SECTIONS; s++)
+            {
+                bw.write("\n# Section " + s + "\n[section" + s + "]\n");
+
+                for (int k = 0; k < KEYS; k++)
+                {
+                    bw.write("key" + k + " = " + (s * KEYS + k) + "\n");
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int eager() throws IOException, IniFileFormatException {
+        return readFive(new IniFile(file).loadFile());
+    }
+
+    @Benchmark
+    public int lazy() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.lazyLoad = true;
+        return readFive(iniFile.loadFile());
+    }
+
+    private static int readFive(IniFile iniFile) {
+        int sum = 0;
+
+        for (int s = 0; s < SECTIONS; s += SECTIONS / 5)
+        {
+            sum += iniFile.iniDoc.getInt("section" + s, "key0", 0);
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares classifying lines with {@link IniLineScanner}, against the regex
+ * {@link IniDocument#INI_PATTERN} as previously used by
+ * {@code IniFile.parseINI}.
+ * <p>
+ * Both produce the same (stripped) strings for each line.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniLineScannerBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniLineScannerBenchmark {
+
+    private static final String[] LINES =
+    {
+        "[Some Section Name]",
+        "# This is a fairly typical comment line, of a fairly typical length.",
+        "some.key.name = some value, with a bit of text",
+        "threads=16",
+        ""
+    };
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniLineScannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private final Pattern pattern = Pattern.compile(IniDocument.INI_PATTERN);
+    private final IniLineScanner scanner = new IniLineScanner();
+
+    @Benchmark
+    public void regex(Blackhole bh) {
+        for (String line : LINES)
+        {
+            Matcher m = pattern.matcher(line);
+            m.find();
+            String section = m.group("Section");
+            String key = m.group("Key");
+            String value = m.group("Value");
+            String comment = m.group("Comment");
+            String tail = m.group("Tail");
+
+            if (section != null)
+            {
+                bh.consume(section);
+            } else if (key != null)
+            {
+                bh.consume(key.strip());
+                bh.consume(value.strip());
+            } else if (comment != null)
+            {
+                bh.consume(comment);
+            } else
+            {
+                bh.consume(tail.isEmpty());
+            }
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole bh) {
+        for (String line : LINES)
+        {
+            switch (scanner.scan(line, 0, line.length()))
+            {
+                case IniLineScanner.SECTION:
+                case IniLineScanner.COMMENT:
+                    bh.consume(line.substring(scanner.start, scanner.end));
+                    break;
+
+                case IniLineScanner.PROPERTY:
+                    bh.consume(IniLineScanner.strip(line, scanner.start, scanner.end));
+                    bh.consume(IniLineScanner.strip(line, scanner.valueStart, scanner.valueEnd));
+                    break;
+
+                default:
+                    bh.consume(scanner.type == IniLineScanner.BLANK);
+            }
+        }
+    }
+}
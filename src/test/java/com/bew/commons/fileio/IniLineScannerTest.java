@@ -0,0 +1,138 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link IniLineScanner} classifies lines exactly as
+ * {@link IniDocument#INI_PATTERN} does.
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniLineScannerTest {
+
+    private static final char[] ALPHABET =
+    {
+        '[', ']', '#', ';', '=', ' ', '\t', 'a', 'b', '1', '\u0085', ' ', ' ', '　'
+    };
+
+    private static final String[] LINES =
+    {
+        "", "[section]", "[ section ]", "[]", "[section", "[a]b=c", "[a=b", "]",
+        "# comment", "#\tcomment", "; comment", "#comment", ";", "# ", "#",
+        "key=value", "key = value ", " key =", "=value", "key==value", "key=val#ue",
+        "ke#y=value", "ke;y=value", "key=value more", " ", "   ", "\t",
+        "no equals", "Something Extra=Look Ma, spaces in the Key!", "a\u0085=b"
+    };
+
+    /**
+     * Test of scan method, against known lines, of class IniLineScanner.
+     */
+    @Test
+    public void testScanKnownLines() {
+        System.out.println("testScanKnownLines");
+
+        for (String line : LINES)
+        {
+            assertSameAsRegex(line);
+        }
+    }
+
+    /**
+     * Test of scan method, against random lines, of class IniLineScanner.
+     */
+    @Test
+    public void testScanRandomLines() {
+        System.out.println("testScanRandomLines");
+        Random random = new Random(20201120L);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 100_000; i++)
+        {
+            sb.setLength(0);
+            int length = random.nextInt(8);
+
+            for (int j = 0; j < length; j++)
+            {
+                sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+
+            assertSameAsRegex(sb.toString());
+        }
+    }
+
+    /**
+     * Test of scan method, within a larger buffer, of class IniLineScanner.
+     */
+    @Test
+    public void testScanRange() {
+        System.out.println("testScanRange");
+        String buffer = "xx key = value xx";
+        IniLineScanner scanner = new IniLineScanner();
+
+        assertEquals(IniLineScanner.PROPERTY, scanner.scan(buffer, 2, 15));
+        assertEquals(" key ", buffer.substring(scanner.start, scanner.end));
+        assertEquals(" value ", buffer.substring(scanner.valueStart, scanner.valueEnd));
+        assertEquals(3, IniLineScanner.stripStart(buffer, scanner.start, scanner.end));
+        assertEquals(6, IniLineScanner.stripEnd(buffer, scanner.start, scanner.end));
+        assertEquals("value", IniLineScanner.strip(buffer, scanner.valueStart, scanner.valueEnd));
+    }
+
+    private static final Pattern PATTERN = Pattern.compile(IniDocument.INI_PATTERN);
+
+    private static void assertSameAsRegex(String line) {
+        Matcher m = PATTERN.matcher(line);
+        m.find();
+        IniLineScanner scanner = new IniLineScanner();
+        int type = scanner.scan(line, 0, line.length());
+        String message = "line: \"" + line + "\"";
+
+        if (m.group("Section") != null)
+        {
+            assertEquals(IniLineScanner.SECTION, type, message);
+            assertEquals(m.group("Section"), line.substring(scanner.start, scanner.end), message);
+        } else if (m.group("Comment") != null)
+        {
+            assertEquals(IniLineScanner.COMMENT, type, message);
+            assertEquals(m.group("Comment"), line.substring(scanner.start, scanner.end), message);
+        } else if (m.group("Key") != null)
+        {
+            assertEquals(IniLineScanner.PROPERTY, type, message);
+            assertEquals(m.group("Key"), line.substring(scanner.start, scanner.end), message);
+            assertEquals(m.group("Value"), line.substring(scanner.valueStart, scanner.valueEnd), message);
+            assertEquals(m.group("Key").strip(),
+                         IniLineScanner.strip(line, scanner.start, scanner.end), message);
+            assertEquals(m.group("Value").strip(),
+                         IniLineScanner.strip(line, scanner.valueStart, scanner.valueEnd), message);
+        } else if (m.group("Tail").isEmpty())
+        {
+            assertEquals(IniLineScanner.BLANK, type, message);
+        } else
+        {
+            assertEquals(IniLineScanner.UNKNOWN, type, message);
+            assertEquals(m.group("Tail"), line.substring(scanner.start, scanner.end), message);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Load throughput, in bytes per second, of {@link IniFile#loadFile()}, with
+ * and without {@link IniFile#memoryMapped}.
+ * <p>
+ * The {@code bytes} secondary result is the throughput in bytes per second.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniMappedLoadBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniMappedLoadBenchmark {
+
+    private static final int KEYS_PER_SECTION = 50;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniMappedLoadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "10000", "1000000"
+            })
+    public int keys;
+
+    private Path file;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("IniMappedLoadBenchmark", ".ini");
+
+        try ( BufferedWriter bw = Files.newBufferedWriter(file))
+        {
+            for (int k = 0; k < keys; k++)
+            {
+                if (k % KEYS_PER_SECTION == 0)
+                {
+                    bw.write("\n# Section comment\n[section" + (k / KEYS_PER_SECTION) + "]\n");
+                }
+
+                bw.write("key" + k + " = some value for key " + k + "\n");
+            }
+        }
+
+        size = Files.size(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public IniDocument mapped(Bytes bytes) throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.memoryMapped = true;
+        bytes.bytes += size;
+        return iniFile.loadFile().iniDoc;
+    }
+
+    @Benchmark
+    public IniDocument reader(Bytes bytes) throws IOException, IniFileFormatException {
+        bytes.bytes += size;
+        return new IniFile(file).loadFile().iniDoc;
+    }
+
+    /**
+     * Counts the bytes loaded.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
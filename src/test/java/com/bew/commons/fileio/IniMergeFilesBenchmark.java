@@ -0,0 +1,147 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of merging a conf.d style directory of 300 small fragments, one after
+ * the other with {@link IniFile#mergeFile(java.nio.file.Path)}, against in
+ * parallel with {@link IniFile#mergeFiles(List, java.util.concurrent.Executor)}
+ * on a pool of {@code threads} threads.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniMergeFilesBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniMergeFilesBenchmark {
+
+    private static final int FILES = 300;
+    private static final int KEYS = 20;
+    private static final int SECTIONS = 2;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniMergeFilesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "1", "2", "4", "8"
+            })
+    public int threads;
+
+    private Path dir;
+    private final List<Path> files = new ArrayList<>(FILES);
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("IniMergeFilesBenchmark");
+        pool = new ForkJoinPool(threads);
+        Files.writeString(dir.resolve("merged.ini"), "");
+
+        for (int f = 0; f < FILES; f++)
+        {
+            StringBuilder sb = new StringBuilder();
+
+            for (int s = 0; s < SECTIONS; s++)
+            {
+                sb.append("# Fragment ").append(f).append("\n[section").append((f + s) % 50).append("]\n");
+
+                for (int k = 0; k < KEYS; k++)
+                {
+                    sb.append("key").append(k).append("=value ").append(f).append('\n');
+                }
+            }
+
+            Path file = dir.resolve(String.format("%03d.conf", f));
+            Files.writeString(file, sb);
+            files.add(file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+
+        for (Path file : files)
+        {
+            Files.deleteIfExists(file);
+        }
+
+        Files.deleteIfExists(dir.resolve("merged.ini"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public IniFile parallel() throws IOException, IniFileFormatException {
+        return new IniFile(dir.resolve("merged.ini")).loadFile().mergeFiles(files, pool);
+    }
+
+    @Benchmark
+    public IniFile sequential() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(dir.resolve("merged.ini")).loadFile();
+
+        for (Path file : files)
+        {
+            iniFile.mergeFile(file);
+        }
+
+        return iniFile;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of reading a value that only the lowest of a stack of layers has, by
+ * asking each {@link IniDocument} in turn, from the highest, compared with an
+ * {@link IniOverlay}.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniOverlayBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniOverlayBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniOverlayBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "3", "10"
+            })
+    public int depth;
+
+    private IniDocument[] layers;
+    private IniOverlay overlay;
+
+    @Setup
+    public void setup() {
+        layers = new IniDocument[depth];
+
+        for (int i = 0; i < depth; i++)
+        {
+            layers[i] = new IniDocument();
+
+            for (int s = 0; s < SECTIONS; s++)
+            {
+                // Each layer above the lowest overrides only a few keys.
+                for (int k = 0; k < (i == 0 ? KEYS : KEYS / 10); k++)
+                {
+                    layers[i].setString("section" + s, "key" + (k * 10 + i) % KEYS, "value" + i);
+                }
+            }
+        }
+
+        layers[0].setString("section50", "lowest", "value0");
+        overlay = new IniOverlay(layers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        overlay.close();
+    }
+
+    @Benchmark
+    public String inTurn() {
+        for (int i = layers.length - 1; i >= 0; i--)
+        {
+            String rtn = layers[i].getString("section50", "lowest", null);
+
+            if (rtn != null)
+            {
+                return rtn;
+            }
+        }
+
+        return null;
+    }
+
+    @Benchmark
+    public String overlay() {
+        return overlay.getString("section50", "lowest", null);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniOverlayTest {
+
+    private static final String TEST_COMMENT = "# The host name.";
+
+    /**
+     * Test of the getters of class IniOverlay, as its layers are changed.
+     */
+    @Test
+    public void testOverlay() {
+        System.out.println("testOverlay");
+        IniDocument defaults = new IniDocument();
+        IniDocument site = new ConcurrentIniDocument();
+        IniDocument host = new IniDocument();
+        defaults.setString("server", "port", "80");
+        defaults.setString("server", "name", "localhost", TEST_COMMENT);
+        defaults.setBoolean("server", "tls", true);
+        site.setString("server", "port", "8080");
+        host.setString("server", "name", "web01");
+
+        try ( IniOverlay instance = new IniOverlay(defaults, site, host))
+        {
+            assertEquals(List.of(defaults, site, host), instance.layers());
+            assertEquals(8080, instance.getInt("server", "port", 0));
+            assertEquals(1, instance.layerOf("server", "port"));
+            assertSame(site, instance.sourceOf("server", "port"));
+            assertEquals("web01", instance.getString("server", "name", null));
+            assertEquals(2, instance.layerOf("server", "name"));
+            assertNull(instance.getComment("server", "name"));
+            assertTrue(instance.getBoolean("server", "tls", false));
+            assertEquals(0, instance.layerOf("server", "tls"));
+            assertFalse(instance.containsKey("server", "missing"));
+            assertEquals(-1, instance.layerOf("server", "missing"));
+            assertNull(instance.sourceOf("server", "missing"));
+            assertEquals(1.5, instance.getDouble("server", "missing", 1.5));
+
+            // Kept up to date as the layers are changed.
+            host.setString("server", "port", "443");
+            assertEquals(443L, instance.getLong("server", "port", 0L));
+            assertEquals(2, instance.layerOf("server", "port"));
+            host.removeKey("server", "port");
+            assertEquals(8080, instance.getInt("server", "port", 0));
+            site.removeSection("server");
+            assertEquals(80, instance.getInt("server", "port", 0));
+            assertSame(defaults, instance.sourceOf("server", "port"));
+            defaults.putAll("server", Map.of("port", "81"));
+            assertEquals(81, instance.getInt("server", "port", 0));
+            host.removeSection("server");
+            assertEquals("localhost", instance.getString("server", "name", null));
+            assertEquals(TEST_COMMENT, instance.getComment("server", "name"));
+            site.setFloat("client", "timeout", 2.5F);
+            assertEquals(2.5F, instance.getFloat("client", "timeout", 0F));
+
+            // The whole contents of a layer replaced, as by a reload.
+            IniDocument fresh = new IniDocument();
+            fresh.setString("server", "port", "9000");
+            assertTrue(site.replaceWith(fresh, new ArrayList<>()));
+            assertEquals(9000, instance.getInt("server", "port", 0));
+            assertFalse(instance.containsKey("client", "timeout"));
+
+            // A key added to a layer by its comment alone.
+            assertDoesNotThrow(() ->
+            {
+                host.setComment("client", "retries", TEST_COMMENT);
+            });
+            assertTrue(host.containsKey("client", "retries"));
+            assertTrue(instance.containsKey("client", "retries"));
+            assertEquals(2, instance.layerOf("client", "retries"));
+            assertEquals(TEST_COMMENT, instance.getComment("client", "retries"));
+        }
+    }
+}
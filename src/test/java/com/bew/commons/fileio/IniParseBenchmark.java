@@ -0,0 +1,155 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parse throughput of {@link IniFile#loadFile()}, on generated files with
+ * many commented keys.
+ * <p>
+ * Every commented key passes through
+ * {@link IniDocument#validateComment(java.lang.String)}. The
+ * {@code validateRegex} and {@code validate} benchmarks isolate that cost,
+ * comparing the previous compile-per-call regex with the current check, over
+ * the same number of comments as the file holds.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniParseBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniParseBenchmark {
+
+    private static final int KEYS_PER_SECTION = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "1000", "100000"
+            })
+    public int keys;
+
+    private String[] comments;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("IniParseBenchmark", ".ini");
+        comments = new String[keys];
+
+        try ( BufferedWriter bw = Files.newBufferedWriter(file))
+        {
+            for (int k = 0; k < keys; k++)
+            {
+                if (k % KEYS_PER_SECTION == 0)
+                {
+                    bw.write("[section" + (k / KEYS_PER_SECTION) + "]");
+                    bw.newLine();
+                }
+
+                comments[k] = "# Comment for key" + k;
+                bw.write(comments[k]);
+                bw.newLine();
+                bw.write("key" + k + " = value " + k);
+                bw.newLine();
+            }
+        }
+
+        System.out.println("\nFile size: " + Files.size(file) + " bytes");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public IniDocument loadFile() throws IOException, IniFileFormatException {
+        return new IniFile(file).loadFile().iniDoc;
+    }
+
+    @Benchmark
+    public boolean validate() {
+        boolean rtn = true;
+
+        for (String comment : comments)
+        {
+            rtn &= IniDocument.validateComment(comment);
+        }
+
+        return rtn;
+    }
+
+    @Benchmark
+    public boolean validateRegex() {
+        boolean rtn = true;
+
+        for (String comment : comments)
+        {
+            Pattern p = Pattern.compile(IniDocument.COMMENT_PATTERN);
+            Matcher m = p.matcher(comment);
+            m.find();
+            rtn &= m.group("Comment") != null;
+        }
+
+        return rtn;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of populating a new {@link IniDocument} with commented keys, one
+ * {@link IniDocument#setString(String, String, String, String) setString()}
+ * at a time, compared with one
+ * {@link IniDocument#putAll(String, Map, Map) putAll()} per section.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniPutAllBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniPutAllBenchmark {
+
+    private static final int SECTIONS = 10;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniPutAllBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "1000", "100000"
+            })
+    public int keys;
+
+    private Map<String, String> comments;
+    private Map<String, String> values;
+
+    @Setup
+    public void setup() {
+        int perSection = keys / SECTIONS;
+        comments = new LinkedHashMap<>();
+        values = new LinkedHashMap<>();
+
+        for (int k = 0; k < perSection; k++)
+        {
+            comments.put("key" + k, "# Comment for key" + k);
+            values.put("key" + k, "value " + k);
+        }
+    }
+
+    @Benchmark
+    public IniDocument perKey() {
+        IniDocument iniDoc = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            String section = "section" + s;
+
+            for (Map.Entry<String, String> entry : values.entrySet())
+            {
+                iniDoc.setString(section, entry.getKey(), entry.getValue(), comments.get(entry.getKey()));
+            }
+        }
+
+        return iniDoc;
+    }
+
+    @Benchmark
+    public IniDocument putAll() {
+        IniDocument iniDoc = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            iniDoc.putAll("section" + s, values, comments);
+        }
+
+        return iniDoc;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.InvalidProgramStateException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniReaderTest {
+
+    private static final Path PATH = Path.of("src/test/resources/Test-orig.ini");
+
+    private static final String TEXT
+                                = "# Global comment\n"
+                                  + "key = value\n"
+                                  + "\n"
+                                  + "; Standalone\n"
+                                  + "\n"
+                                  + "# Section comment\n"
+                                  + "[ section ]\n"
+                                  + "a=1\n"
+                                  + "# Key comment\n"
+                                  + "b = 2\n";
+
+    /**
+     * Test of parse method, of class IniReader.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("testParse");
+        IniFile expected = assertDoesNotThrow(() ->
+        {
+            return new IniFile(PATH).loadFile();
+        });
+        IniDocument iniDoc = new IniDocument();
+
+        assertDoesNotThrow(() ->
+        {
+            try ( IniReader reader = new IniReader(PATH))
+            {
+                reader.parse(new IniHandler()
+                {
+                    @Override
+                    public void comment(String section, String comment, int lineNumber) {
+                        iniDoc.setComment(section, comment.substring(0, 1) + lineNumber, comment);
+                    }
+
+                    @Override
+                    public void property(String section, String key, String value, String comment) {
+                        iniDoc.setString(section, key, value, comment);
+                    }
+
+                    @Override
+                    public void section(String section, String comment) {
+                        iniDoc.setSection(section, comment);
+                    }
+                });
+            }
+        });
+
+        assertEquals(IniFileTest.contents(expected.iniDoc), IniFileTest.contents(iniDoc));
+    }
+
+    /**
+     * Test of next method, of class IniReader.
+     */
+    @Test
+    public void testNext() {
+        System.out.println("testNext");
+        IniReader reader = new IniReader(new StringReader(TEXT));
+
+        assertDoesNotThrow(() ->
+        {
+            IniEvent event = reader.next();
+            assertEquals(IniEvent.Type.PROPERTY, event.type);
+            assertNull(event.section);
+            assertEquals("key", event.key);
+            assertEquals("value", event.value);
+            assertEquals("# Global comment", event.comment);
+            assertEquals(2, event.lineNumber);
+
+            event = reader.next();
+            assertEquals(IniEvent.Type.COMMENT, event.type);
+            assertEquals("; Standalone", event.comment);
+            assertEquals(4, event.lineNumber);
+
+            event = reader.next();
+            assertEquals(IniEvent.Type.SECTION, event.type);
+            assertEquals(" section ", event.section);
+            assertEquals("# Section comment", event.comment);
+
+            event = reader.next();
+            assertEquals("section", event.section);
+            assertEquals("a", event.key);
+            assertNull(event.comment);
+
+            event = reader.next();
+            assertEquals("b", event.key);
+            assertEquals("# Key comment", event.comment);
+            assertEquals(10, event.lineNumber);
+
+            assertNull(reader.next());
+            assertNull(reader.next());
+        });
+    }
+
+    /**
+     * Test of stream method, of class IniReader.
+     */
+    @Test
+    public void testStream() {
+        System.out.println("testStream");
+
+        try ( Stream<IniEvent> events = new IniReader(new StringReader(TEXT)).stream())
+        {
+            List<String> keys = events
+                    .filter(e -> e.type == IniEvent.Type.PROPERTY && "section".equals(e.section))
+                    .map(e -> e.key)
+                    .collect(Collectors.toList());
+            assertEquals(List.of("a", "b"), keys);
+        }
+
+        assertThrows(InvalidProgramStateException.class, () ->
+             {
+                 new IniReader(new StringReader("key=value\nNot valid\n")).stream().count();
+             });
+        assertThrows(IniFileFormatException.class, () ->
+             {
+                 new IniReader(new StringReader("Not valid")).next();
+             });
+    }
+}
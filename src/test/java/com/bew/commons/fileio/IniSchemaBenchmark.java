@@ -0,0 +1,134 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of loading a file of numeric values, and reading each of them once
+ * through {@link IniDocument#getInt(String, String, int)}, without and with
+ * an {@link IniFile#schema}. With a schema, each value is checked, and
+ * converted, as it is parsed, so the reads do no parsing.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniSchemaBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniSchemaBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniSchemaBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private Path file;
+    private IniSchema schema;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("IniSchemaBenchmark", ".ini");
+        schema = new IniSchema();
+
+        try ( BufferedWriter bw = Files.newBufferedWriter(file))
+        {
+            for (int s = 0; s < SECTIONS; s++)
+            {
+                bw.write("[section" + s + "]");
+                bw.newLine();
+                schema.section("section" + s);
+
+                for (int k = 0; k < KEYS; k++)
+                {
+                    bw.write("key" + k + "=" + (s * KEYS + k));
+                    bw.newLine();
+                    schema.intKey("key" + k, 0, Integer.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long plain() throws IOException, IniFileFormatException {
+        return readAll(new IniFile(file).loadFile().iniDoc);
+    }
+
+    @Benchmark
+    public long schema() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.schema = schema;
+        return readAll(iniFile.loadFile().iniDoc);
+    }
+
+    private static long readAll(IniDocument iniDoc) {
+        long rtn = 0L;
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                rtn += iniDoc.getInt("section" + s, "key" + k, 0);
+            }
+        }
+
+        return rtn;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import com.bew.commons.property.IniProperty;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of walking every property of one section, through the copying
+ * {@link IniDocument#getSection(String)}, the zero-copy
+ * {@link IniDocument#getSectionView(String)} and
+ * {@link IniDocument#forEachInSection forEachInSection()}.
+ * <p>
+ * Run with {@code -prof gc}, to also compare the allocation rate:
+ * {@code java -cp <test-classpath> org.openjdk.jmh.Main IniSectionViewBenchmark -prof gc}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IniSectionViewBenchmark {
+
+    private static final String SECTION = "section";
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniSectionViewBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "10", "1000"
+            })
+    public int keys;
+
+    private IniDocument iniDoc;
+
+    @Setup
+    public void setup() {
+        iniDoc = new IniDocument();
+
+        for (int k = 0; k < keys; k++)
+        {
+            iniDoc.setInt(SECTION, "key" + k, k);
+        }
+    }
+
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (IniProperty<Object> property : iniDoc.getSection(SECTION))
+        {
+            bh.consume(property.value());
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole bh) {
+        iniDoc.forEachInSection(SECTION, property -> bh.consume(property.value()));
+    }
+
+    @Benchmark
+    public void view(Blackhole bh) {
+        for (IniProperty<Object> property : iniDoc.getSectionView(SECTION))
+        {
+            bh.consume(property.value());
+        }
+    }
+}
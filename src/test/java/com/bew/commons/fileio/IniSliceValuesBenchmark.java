@@ -0,0 +1,131 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of loading a file of numeric values, and then reading every one of
+ * them once through {@link IniDocument#getInt(String, String, int)}, with and
+ * without {@link IniFile#sliceValues}.
+ * <p>
+ * Run with {@code -prof gc}, to also compare the allocation rate:
+ * {@code java -cp <test-classpath> org.openjdk.jmh.Main IniSliceValuesBenchmark -prof gc}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniSliceValuesBenchmark {
+
+    private static final int KEYS_PER_SECTION = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniSliceValuesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Param(
+            {
+                "false", "true"
+            })
+    public boolean sliceValues;
+
+    @Param(
+            {
+                "100000"
+            })
+    public int keys;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("IniSliceValuesBenchmark", ".ini");
+
+        try ( BufferedWriter bw = Files.newBufferedWriter(file))
+        {
+            for (int k = 0; k < keys; k++)
+            {
+                if (k % KEYS_PER_SECTION == 0)
+                {
+                    bw.write("[section" + (k / KEYS_PER_SECTION) + "]");
+                    bw.newLine();
+                }
+
+                bw.write("key" + (k % KEYS_PER_SECTION) + " = " + k);
+                bw.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long loadAndRead() throws IOException, IniFileFormatException {
+        IniFile iniFile = new IniFile(file);
+        iniFile.sliceValues = sliceValues;
+        IniDocument iniDoc = iniFile.loadFile().iniDoc;
+        long sum = 0;
+
+        for (int k = 0; k < keys; k++)
+        {
+            sum += iniDoc.getInt("section" + (k / KEYS_PER_SECTION), "key" + (k % KEYS_PER_SECTION), 0);
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Multi-threaded read throughput of {@link IniFile#snapshot()}, while another
+ * thread keeps publishing changes through {@link IniFile#update update()}.
+ * <p>
+ * The {@code locked} group is the alternative of guarding every access to the
+ * shared {@link IniDocument} with a lock, for comparison.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniSnapshotReadBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class IniSnapshotReadBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 100;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniSnapshotReadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniFile ini;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ini = new IniFile();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            for (int k = 0; k < KEYS; k++)
+            {
+                ini.iniDoc.setInt("section" + s, "key" + k, k);
+            }
+        }
+
+        ini.snapshot();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public int lockedRead() {
+        synchronized (ini)
+        {
+            return ini.iniDoc.getInt("section50", "key50", 0);
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public Integer lockedWrite() {
+        synchronized (ini)
+        {
+            return ini.iniDoc.setInt("section0", "key0", next++);
+        }
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public int snapshotRead() {
+        return ini.snapshot().getInt("section50", "key50", 0);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public IniSnapshot snapshotWrite() {
+        return ini.update(iniDoc -> iniDoc.setInt("section0", "key0", next++));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Save throughput of {@link IniWriter}, compared with building each line as a
+ * {@code String} and writing it through a {@code BufferedWriter}, as
+ * {@link IniFile} used to. Both write to a null stream, so only the cost of
+ * producing the bytes is measured. Run with {@code -prof gc} to see the
+ * garbage created.
+ * <p>
+ * Run with: {@code java -cp <test-classpath> com.bew.commons.fileio.IniWriterBenchmark}
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ *
+ * @since 1.0.24
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class IniWriterBenchmark {
+
+    private static final int KEYS = 100;
+    private static final int SECTIONS = 1000;
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args Not used.
+     *
+     * @throws RunnerException If the benchmarks fail to run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IniWriterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private IniDocument iniDoc;
+    private IniWriter writer;
+
+    @Setup
+    public void setup() {
+        iniDoc = new IniDocument();
+
+        for (int s = 0; s < SECTIONS; s++)
+        {
+            iniDoc.setSection("section" + s, "# Section " + s);
+
+            for (int k = 0; k < KEYS; k++)
+            {
+                iniDoc.setString("section" + s, "key" + k, "value " + k,
+                                 k % 10 == 0 ? "# Comment for key" + k : null);
+            }
+        }
+
+        writer = new IniWriter(iniDoc);
+    }
+
+    @Benchmark
+    public long iniWriter() throws IOException {
+        return writer.writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public BufferedWriter stringLines() throws IOException {
+        BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), UTF_8));
+
+        for (IniSection section : iniDoc.entries.values())
+        {
+            if (section.key() != null)
+            {
+                if (section.comment() != null)
+                {
+                    bw.write("\n" + section.comment() + "\n[" + section.key() + "]\n");
+                } else
+                {
+                    bw.write("\n[" + section.key() + "]\n");
+                }
+            }
+
+            for (IniEntry key : section.value().values())
+            {
+                if (key.comment() != null)
+                {
+                    bw.write(key.comment() + "\n" + join(key.key(), (String) key.value()) + "\n");
+                } else
+                {
+                    bw.write(join(key.key(), (String) key.value()) + "\n");
+                }
+            }
+        }
+
+        bw.flush();
+        return bw;
+    }
+
+    private static String join(String key, String value) {
+        return value.isEmpty() ? (key + "=").strip() : key + "=" + value;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the BEW Commons Library (aka: BEWCommons).
+ *
+ * Copyright (C) 2020 Bradley Willcott
+ *
+ * BEWCommons is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BEWCommons is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.bew.commons.fileio;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ *
+ * @author <a href="mailto:bw.opensource@yahoo.com">Bradley Willcott</a>
+ */
+public class IniWriterTest {
+
+    private static final Path PATH = Path.of("src/test/resources/Test-orig.ini");
+
+    /**
+     * Test of writeTo method, of class IniWriter, to each of the targets.
+     */
+    @Test
+    public void testWriteTo() {
+        System.out.println("testWriteTo");
+        Path file = assertDoesNotThrow(() ->
+        {
+            return Files.createTempFile("IniWriterTest", ".ini");
+        });
+
+        try
+        {
+            IniFile iniFile = assertDoesNotThrow(() ->
+            {
+                return new IniFile(PATH).loadFile().saveFileAs(file);
+            });
+            byte[] expected = assertDoesNotThrow(() -> Files.readAllBytes(file));
+            IniWriter instance = new IniWriter(iniFile.iniDoc);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(expected.length, assertDoesNotThrow(() -> instance.writeTo(out)));
+            assertArrayEquals(expected, out.toByteArray());
+
+            out.reset();
+            assertEquals(expected.length, assertDoesNotThrow(() -> instance.writeTo(Channels.newChannel(out))));
+            assertArrayEquals(expected, out.toByteArray());
+
+            assertEquals(expected.length, instance.size());
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) instance.size());
+            assertEquals(expected.length, instance.writeTo(buffer));
+            byte[] bytes = new byte[expected.length];
+            buffer.flip().get(bytes);
+            assertArrayEquals(expected, bytes);
+
+            assertThrows(BufferOverflowException.class, () -> instance.writeTo(ByteBuffer.allocate(expected.length - 1)));
+        } finally
+        {
+            assertDoesNotThrow(() ->
+            {
+                Files.deleteIfExists(file);
+            });
+        }
+    }
+
+    /**
+     * Test of writeTo method, of class IniWriter, with values that need more
+     * than one byte, and empty values.
+     */
+    @Test
+    public void testWriteTo_Encoding() {
+        System.out.println("testWriteTo_Encoding");
+        IniDocument iniDoc = new IniDocument();
+        iniDoc.setStringG("empty", "");
+        iniDoc.setStringG("  lead", "");
+        iniDoc.setString("s", "two", "é߿");
+        iniDoc.setString("s", "three", "€￮");
+        iniDoc.setString("s", "four", "😀");
+        iniDoc.setString("s", "lone", "a\ud83db");
+
+        String expected = "empty =\nlead =\n\n[s]\ntwo = é߿\nthree = €￮\n"
+                          + "four = 😀\nlone = a?b\n";
+        IniWriter instance = new IniWriter(iniDoc, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertDoesNotThrow(() -> instance.writeTo(out));
+        assertEquals(expected, out.toString(UTF_8));
+    }
+}